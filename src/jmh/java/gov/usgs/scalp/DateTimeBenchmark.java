@@ -0,0 +1,69 @@
+package gov.usgs.scalp;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks date and time arithmetic over a year of hours
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DateTimeBenchmark {
+
+	private static final int N_HOURS = 8760;
+
+	private final DateTime start = new DateTime(2016, 10, 1, 1, 0);
+
+	@Benchmark
+	@OperationsPerInvocation(N_HOURS)
+	public void addHours(Blackhole blackhole) {
+		for (int i = 0; i < N_HOURS; i++)
+			blackhole.consume(start.addHours(i));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N_HOURS)
+	public void calendarFields(Blackhole blackhole) {
+		DateTime time = start;
+		for (int i = 0; i < N_HOURS; i++) {
+			blackhole.consume(time.getMonth());
+			blackhole.consume(time.getDayOfWeek());
+			blackhole.consume(time.getHourOfDay());
+			time = time.getNextHour();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N_HOURS)
+	public void diffHours(Blackhole blackhole) {
+		DateTime time = start;
+		for (int i = 0; i < N_HOURS; i++) {
+			blackhole.consume(time.diffHours(start));
+			time = time.addMinutes(60);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N_HOURS)
+	public void hecTime(Blackhole blackhole) {
+		long minutes = start.getTimeInMinutes();
+		for (int i = 0; i < N_HOURS; i++)
+			blackhole.consume(DateTime.fromTimeInMinutes(minutes + i * 60L).getHecTime().value());
+	}
+
+}
@@ -0,0 +1,67 @@
+package gov.usgs.scalp;
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks parsing fixed-width input lines
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InputLineBenchmark {
+
+	private static final String SEGMENT_DESCRIPTOR = "A3,13X,I8,3F8";
+	private static final String SANITARY_DESCRIPTOR = "16X,6F8";
+
+	private final InputLine segmentLine = new InputLine("SEG#,AREA=             2   0.021   0.031   0.031");
+	private final InputLine sanitaryLine = new InputLine(
+			"JAN-JUNE=           0.92    0.94    1.03    1.04    1.04    1.08");
+
+	private InputDataDescriptor[] segmentDescriptors;
+
+	@Setup
+	public void setUp() {
+		segmentDescriptors = InputDataDescriptor.parseDescriptor(SEGMENT_DESCRIPTOR);
+	}
+
+	@Benchmark
+	public Object[] parseSegment() throws ParseException {
+		return segmentLine.parse(SEGMENT_DESCRIPTOR);
+	}
+
+	@Benchmark
+	public Object[] parseSegmentDescriptors() throws ParseException {
+		return segmentLine.parse(segmentDescriptors);
+	}
+
+	@Benchmark
+	public InputFields decodeSegment() throws ParseException {
+		return segmentLine.decode(SEGMENT_DESCRIPTOR);
+	}
+
+	@Benchmark
+	public Object[] parseSanitary() throws ParseException {
+		return sanitaryLine.parse(SANITARY_DESCRIPTOR);
+	}
+
+	@Benchmark
+	public InputDataDescriptor[] parseDescriptor() {
+		return InputDataDescriptor.parseDescriptor(SEGMENT_DESCRIPTOR);
+	}
+
+}
@@ -0,0 +1,112 @@
+package gov.usgs.scalp;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks single linear reservoir steps and ODE integrators
+ * <p>
+ * Each invocation routes a day of minute inflow, so scores are per step.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReservoirBenchmark {
+
+	private static final int N_STEPS = 1440;
+	private static final double DELTA_T = 60;
+
+	@Param({ "euler", "runge-kutta", "exact", "pass-through" })
+	public String integratorName;
+
+	private Integrator integrator;
+	private SingleLinearReservoirODE ode;
+	private SingleLinearReservoir reservoir;
+
+	private final double[] infiltration = new double[N_STEPS];
+	private final double[] sanitary = new double[N_STEPS];
+	private final double[] stormWater = new double[N_STEPS];
+	private final FlowValue[] inflow = new FlowValue[N_STEPS];
+
+	private final double[] interceptorFlow = new double[3];
+	private final double[] overflow = new double[3];
+
+	@Setup
+	public void setUp() {
+
+		switch (integratorName) {
+		case "euler":
+			integrator = new EulerIntegrator();
+			break;
+		case "runge-kutta":
+			integrator = new RungeKuttaIntegrator();
+			break;
+		case "exact":
+			integrator = new ExactExponentialIntegrator();
+			break;
+		default:
+			integrator = new PassThroughIntegrator();
+		}
+
+		ode = new SingleLinearReservoirODE(2580);
+		reservoir = new SingleLinearReservoir(new ReservoirInfo(2580, 20, 8, 1, false), integrator);
+
+		for (int i = 0; i < N_STEPS; i++) {
+			infiltration[i] = 0.75;
+			sanitary[i] = 0.1 * (i % 60) / 60;
+			stormWater[i] = i % 200 < 40 ? 25 : 0;
+			inflow[i] = new FlowValue(infiltration[i], sanitary[i], stormWater[i]);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N_STEPS)
+	public void step(Blackhole blackhole) {
+		for (int i = 0; i < N_STEPS; i++) {
+			reservoir.step(infiltration[i], sanitary[i], stormWater[i], DELTA_T, interceptorFlow, overflow);
+			blackhole.consume(interceptorFlow[SingleLinearReservoir.STORM_WATER]);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N_STEPS)
+	public void stepFlowValue(Blackhole blackhole) {
+		for (int i = 0; i < N_STEPS; i++)
+			blackhole.consume(reservoir.step(inflow[i], DELTA_T));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N_STEPS)
+	public double integrate() {
+		double outflow = 1;
+		for (int i = 0; i < N_STEPS; i++)
+			outflow = integrator.integrate(ode, DELTA_T, stormWater[i], outflow);
+		return outflow;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N_STEPS)
+	public FlowValue integrateFlowValue() {
+		FlowValue outflow = new FlowValue(1, 1, 1);
+		for (int i = 0; i < N_STEPS; i++)
+			outflow = integrator.integrate(ode, DELTA_T, inflow[i], outflow);
+		return outflow;
+	}
+
+}
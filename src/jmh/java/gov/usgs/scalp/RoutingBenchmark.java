@@ -0,0 +1,55 @@
+package gov.usgs.scalp;
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks routing a year of hourly SCA inflow through the sewer cascade
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RoutingBenchmark {
+
+	@Param({ "1", "15" })
+	public int timeStep;
+
+	// zero routes at a fixed time step
+	@Param({ "0", "0.001" })
+	public double tolerance;
+
+	private SpecialContributingArea sca;
+
+	@Setup
+	public void setUp() throws ParseException {
+		RoutingOptions routingOptions = tolerance > 0 ? new RoutingOptions(timeStep, tolerance)
+				: new RoutingOptions(timeStep);
+		sca = SyntheticInputs.sca(SyntheticInputs.watershed(), SyntheticInputs.sanitary(), routingOptions);
+	}
+
+	@Benchmark
+	public AvgFlowTimeSeries[] routeFlows() {
+		return sca.routeFlows();
+	}
+
+	@Benchmark
+	public AvgFlowTimeSeries inflowTimeSeries() {
+		return sca.getInflowTimeSeries();
+	}
+
+}
@@ -0,0 +1,107 @@
+package gov.usgs.scalp;
+
+import java.text.ParseException;
+
+/**
+ * Synthetic benchmark inputs
+ * <p>
+ * Input blocks are those of {@link TestInputs}, and land segment runoff is
+ * generated into an {@link InMemoryTimeSeriesStore} in place of reading it from
+ * a DSS file, so benchmarks run without the HEC-DSS native library.
+ */
+class SyntheticInputs {
+
+	private SyntheticInputs() {
+	}
+
+	/**
+	 * Returns a watershed of three land segments with a year of hourly runoff
+	 *
+	 * @return watershed
+	 * @throws ParseException
+	 *             if the watershed input is invalid
+	 */
+	static Watershed watershed() throws ParseException {
+
+		// storms of a few hours every four days
+		return TestInputs.watershed("2017      09      30", (pathname, hour) -> {
+			double scale = (pathname.hashCode() % 7 + 7) * 0.01;
+			return hour % 96 < 6 ? scale * 2 : scale * 0.01;
+		});
+	}
+
+	/**
+	 * Returns sanitary flow information with one info set
+	 *
+	 * @return sanitary flow information
+	 * @throws ParseException
+	 *             if the sanitary input is invalid
+	 */
+	static Sanitary sanitary() throws ParseException {
+		return TestInputs.sanitary();
+	}
+
+	/**
+	 * Returns a special contributing area on all land segments of
+	 * {@link #watershed()}
+	 *
+	 * @param watershed
+	 *            watershed
+	 * @param sanitary
+	 *            sanitary flow information
+	 * @param routingOptions
+	 *            flow routing options
+	 * @return special contributing area
+	 * @throws ParseException
+	 *             if the SCA input is invalid
+	 */
+	static SpecialContributingArea sca(Watershed watershed, Sanitary sanitary, RoutingOptions routingOptions)
+			throws ParseException {
+		SCAInputBlock scaBlock = TestInputs.scaBlock(1, "SEG#,AREA=             2   0.021   0.031   0.031",
+				"SEG#,AREA=             3   0.046   0.060   0.060", "SEG#,AREA=             5   0.121   0.008   0.301");
+		return new SpecialContributingArea(scaBlock, watershed, sanitary, routingOptions);
+	}
+
+	/**
+	 * Returns an hourly time series of generated values
+	 *
+	 * @param nHours
+	 *            number of hours
+	 * @param offset
+	 *            value offset
+	 * @return hourly time series
+	 */
+	static TimeSeries hourlyTimeSeries(int nHours, double offset) {
+		long start = new DateTime(2016, 10, 1, 1, 0).getTimeInMillis();
+		long[] times = new long[nHours];
+		double[] values = new double[nHours];
+		for (int i = 0; i < nHours; i++) {
+			times[i] = start + i * 3600000L;
+			values[i] = offset + Math.sin(i / 24.0);
+		}
+		return new TimeSeries(times, values);
+	}
+
+	/**
+	 * Returns an hour-averaged flow time series of generated flows
+	 *
+	 * @param nHours
+	 *            number of hours
+	 * @return hour-averaged flow time series
+	 */
+	static AvgFlowTimeSeries avgFlowTimeSeries(int nHours) {
+		long start = new DateTime(2016, 10, 1, 1, 0).getTimeInMillis();
+		long[] times = new long[nHours];
+		double[] infiltration = new double[nHours];
+		double[] sanitary = new double[nHours];
+		double[] stormWater = new double[nHours];
+		for (int i = 0; i < nHours; i++) {
+			times[i] = start + i * 3600000L;
+			infiltration[i] = 0.75;
+			sanitary[i] = 0.1 * (i % 24) / 24;
+			stormWater[i] = i % 96 < 6 ? 25 : 0;
+		}
+		return new AvgFlowTimeSeries(times, infiltration, sanitary, stormWater);
+	}
+
+}
@@ -0,0 +1,73 @@
+package gov.usgs.scalp;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks time series arithmetic and conversions between hourly and
+ * instantaneous flow
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TimeSeriesBenchmark {
+
+	@Param({ "8760" })
+	public int nHours;
+
+	@Param({ "1", "15" })
+	public int timeStep;
+
+	private TimeSeries timeSeries;
+	private TimeSeries otherTimeSeries;
+	private AvgFlowTimeSeries avgFlowTimeSeries;
+	private InstFlowTimeSeries instFlowTimeSeries;
+
+	@Setup
+	public void setUp() {
+		timeSeries = SyntheticInputs.hourlyTimeSeries(nHours, 0);
+		otherTimeSeries = SyntheticInputs.hourlyTimeSeries(nHours, 1);
+		avgFlowTimeSeries = SyntheticInputs.avgFlowTimeSeries(nHours);
+		instFlowTimeSeries = avgFlowTimeSeries.getInstantaneous(timeStep);
+	}
+
+	@Benchmark
+	public TimeSeries add() {
+		return timeSeries.add(otherTimeSeries);
+	}
+
+	@Benchmark
+	public InstFlowTimeSeries getInstantaneous() {
+		return avgFlowTimeSeries.getInstantaneous(timeStep);
+	}
+
+	@Benchmark
+	public AvgFlowTimeSeries getAveraged() {
+		return instFlowTimeSeries.getAveraged();
+	}
+
+	// streaming equivalent of getInstantaneous followed by getAveraged
+	@Benchmark
+	public AvgFlowTimeSeries cursorAveraged() {
+		InstFlowCursor cursor = avgFlowTimeSeries.getInstantaneousCursor(timeStep);
+		HourlyFlowAverager averager = new HourlyFlowAverager(nHours);
+		while (cursor.next())
+			averager.add(cursor.time(), cursor.infiltration(), cursor.sanitary(), cursor.stormWater());
+		return averager.getAveraged();
+	}
+
+}
@@ -5,6 +5,33 @@ package gov.usgs.scalp;
  */
 public class AvgFlowTimeSeries extends FlowTimeSeries {
 
+	private static final long MILLISECONDS_IN_A_MINUTE = 60000;
+	private static final long MILLISECONDS_IN_AN_HOUR = 3600000;
+
+	/**
+	 * Initializes an empty hour-averaged flow time series
+	 */
+	public AvgFlowTimeSeries() {
+		super();
+	}
+
+	/**
+	 * Initializes an hour-averaged flow time series that uses the arrays as its
+	 * storage
+	 *
+	 * @param sortedTimes
+	 *            strictly increasing observation times in milliseconds
+	 * @param infiltration
+	 *            infiltration flows
+	 * @param sanitary
+	 *            sanitary flows
+	 * @param stormWater
+	 *            storm water flows
+	 */
+	AvgFlowTimeSeries(long[] sortedTimes, double[] infiltration, double[] sanitary, double[] stormWater) {
+		super(sortedTimes, infiltration, sanitary, stormWater);
+	}
+
 	/**
 	 * Returns an instantaneous flow time series from this average time series
 	 *
@@ -19,28 +46,52 @@ public class AvgFlowTimeSeries extends FlowTimeSeries {
 			throw new IllegalArgumentException();
 		}
 
-		DateTime[] times = getTimes();
-		FlowValue[] values = getValues();
+		long[] times = timeColumn();
+		double[] infiltration = infiltrationColumn();
+		double[] sanitary = sanitaryColumn();
+		double[] stormWater = stormWaterColumn();
 
 		int nTimes = times.length;
-		DateTime dateTime;
-		DateTime nextHour;
+		long step = timeStep * MILLISECONDS_IN_A_MINUTE;
+		long dateTime;
+		long nextHour;
 
 		InstFlowTimeSeries instTimeSeries = new InstFlowTimeSeries();
+		instTimeSeries.ensureCapacity(nTimes * (int) ((MILLISECONDS_IN_AN_HOUR + step - 1) / step));
 
 		// the quantities in the hourly-averaged time series are representative of the
 		// previous hour. make the instantaneous time series representative of the top
 		// of the hour.
 		for (int i = 0; i < nTimes; i++) {
 			nextHour = times[i];
-			dateTime = times[i].subtractHours(1);
-			while (dateTime.lessThan(nextHour)) {
-				instTimeSeries.put(dateTime, new FlowValue(values[i]));
-				dateTime = dateTime.addMinutes(timeStep);
+			dateTime = times[i] - MILLISECONDS_IN_AN_HOUR;
+			while (dateTime < nextHour) {
+				instTimeSeries.put(dateTime, infiltration[i], sanitary[i], stormWater[i]);
+				dateTime += step;
 			}
 		}
 
 		return instTimeSeries;
 	}
 
+	/**
+	 * Returns a cursor over the instantaneous flows of this average time series.
+	 * The cursor produces the flows of {@link #getInstantaneous(int)} without
+	 * materializing them. Observation times must be at least an hour apart, see
+	 * {@link InstFlowCursor#isHourlySpaced(long[])}.
+	 *
+	 * @param timeStep
+	 *            instantaneous time step in minutes
+	 * @return instantaneous flow cursor
+	 */
+	InstFlowCursor getInstantaneousCursor(int timeStep) {
+
+		long[] times = timeColumn();
+
+		if (!InstFlowCursor.isHourlySpaced(times))
+			throw new IllegalStateException("Observation times must be at least an hour apart");
+
+		return new InstFlowCursor(times, infiltrationColumn(), sanitaryColumn(), stormWaterColumn(), timeStep);
+	}
+
 }
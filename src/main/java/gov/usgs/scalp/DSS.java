@@ -1,5 +1,7 @@
 package gov.usgs.scalp;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -12,10 +14,31 @@ import hec.io.TimeSeriesContainer;
 
 /**
  * SCALP Wrapper for HEC-DSS file functionality
+ * <p>
+ * Records can be read and written within a session: {@link #open()} opens the
+ * DSS file once, and it stays open for all reads and writes until
+ * {@link #close()} is called. Outside of a session the file is opened and
+ * closed for each read and write. Reads and writes are synchronized on this
+ * instance.
+ * <p>
+ * Times are converted to HEC time values once for records written in a row
+ * with the same times, such as all output of a simulation.
  */
-public class DSS {
+public class DSS implements TimeSeriesStore {
 
 	private String filePath;
+
+	// DSS file of the open session, null if no session is open
+	private DSSFile session;
+
+	// times of the last record written, and their HEC time values
+	private long[] lastTimes;
+	private int[] lastHecTimes;
+
+	// minutes from the HEC epoch, 31 Dec 1899 00:00, to the Unix epoch
+	private static final long HEC_EPOCH_OFFSET = 25568L * 1440L;
+	private static final long MILLISECONDS_IN_A_MINUTE = 60000;
+
 	private static final Logger LOGGER = Logger.getLogger("gov.usgs.scalp.DSS");
 
 	/**
@@ -32,24 +55,44 @@ public class DSS {
 		this.filePath = filePath;
 	}
 
-	private static TimeSeries convertTSC(TimeSeriesContainer tsContainer) {
+	/**
+	 * Converts a time series container to a time series. Container times and
+	 * values are copied straight into primitive arrays, and regular records
+	 * become regular time series.
+	 *
+	 * @param tsContainer
+	 *            time series container
+	 * @return time series
+	 */
+	static TimeSeries convertTSC(TimeSeriesContainer tsContainer) {
 
-		assert tsContainer != null;
+		if (tsContainer == null)
+			throw new NullPointerException();
 
-		TimeSeries timeSeries;
+		int nTimes = tsContainer.times.length;
+		long[] times = new long[nTimes];
+		double[] values = Arrays.copyOf(tsContainer.values, nTimes);
 
-		if (tsContainer == null) {
-			timeSeries = null;
-		} else {
-			timeSeries = new TimeSeries();
-			HecTime hecTime = new HecTime();
-			for (int time : tsContainer.times) {
-				hecTime.set(time);
-				timeSeries.put(new DateTime(hecTime), tsContainer.getValue(hecTime));
-			}
-		}
+		for (int i = 0; i < nTimes; i++)
+			times[i] = hecMinutesToMillis(tsContainer.times[i]);
 
-		return timeSeries;
+		// regular records are converted to regular time series
+		if (TimeSeries.isStrictlyIncreasing(times))
+			return TimeSeries.fromSortedArrays(times, values);
+		else
+			return new TimeSeries(times, values);
+	}
+
+	/**
+	 * Converts a HEC time value, in minutes since the HEC epoch, to milliseconds
+	 * since the Unix epoch
+	 *
+	 * @param hecMinutes
+	 *            HEC time value
+	 * @return time in milliseconds
+	 */
+	static long hecMinutesToMillis(int hecMinutes) {
+		return (hecMinutes - HEC_EPOCH_OFFSET) * MILLISECONDS_IN_A_MINUTE;
 	}
 
 	private static DSSFile openDSS(String filePath) {
@@ -70,12 +113,56 @@ public class DSS {
 	}
 
 	/**
-	 * Closes this DSS file.
-	 * <p>
-	 * Does nothing in current implementation.
+	 * Opens a session on this DSS file. The file stays open until {@link #close()}
+	 * is called. Does nothing if a session is already open.
+	 *
+	 * @return this instance
+	 */
+	@Override
+	public synchronized DSS open() {
+
+		if (session == null)
+			session = openDSS(filePath);
+
+		return this;
+	}
+
+	/**
+	 * Closes the session on this DSS file. Does nothing if no session is open.
 	 */
-	public void close() {
-		;
+	@Override
+	public synchronized void close() {
+
+		if (session != null) {
+			closeDSS(session);
+			session = null;
+		}
+	}
+
+	/**
+	 * Returns true if a session is open on this DSS file
+	 *
+	 * @return true if a session is open
+	 */
+	public synchronized boolean isOpen() {
+		return session != null;
+	}
+
+	// returns the DSS file of the session, or opens the file for a single read or
+	// write
+	private DSSFile acquire() {
+
+		if (session != null)
+			return session;
+
+		return openDSS(filePath);
+	}
+
+	// closes a DSS file that was opened for a single read or write
+	private void release(DSSFile dssFile) {
+
+		if (dssFile != session)
+			closeDSS(dssFile);
 	}
 
 	/**
@@ -87,6 +174,40 @@ public class DSS {
 		return filePath;
 	}
 
+	/**
+	 * Returns the path to this DSS file
+	 *
+	 * @return path to DSS file
+	 */
+	@Override
+	public String getName() {
+		return filePath;
+	}
+
+	/**
+	 * Returns the path names of all records in this DSS file
+	 *
+	 * @return path names
+	 */
+	@Override
+	public synchronized String[] getCatalog() {
+
+		DSSFile dssFile = acquire();
+		List<?> pathnames;
+		LOGGER.log(Level.INFO, "Reading catalog of " + dssFile.getFilename());
+		try {
+			pathnames = dssFile.getCatalogedPathnames();
+		} finally {
+			release(dssFile);
+		}
+
+		String[] catalog = new String[pathnames.size()];
+		for (int i = 0; i < catalog.length; i++)
+			catalog[i] = pathnames.get(i).toString();
+
+		return catalog;
+	}
+
 	/**
 	 * Read a time series from a DSS instance
 	 *
@@ -94,12 +215,13 @@ public class DSS {
 	 *            DSS path name
 	 * @return time series
 	 */
-	public TimeSeries readTimeSeries(String pathname) {
+	@Override
+	public synchronized TimeSeries readTimeSeries(String pathname) {
 
 		if (pathname == null)
 			throw new NullPointerException();
 
-		DSSFile dssFile = openDSS(filePath);
+		DSSFile dssFile = acquire();
 		TimeSeriesMath timeSeriesMath;
 		TimeSeriesContainer tsContainer;
 		LOGGER.log(Level.INFO, "Reading path " + pathname + " from " + dssFile.getFilename());
@@ -112,8 +234,9 @@ public class DSS {
 		} catch (DSSFileException e) {
 			LOGGER.log(Level.SEVERE, "Failed to read record " + pathname);
 			tsContainer = null;
+		} finally {
+			release(dssFile);
 		}
-		closeDSS(dssFile);
 
 		if (tsContainer == null)
 			return null;
@@ -132,12 +255,13 @@ public class DSS {
 	 *            time series end time
 	 * @return time series
 	 */
-	public TimeSeries readTimeSeries(String pathname, DateTime startDateTime, DateTime endDateTime) {
+	@Override
+	public synchronized TimeSeries readTimeSeries(String pathname, DateTime startDateTime, DateTime endDateTime) {
 
 		if (pathname == null || startDateTime == null || endDateTime == null)
 			throw new NullPointerException();
 
-		DSSFile dssFile = openDSS(filePath);
+		DSSFile dssFile = acquire();
 
 		HecTime hecStartTime = startDateTime.getHecTime();
 		HecTime hecEndTime = endDateTime.getHecTime();
@@ -155,11 +279,14 @@ public class DSS {
 		} catch (DSSFileException e) {
 			LOGGER.log(Level.SEVERE, "Failed to read record " + pathname);
 			tsContainer = null;
+		} finally {
+			release(dssFile);
 		}
 
-		closeDSS(dssFile);
-
-		return convertTSC(tsContainer);
+		if (tsContainer == null)
+			return null;
+		else
+			return convertTSC(tsContainer);
 	}
 
 	/**
@@ -174,28 +301,77 @@ public class DSS {
 	 *            time series to write
 	 * @return write code
 	 */
-	public int writeTimeSeries(String pathname, TimeSeries timeSeries) {
+	@Override
+	public synchronized int writeTimeSeries(String pathname, TimeSeries timeSeries) {
 
 		if (pathname == null || timeSeries == null)
 			throw new NullPointerException();
 
-		DSSFile dssFile = openDSS(filePath);
+		return writeTimeSeries(pathname, hecTimes(timeSeries), timeSeries.getValues());
+	}
 
-		LOGGER.log(Level.INFO, "Writing time series to path " + pathname + " to file " + dssFile.getFilename());
-		TimeSeriesContainer tsc = new TimeSeriesContainer();
+	/**
+	 * Writes a batch of time series within one lock on this DSS instance. Writing
+	 * continues past records that fail to write, and the path names of all failed
+	 * records are returned.
+	 *
+	 * @param pathnames
+	 *            DSS path names
+	 * @param timeSeries
+	 *            time series to write
+	 * @return path names of records that failed to write
+	 */
+	@Override
+	public synchronized String[] writeTimeSeries(String[] pathnames, TimeSeries[] timeSeries) {
+		return TimeSeriesStore.super.writeTimeSeries(pathnames, timeSeries);
+	}
+
+	// converts the times of a time series, reusing the HEC time values of the last
+	// record written if the times are the same
+	private int[] hecTimes(TimeSeries timeSeries) {
 
-		int nObs = timeSeries.nObs();
-		int[] tscTimes = new int[nObs];
-		DateTime[] times = timeSeries.getTimes();
+		long[] times = timeSeries.getTimesInMillis();
 
-		for (int i = 0; i < nObs; i++) {
-			tscTimes[i] = times[i].getHecTime().value();
+		if (!Arrays.equals(times, lastTimes)) {
+			lastTimes = times;
+			lastHecTimes = toHecTimes(times);
 		}
 
+		return lastHecTimes;
+	}
+
+	/**
+	 * Write a time series to a DSS instance from HEC time values
+	 * <p>
+	 * Returns a write code of 0 if write is successful, -1 if an error was
+	 * encountered during write. The arrays are adopted by the written container
+	 * and must not be modified while the write is in progress.
+	 *
+	 * @param pathname
+	 *            DSS path name
+	 * @param hecTimes
+	 *            HEC time values, in minutes since the HEC epoch
+	 * @param values
+	 *            values to write
+	 * @return write code
+	 */
+	synchronized int writeTimeSeries(String pathname, int[] hecTimes, double[] values) {
+
+		if (pathname == null || hecTimes == null || values == null)
+			throw new NullPointerException();
+
+		if (hecTimes.length != values.length)
+			throw new IllegalArgumentException("Times and values must have equal lengths");
+
+		DSSFile dssFile = acquire();
+
+		LOGGER.log(Level.INFO, "Writing time series to path " + pathname + " to file " + dssFile.getFilename());
+		TimeSeriesContainer tsc = new TimeSeriesContainer();
+
 		tsc.fullName = pathname;
-		tsc.times = tscTimes;
-		tsc.values = timeSeries.getValues();
-		tsc.numberValues = nObs;
+		tsc.times = hecTimes;
+		tsc.values = values;
+		tsc.numberValues = hecTimes.length;
 
 		// only writing instantaneous flow in us customary units
 		tsc.units = "CFS";
@@ -209,10 +385,27 @@ public class DSS {
 		} catch (DSSFileException e) {
 			LOGGER.log(Level.SEVERE, "Failed to write record " + pathname);
 			return -1;
+		} finally {
+			release(dssFile);
 		}
 
-		closeDSS(dssFile);
-
 		return 0;
 	}
+
+	/**
+	 * Converts times in milliseconds since the Unix epoch to HEC time values
+	 *
+	 * @param millis
+	 *            times in milliseconds
+	 * @return HEC time values, in minutes since the HEC epoch
+	 */
+	static int[] toHecTimes(long[] millis) {
+
+		int[] hecTimes = new int[millis.length];
+
+		for (int i = 0; i < millis.length; i++)
+			hecTimes[i] = Math.toIntExact(Math.floorDiv(millis[i], MILLISECONDS_IN_A_MINUTE) + HEC_EPOCH_OFFSET);
+
+		return hecTimes;
+	}
 }
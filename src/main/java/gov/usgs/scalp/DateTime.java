@@ -4,12 +4,18 @@ import hec.heclib.util.HecTime;
 
 /**
  * SCALP date/time class
+ * <p>
+ * Instances are immutable and represent a time in whole minutes from the epoch
+ * of 1970-01-01T00:00:00Z. Calendar fields follow the HEC convention: midnight
+ * is represented as hour 24 of the previous day.
  */
 public class DateTime implements Comparable<DateTime> {
 
-	private HecTime hecTime;
+	private static final long MINUTES_IN_AN_HOUR = 60;
+	private static final long MINUTES_IN_A_DAY = 1440;
+	private static final long MILLISECONDS_IN_A_MINUTE = 60000;
 
-	private final long MILLISECONDS_IN_AN_HOUR = 3600000;
+	private final long minutes;
 
 	/**
 	 * Constructs a DateTime instance from an time in milliseconds from the epoch of
@@ -19,8 +25,7 @@ public class DateTime implements Comparable<DateTime> {
 	 *            time in milliseconds
 	 */
 	public DateTime(long milliEpoch) {
-		hecTime = new HecTime();
-		hecTime.setTimeInMillis(milliEpoch);
+		minutes = Math.floorDiv(milliEpoch, MILLISECONDS_IN_A_MINUTE);
 	}
 
 	/**
@@ -30,7 +35,7 @@ public class DateTime implements Comparable<DateTime> {
 	 *            other DateTime
 	 */
 	public DateTime(DateTime other) {
-		this(other.hecTime);
+		minutes = other.minutes;
 	}
 
 	/**
@@ -48,9 +53,7 @@ public class DateTime implements Comparable<DateTime> {
 	 *            minute
 	 */
 	public DateTime(int year, int month, int day, int hour, int minute) {
-		String date = String.format("%02d/%02d/%04d", month, day, year);
-		String time = String.format("%02d:%02d", hour, minute);
-		hecTime = new HecTime(date, time);
+		minutes = epochMinutes(year, month, day, hour, minute);
 	}
 
 	/**
@@ -60,11 +63,94 @@ public class DateTime implements Comparable<DateTime> {
 	 *            HecTime instance
 	 */
 	public DateTime(HecTime hecTime) {
+		this(hecTime.getTimeInMillis());
+	}
 
-		if (hecTime == null)
-			throw new NullPointerException();
+	/**
+	 * Returns a DateTime from a time in minutes from the epoch of
+	 * 1970-01-01T00:00:00Z
+	 *
+	 * @param epochMinutes
+	 *            time in minutes
+	 * @return new instance
+	 */
+	public static DateTime fromTimeInMinutes(long epochMinutes) {
+		// the millisecond constructor converts back to the same whole minute
+		return new DateTime(Math.multiplyExact(epochMinutes, MILLISECONDS_IN_A_MINUTE));
+	}
+
+	private static long epochMinutes(int year, int month, int day, int hour, int minute) {
+
+		if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month) || hour < 0 || hour > 24
+				|| minute < 0 || minute > 59 || (hour == 24 && minute != 0))
+			throw new IllegalArgumentException(
+					String.format("Invalid date/time: %04d-%02d-%02d %02d:%02d", year, month, day, hour, minute));
+
+		return daysFromCivil(year, month, day) * MINUTES_IN_A_DAY + hour * MINUTES_IN_AN_HOUR + minute;
+	}
+
+	// number of days in a month of a proleptic Gregorian year
+	private static int daysInMonth(int year, int month) {
+
+		if (month == 2)
+			return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+
+		if (month == 4 || month == 6 || month == 9 || month == 11)
+			return 30;
+
+		return 31;
+	}
+
+	// days from 1970-01-01 of a proleptic Gregorian date
+	private static long daysFromCivil(long year, int month, int day) {
+		year -= month <= 2 ? 1 : 0;
+		long era = Math.floorDiv(year, 400);
+		long yearOfEra = year - era * 400;
+		long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+		long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097 + dayOfEra - 719468;
+	}
+
+	// day from 1970-01-01 of this instance, with midnight belonging to the previous
+	// day
+	private long epochDay() {
+		return Math.floorDiv(minutes - 1, MINUTES_IN_A_DAY);
+	}
 
-		this.hecTime = new HecTime(hecTime);
+	// day of the year of a day from 1970-01-01, counted from March 1
+	private static long marchDayOfYear(long epochDay) {
+		long z = epochDay + 719468;
+		long dayOfEra = z - Math.floorDiv(z, 146097) * 146097;
+		long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		return dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+	}
+
+	// month of a day of the year counted from March 1
+	private static int month(long marchDayOfYear) {
+		long mp = (5 * marchDayOfYear + 2) / 153;
+		return (int) (mp < 10 ? mp + 3 : mp - 9);
+	}
+
+	// year of a day from 1970-01-01
+	private static int yearFromDays(long epochDay) {
+		long z = epochDay + 719468;
+		long era = Math.floorDiv(z, 146097);
+		long dayOfEra = z - era * 146097;
+		long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		return (int) (yearOfEra + era * 400 + (month(dayOfYear) <= 2 ? 1 : 0));
+	}
+
+	// month of a day from 1970-01-01
+	private static int monthFromDays(long epochDay) {
+		return month(marchDayOfYear(epochDay));
+	}
+
+	// day of month of a day from 1970-01-01
+	private static int dayOfMonthFromDays(long epochDay) {
+		long dayOfYear = marchDayOfYear(epochDay);
+		long mp = (5 * dayOfYear + 2) / 153;
+		return (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
 	}
 
 	/**
@@ -75,9 +161,7 @@ public class DateTime implements Comparable<DateTime> {
 	 * @return new instance
 	 */
 	public DateTime addHours(int hours) {
-		HecTime otherTime = new HecTime(hecTime);
-		otherTime.addHours(hours);
-		return new DateTime(otherTime);
+		return fromTimeInMinutes(minutes + hours * MINUTES_IN_AN_HOUR);
 	}
 
 	/**
@@ -88,22 +172,20 @@ public class DateTime implements Comparable<DateTime> {
 	 * @return new instance
 	 */
 	public DateTime addMinutes(int minutes) {
-		HecTime otherTime = new HecTime(hecTime);
-		otherTime.addMinutes(minutes);
-		return new DateTime(otherTime);
+		return fromTimeInMinutes(this.minutes + minutes);
 	}
 
 	/**
 	 * Adds seconds to this instance and returns a new instance
+	 * <p>
+	 * Times have a resolution of one minute; seconds are truncated.
 	 *
 	 * @param seconds
 	 *            seconds to add to this instance
 	 * @return new instance
 	 */
 	public DateTime addSeconds(int seconds) {
-		HecTime otherTime = new HecTime(hecTime);
-		otherTime.addSeconds(seconds);
-		return new DateTime(otherTime);
+		return fromTimeInMinutes(minutes + seconds / 60);
 	}
 
 	/**
@@ -118,10 +200,7 @@ public class DateTime implements Comparable<DateTime> {
 		if (other == null)
 			throw new NullPointerException();
 
-		if (equals(other))
-			return 0;
-
-		return hecTime.compareTo(other.hecTime);
+		return Long.compare(minutes, other.minutes);
 	}
 
 	@Override
@@ -138,7 +217,12 @@ public class DateTime implements Comparable<DateTime> {
 
 		DateTime dateTime = (DateTime) other;
 
-		return hecTime.equalTo(dateTime.hecTime);
+		return minutes == dateTime.minutes;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(minutes);
 	}
 
 	/**
@@ -153,10 +237,7 @@ public class DateTime implements Comparable<DateTime> {
 		if (other == null)
 			throw new NullPointerException();
 
-		long thisMillis = hecTime.getTimeInMillis();
-		long otherMillis = other.getTimeInMillis();
-
-		int nHours = Math.toIntExact((thisMillis - otherMillis) / MILLISECONDS_IN_AN_HOUR) + 1;
+		int nHours = Math.toIntExact((minutes - other.minutes) / MINUTES_IN_AN_HOUR) + 1;
 
 		return nHours;
 	}
@@ -167,16 +248,18 @@ public class DateTime implements Comparable<DateTime> {
 	 * @return day of month
 	 */
 	public int getDayOfMonth() {
-		return hecTime.day();
+		return dayOfMonthFromDays(epochDay());
 	}
 
 	/**
-	 * Returns the day of the week of this instance
+	 * Returns the day of the week of this instance, from 1 (Sunday) to 7
+	 * (Saturday)
 	 *
 	 * @return day of week
 	 */
 	public int getDayOfWeek() {
-		return hecTime.dayOfWeek();
+		// 1970-01-01 was a Thursday
+		return (int) Math.floorMod(epochDay() + 4, 7) + 1;
 	}
 
 	/**
@@ -185,7 +268,9 @@ public class DateTime implements Comparable<DateTime> {
 	 * @return HecTime instance
 	 */
 	public HecTime getHecTime() {
-		return new HecTime(hecTime);
+		HecTime hecTime = new HecTime();
+		hecTime.setTimeInMillis(getTimeInMillis());
+		return hecTime;
 	}
 
 	/**
@@ -194,21 +279,23 @@ public class DateTime implements Comparable<DateTime> {
 	 * @return hour
 	 */
 	public DateTime getHour() {
-		int year = hecTime.year();
-		int month = hecTime.month();
-		int day = hecTime.day();
-		int hour = hecTime.hour();
-		int minute = 0;
-		return new DateTime(year, month, day, hour, minute);
+		return fromTimeInMinutes(minutes - Math.floorMod(minutes, MINUTES_IN_AN_HOUR));
 	}
 
 	/**
-	 * Returns the hour of the day of this instance
+	 * Returns the hour of the day of this instance. Midnight is hour 24 of the
+	 * previous day.
 	 *
 	 * @return hour of day
 	 */
 	public int getHourOfDay() {
-		return hecTime.hour();
+
+		long minuteOfDay = Math.floorMod(minutes, MINUTES_IN_A_DAY);
+
+		if (minuteOfDay == 0)
+			return 24;
+
+		return (int) (minuteOfDay / MINUTES_IN_AN_HOUR);
 	}
 
 	/**
@@ -217,7 +304,7 @@ public class DateTime implements Comparable<DateTime> {
 	 * @return month of year
 	 */
 	public int getMonth() {
-		return hecTime.month();
+		return monthFromDays(epochDay());
 	}
 
 	/**
@@ -226,8 +313,7 @@ public class DateTime implements Comparable<DateTime> {
 	 * @return beginning of the next hour
 	 */
 	public DateTime getNextHour() {
-		DateTime thisHour = getHour();
-		return thisHour.addHours(1);
+		return fromTimeInMinutes(minutes - Math.floorMod(minutes, MINUTES_IN_AN_HOUR) + MINUTES_IN_AN_HOUR);
 	}
 
 	/**
@@ -236,7 +322,16 @@ public class DateTime implements Comparable<DateTime> {
 	 * @return time in milliseconds
 	 */
 	public long getTimeInMillis() {
-		return hecTime.getTimeInMillis();
+		return minutes * MILLISECONDS_IN_A_MINUTE;
+	}
+
+	/**
+	 * Returns the time in minutes from the epoch of 1970-01-01T00:00:00Z
+	 *
+	 * @return time in minutes
+	 */
+	public long getTimeInMinutes() {
+		return minutes;
 	}
 
 	/**
@@ -245,7 +340,7 @@ public class DateTime implements Comparable<DateTime> {
 	 * @return year
 	 */
 	public int getYear() {
-		return hecTime.year();
+		return yearFromDays(epochDay());
 	}
 
 	/**
@@ -254,7 +349,7 @@ public class DateTime implements Comparable<DateTime> {
 	 * @return true if this is an hourly time stamp
 	 */
 	public boolean isHour() {
-		return (hecTime.minute() == 0 && hecTime.second() == 0);
+		return Math.floorMod(minutes, MINUTES_IN_AN_HOUR) == 0;
 	}
 
 	/**
@@ -265,7 +360,7 @@ public class DateTime implements Comparable<DateTime> {
 	 * @return true if this instance is less than other
 	 */
 	public boolean lessThan(DateTime other) {
-		return hecTime.lessThan(other.hecTime);
+		return minutes < other.minutes;
 	}
 
 	/**
@@ -276,9 +371,7 @@ public class DateTime implements Comparable<DateTime> {
 	 * @return new instance
 	 */
 	public DateTime subtractHours(int hours) {
-		HecTime otherTime = new HecTime(hecTime);
-		otherTime.subtractHours(hours);
-		return new DateTime(otherTime);
+		return fromTimeInMinutes(minutes - hours * MINUTES_IN_AN_HOUR);
 	}
 
 	/**
@@ -287,6 +380,6 @@ public class DateTime implements Comparable<DateTime> {
 	 * @return string representation of this instance
 	 */
 	public String toString() {
-		return hecTime.toString();
+		return getHecTime().toString();
 	}
 }
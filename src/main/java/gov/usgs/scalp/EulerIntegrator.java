@@ -30,4 +30,29 @@ public class EulerIntegrator implements Integrator {
 		return outflow.add(dFV);
 	}
 
+	/**
+	 * Integrates an SLR ODE for a single time step of a single flow constituent
+	 *
+	 * @param ode
+	 *            SLR ODE
+	 * @param step
+	 *            time step in seconds
+	 * @param inflow
+	 *            reservoir inflow
+	 * @param outflow
+	 *            reservoir outflow
+	 * @return flow at next time step
+	 */
+	@Override
+	public double integrate(SingleLinearReservoirODE ode, double step, double inflow, double outflow) {
+
+		if (ode == null)
+			throw new NullPointerException();
+
+		if (step <= 0)
+			throw new IllegalArgumentException();
+
+		return outflow + step * ode.computeDerivative(inflow, outflow);
+	}
+
 }
@@ -0,0 +1,72 @@
+package gov.usgs.scalp;
+
+/**
+ * Integrates an SLR ODE using its exact solution
+ * <p>
+ * Inflow is constant over a time step, so outflow at the end of the step is
+ * Q(t + dt) = I + (Q(t) - I) exp(-dt / k). The result does not depend on the
+ * size of the time step, which allows routing at time steps longer than one
+ * minute. Decay factors are cached by the ODE for each time step.
+ */
+public class ExactExponentialIntegrator implements Integrator {
+
+	/**
+	 * Integrates an SLR ODE for a single time step
+	 *
+	 * @param ode
+	 *            SLR ODE
+	 * @param step
+	 *            time step in seconds
+	 * @param inflow
+	 *            reservoir inflow
+	 * @param outflow
+	 *            reservoir outflow
+	 * @return flow value at next times step
+	 */
+	public FlowValue integrate(SingleLinearReservoirODE ode, double step, FlowValue inflow, FlowValue outflow) {
+
+		if (ode == null || inflow == null || outflow == null)
+			throw new NullPointerException();
+
+		if (step <= 0)
+			throw new IllegalArgumentException();
+
+		double decay = ode.getDecayFactor(step);
+
+		double infiltration = decay(decay, inflow.getInfiltration(), outflow.getInfiltration());
+		double sanitary = decay(decay, inflow.getSanitary(), outflow.getSanitary());
+		double stormWater = decay(decay, inflow.getStormWater(), outflow.getStormWater());
+
+		return new FlowValue(infiltration, sanitary, stormWater);
+	}
+
+	/**
+	 * Integrates an SLR ODE for a single time step of a single flow constituent
+	 *
+	 * @param ode
+	 *            SLR ODE
+	 * @param step
+	 *            time step in seconds
+	 * @param inflow
+	 *            reservoir inflow
+	 * @param outflow
+	 *            reservoir outflow
+	 * @return flow at next time step
+	 */
+	@Override
+	public double integrate(SingleLinearReservoirODE ode, double step, double inflow, double outflow) {
+
+		if (ode == null)
+			throw new NullPointerException();
+
+		if (step <= 0)
+			throw new IllegalArgumentException();
+
+		return decay(ode.getDecayFactor(step), inflow, outflow);
+	}
+
+	private static double decay(double decay, double inflow, double outflow) {
+		return inflow + (outflow - inflow) * decay;
+	}
+
+}
@@ -0,0 +1,241 @@
+package gov.usgs.scalp;
+
+/**
+ * Decoder of numbers in fixed-width fields of character sequences
+ * <p>
+ * Fields are decoded in place, without creating strings. A field is trimmed of
+ * leading and trailing whitespace as by {@link String#trim()}, then decoded
+ * with the result of {@link Integer#parseInt(String)} or
+ * {@link Double#parseDouble(String)} on the trimmed field. Plain decimal
+ * integers and Fortran-style <code>F</code> and <code>E</code> reals are
+ * decoded directly; any other field is decoded by the JDK methods from a
+ * string.
+ */
+final class FixedWidthDecoder {
+
+	// largest number of decimal digits decoded directly. every integer of up to
+	// 15 digits is exactly representable as a double
+	private static final int MAX_INT_DIGITS = 9;
+	private static final int MAX_REAL_DIGITS = 15;
+
+	// powers of ten that are exactly representable as doubles
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	private FixedWidthDecoder() {
+	}
+
+	// returns the index of the first character at or after begin that isn't
+	// trimmed
+	private static int trimStart(CharSequence chars, int begin, int end) {
+		while (begin < end && chars.charAt(begin) <= ' ')
+			begin++;
+		return begin;
+	}
+
+	// returns the index after the last character before end that isn't trimmed
+	private static int trimEnd(CharSequence chars, int begin, int end) {
+		while (end > begin && chars.charAt(end - 1) <= ' ')
+			end--;
+		return end;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * Decodes an integer from a field
+	 *
+	 * @param chars
+	 *            character sequence
+	 * @param begin
+	 *            index of the first character of the field
+	 * @param end
+	 *            index after the last character of the field
+	 * @return integer value
+	 * @throws NumberFormatException
+	 *             if the field isn't an integer
+	 */
+	static int parseInt(CharSequence chars, int begin, int end) {
+
+		int first = trimStart(chars, begin, end);
+		int last = trimEnd(chars, first, end);
+
+		int i = first;
+		boolean negative = false;
+
+		if (i < last && (chars.charAt(i) == '-' || chars.charAt(i) == '+')) {
+			negative = chars.charAt(i) == '-';
+			i++;
+		}
+
+		int nDigits = last - i;
+
+		if (nDigits < 1 || nDigits > MAX_INT_DIGITS)
+			return Integer.parseInt(chars.subSequence(first, last).toString());
+
+		int value = 0;
+		for (; i < last; i++) {
+			char c = chars.charAt(i);
+			if (!isDigit(c))
+				return Integer.parseInt(chars.subSequence(first, last).toString());
+			value = 10 * value + (c - '0');
+		}
+
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Returns true if a field can be decoded as an integer by
+	 * {@link #parseInt(CharSequence, int, int)}, without throwing an exception
+	 *
+	 * @param chars
+	 *            character sequence
+	 * @param begin
+	 *            index of the first character of the field
+	 * @param end
+	 *            index after the last character of the field
+	 * @return true if the field is an integer
+	 */
+	static boolean isInt(CharSequence chars, int begin, int end) {
+
+		int first = trimStart(chars, begin, end);
+		int last = trimEnd(chars, first, end);
+
+		int i = first;
+		boolean negative = false;
+
+		if (i < last && (chars.charAt(i) == '-' || chars.charAt(i) == '+')) {
+			negative = chars.charAt(i) == '-';
+			i++;
+		}
+
+		if (i == last)
+			return false;
+
+		// digits as accepted by Integer.parseInt, accumulated until the value is out
+		// of range
+		long value = 0;
+		for (; i < last; i++) {
+			int digit = Character.digit(chars.charAt(i), 10);
+			if (digit < 0)
+				return false;
+			value = 10 * value + digit;
+			if (value > (long) Integer.MAX_VALUE + 1)
+				return false;
+		}
+
+		return negative || value <= Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Decodes a real number from a field
+	 *
+	 * @param chars
+	 *            character sequence
+	 * @param begin
+	 *            index of the first character of the field
+	 * @param end
+	 *            index after the last character of the field
+	 * @return real value
+	 * @throws NumberFormatException
+	 *             if the field isn't a real number
+	 */
+	static double parseDouble(CharSequence chars, int begin, int end) {
+
+		int first = trimStart(chars, begin, end);
+		int last = trimEnd(chars, first, end);
+
+		int i = first;
+		boolean negative = false;
+
+		if (i < last && (chars.charAt(i) == '-' || chars.charAt(i) == '+')) {
+			negative = chars.charAt(i) == '-';
+			i++;
+		}
+
+		// significand digits, without leading zeros, and the number of fraction
+		// digits
+		long significand = 0;
+		int nDigits = 0;
+		int nFractionDigits = 0;
+		boolean anyDigits = false;
+		boolean point = false;
+
+		for (; i < last; i++) {
+
+			char c = chars.charAt(i);
+
+			if (isDigit(c)) {
+				anyDigits = true;
+				if (nDigits > 0 || c != '0')
+					nDigits++;
+				if (nDigits > MAX_REAL_DIGITS)
+					return parseDoubleString(chars, first, last);
+				significand = 10 * significand + (c - '0');
+				if (point)
+					nFractionDigits++;
+			} else if (c == '.' && !point) {
+				point = true;
+			} else {
+				break;
+			}
+		}
+
+		if (!anyDigits)
+			return parseDoubleString(chars, first, last);
+
+		// exponent
+		int exponent = 0;
+
+		if (i < last && (chars.charAt(i) == 'E' || chars.charAt(i) == 'e')) {
+
+			i++;
+			boolean negativeExponent = false;
+
+			if (i < last && (chars.charAt(i) == '-' || chars.charAt(i) == '+')) {
+				negativeExponent = chars.charAt(i) == '-';
+				i++;
+			}
+
+			if (i == last || last - i > 3)
+				return parseDoubleString(chars, first, last);
+
+			for (; i < last; i++) {
+				char c = chars.charAt(i);
+				if (!isDigit(c))
+					return parseDoubleString(chars, first, last);
+				exponent = 10 * exponent + (c - '0');
+			}
+
+			if (negativeExponent)
+				exponent = -exponent;
+		}
+
+		if (i != last)
+			return parseDoubleString(chars, first, last);
+
+		// the significand and the power of ten are exact, so the product or
+		// quotient is correctly rounded
+		int scale = exponent - nFractionDigits;
+		double value;
+
+		if (significand == 0)
+			value = 0;
+		else if (scale >= 0 && scale < POWERS_OF_TEN.length)
+			value = significand * POWERS_OF_TEN[scale];
+		else if (scale < 0 && -scale < POWERS_OF_TEN.length)
+			value = significand / POWERS_OF_TEN[-scale];
+		else
+			return parseDoubleString(chars, first, last);
+
+		return negative ? -value : value;
+	}
+
+	// decodes a real number that isn't decoded directly
+	private static double parseDoubleString(CharSequence chars, int first, int last) {
+		return Double.parseDouble(chars.subSequence(first, last).toString());
+	}
+
+}
@@ -1,13 +1,24 @@
 package gov.usgs.scalp;
 
-import java.util.TreeMap;
+import java.util.Arrays;
 
 /**
  * Time series containing constituent flow values
+ * <p>
+ * Observations are stored as a sorted array of observation times in
+ * milliseconds from the epoch of 1970-01-01T00:00:00Z and three parallel
+ * arrays of infiltration, sanitary, and storm water flow.
  */
 public abstract class FlowTimeSeries {
 
-	private TreeMap<DateTime, FlowValue> map;
+	private static final int INITIAL_CAPACITY = 16;
+	private static final long MILLISECONDS_IN_A_MINUTE = 60000;
+
+	private long[] times;
+	private double[] infiltration;
+	private double[] sanitary;
+	private double[] stormWater;
+	private int nObs;
 
 	public FlowTimeSeries(long[] times, FlowValue[] values) {
 
@@ -19,10 +30,14 @@ public abstract class FlowTimeSeries {
 		if (nObs != values.length)
 			throw new RuntimeException("times.length must be equal to values.length");
 
-		map = new TreeMap<DateTime, FlowValue>();
+		allocate(nObs);
 
+		// observation times have a resolution of one minute
 		for (int i = 0; i < nObs; i++) {
-			map.put(new DateTime(times[i]), values[i]);
+			if (values[i] == null)
+				throw new NullPointerException();
+			long t = Math.floorDiv(times[i], MILLISECONDS_IN_A_MINUTE) * MILLISECONDS_IN_A_MINUTE;
+			put(t, values[i].getInfiltration(), values[i].getSanitary(), values[i].getStormWater());
 		}
 
 	}
@@ -31,7 +46,78 @@ public abstract class FlowTimeSeries {
 	 * Initializes an empty ConstituentFlowTimeSeries.
 	 */
 	public FlowTimeSeries() {
-		map = new TreeMap<DateTime, FlowValue>();
+		allocate(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Initializes a flow time series that uses the arrays as its storage. Times
+	 * must be strictly increasing, all arrays must have equal lengths, and none of
+	 * the arrays may be modified by the caller afterwards.
+	 *
+	 * @param sortedTimes
+	 *            strictly increasing observation times in milliseconds
+	 * @param infiltration
+	 *            infiltration flows
+	 * @param sanitary
+	 *            sanitary flows
+	 * @param stormWater
+	 *            storm water flows
+	 */
+	FlowTimeSeries(long[] sortedTimes, double[] infiltration, double[] sanitary, double[] stormWater) {
+
+		if (sortedTimes == null || infiltration == null || sanitary == null || stormWater == null)
+			throw new NullPointerException();
+
+		int nObs = sortedTimes.length;
+
+		if (infiltration.length != nObs || sanitary.length != nObs || stormWater.length != nObs)
+			throw new RuntimeException("times.length must be equal to values.length");
+
+		assert TimeSeries.isStrictlyIncreasing(sortedTimes);
+
+		this.times = sortedTimes;
+		this.infiltration = infiltration;
+		this.sanitary = sanitary;
+		this.stormWater = stormWater;
+		this.nObs = nObs;
+	}
+
+	private void allocate(int capacity) {
+		times = new long[capacity];
+		infiltration = new double[capacity];
+		sanitary = new double[capacity];
+		stormWater = new double[capacity];
+		nObs = 0;
+	}
+
+	/**
+	 * Ensures storage for at least {@code capacity} observations
+	 *
+	 * @param capacity
+	 *            number of observations
+	 */
+	void ensureCapacity(int capacity) {
+
+		if (capacity <= times.length)
+			return;
+
+		int newCapacity = Math.max(capacity, Math.max(INITIAL_CAPACITY, 2 * times.length));
+		times = Arrays.copyOf(times, newCapacity);
+		infiltration = Arrays.copyOf(infiltration, newCapacity);
+		sanitary = Arrays.copyOf(sanitary, newCapacity);
+		stormWater = Arrays.copyOf(stormWater, newCapacity);
+	}
+
+	// releases unused capacity so the storage arrays can be shared
+	private void trimToSize() {
+
+		if (times.length == nObs)
+			return;
+
+		times = Arrays.copyOf(times, nObs);
+		infiltration = Arrays.copyOf(infiltration, nObs);
+		sanitary = Arrays.copyOf(sanitary, nObs);
+		stormWater = Arrays.copyOf(stormWater, nObs);
 	}
 
 	@Override
@@ -48,7 +134,34 @@ public abstract class FlowTimeSeries {
 
 		FlowTimeSeries timeSeries = (FlowTimeSeries) other;
 
-		return map.equals(timeSeries.map);
+		if (nObs != timeSeries.nObs)
+			return false;
+
+		// flow values are compared as in FlowValue.equals()
+		for (int i = 0; i < nObs; i++) {
+			if (times[i] != timeSeries.times[i] || infiltration[i] != timeSeries.infiltration[i]
+					|| sanitary[i] != timeSeries.sanitary[i] || stormWater[i] != timeSeries.stormWater[i])
+				return false;
+		}
+
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+
+		int hash = 1;
+
+		for (int i = 0; i < nObs; i++) {
+			hash = 31 * hash + Long.hashCode(times[i]);
+		}
+
+		return hash;
+	}
+
+	// returns a time series of a column of this flow time series
+	private TimeSeries columnTimeSeries(double[] column) {
+		return TimeSeries.fromSortedArrays(Arrays.copyOf(times, nObs), Arrays.copyOf(column, nObs));
 	}
 
 	/**
@@ -57,16 +170,7 @@ public abstract class FlowTimeSeries {
 	 * @return infiltration flow time series
 	 */
 	public TimeSeries getInfiltration() {
-
-		TimeSeries infiltration = new TimeSeries();
-		FlowValue flow;
-
-		for (DateTime t : getTimes()) {
-			flow = getValue(t);
-			infiltration.put(t, flow.getInfiltration());
-		}
-
-		return infiltration;
+		return columnTimeSeries(infiltration);
 	}
 
 	/**
@@ -75,16 +179,7 @@ public abstract class FlowTimeSeries {
 	 * @return sanitary flow time series
 	 */
 	public TimeSeries getSanitary() {
-
-		TimeSeries sanitary = new TimeSeries();
-		FlowValue flow;
-
-		for (DateTime t : getTimes()) {
-			flow = getValue(t);
-			sanitary.put(t, flow.getSanitary());
-		}
-
-		return sanitary;
+		return columnTimeSeries(sanitary);
 	}
 
 	/**
@@ -93,16 +188,7 @@ public abstract class FlowTimeSeries {
 	 * @return storm water flow time series
 	 */
 	public TimeSeries getStormWater() {
-
-		TimeSeries stormWater = new TimeSeries();
-		FlowValue flow;
-
-		for (DateTime t : getTimes()) {
-			flow = getValue(t);
-			stormWater.put(t, flow.getStormWater());
-		}
-
-		return stormWater;
+		return columnTimeSeries(stormWater);
 	}
 
 	/**
@@ -112,15 +198,14 @@ public abstract class FlowTimeSeries {
 	 */
 	public TimeSeries getTotalFlow() {
 
-		TimeSeries totalFlow = new TimeSeries();
-		FlowValue flow;
+		double[] totalFlow = new double[nObs];
 
-		for (DateTime t : getTimes()) {
-			flow = getValue(t);
-			totalFlow.put(t, flow.getTotal());
+		// summed in the same order as FlowValue.getTotal()
+		for (int i = 0; i < nObs; i++) {
+			totalFlow[i] = stormWater[i] + infiltration[i] + sanitary[i];
 		}
 
-		return totalFlow;
+		return TimeSeries.fromSortedArrays(Arrays.copyOf(times, nObs), totalFlow);
 	}
 
 	/**
@@ -129,7 +214,7 @@ public abstract class FlowTimeSeries {
 	 * @return number of observations
 	 */
 	public int nObs() {
-		return map.size();
+		return nObs;
 	}
 
 	/**
@@ -146,7 +231,48 @@ public abstract class FlowTimeSeries {
 		if (time == null || value == null)
 			throw new NullPointerException();
 
-		map.put(time, (FlowValue) value);
+		put(time.getTimeInMillis(), value.getInfiltration(), value.getSanitary(), value.getStormWater());
+	}
+
+	/**
+	 * Inserts an observation in this time series. If an observation at {@code time}
+	 * exists, the constituent flows will be replaced.
+	 *
+	 * @param time
+	 *            the observation time in milliseconds
+	 * @param infiltration
+	 *            infiltration flow
+	 * @param sanitary
+	 *            sanitary flow
+	 * @param stormWater
+	 *            storm water flow
+	 */
+	void put(long time, double infiltration, double sanitary, double stormWater) {
+
+		int index;
+
+		// observations are usually added in time order
+		if (nObs == 0 || time > times[nObs - 1]) {
+			ensureCapacity(nObs + 1);
+			index = nObs++;
+		} else {
+			index = Arrays.binarySearch(times, 0, nObs, time);
+
+			if (index < 0) {
+				index = -(index + 1);
+				ensureCapacity(nObs + 1);
+				System.arraycopy(this.times, index, this.times, index + 1, nObs - index);
+				System.arraycopy(this.infiltration, index, this.infiltration, index + 1, nObs - index);
+				System.arraycopy(this.sanitary, index, this.sanitary, index + 1, nObs - index);
+				System.arraycopy(this.stormWater, index, this.stormWater, index + 1, nObs - index);
+				nObs++;
+			}
+		}
+
+		this.times[index] = time;
+		this.infiltration[index] = infiltration;
+		this.sanitary[index] = sanitary;
+		this.stormWater[index] = stormWater;
 	}
 
 	/**
@@ -156,12 +282,23 @@ public abstract class FlowTimeSeries {
 	 */
 	public DateTime[] getTimes() {
 
-		int nObs = nObs();
-		DateTime[] times = new DateTime[nObs];
+		DateTime[] dateTimes = new DateTime[nObs];
 
-		times = map.keySet().toArray(times);
+		for (int i = 0; i < nObs; i++) {
+			dateTimes[i] = new DateTime(times[i]);
+		}
 
-		return times;
+		return dateTimes;
+	}
+
+	/**
+	 * Returns the observation times of this time series in milliseconds from the
+	 * epoch of 1970-01-01T00:00:00Z in a sorted array.
+	 *
+	 * @return observation times in milliseconds
+	 */
+	public long[] getTimesInMillis() {
+		return Arrays.copyOf(times, nObs);
 	}
 
 	/**
@@ -178,7 +315,12 @@ public abstract class FlowTimeSeries {
 		if (time == null)
 			throw new NullPointerException();
 
-		return map.get(time);
+		int index = Arrays.binarySearch(times, 0, nObs, time.getTimeInMillis());
+
+		if (index < 0)
+			return null;
+
+		return new FlowValue(infiltration[index], sanitary[index], stormWater[index]);
 	}
 
 	/**
@@ -189,10 +331,57 @@ public abstract class FlowTimeSeries {
 	 */
 	public FlowValue[] getValues() {
 
-		int nObs = nObs();
-		FlowValue[] mapValues = new FlowValue[nObs];
+		FlowValue[] values = new FlowValue[nObs];
 
-		return map.values().toArray(mapValues);
+		for (int i = 0; i < nObs; i++) {
+			values[i] = new FlowValue(infiltration[i], sanitary[i], stormWater[i]);
+		}
+
+		return values;
+	}
+
+	/**
+	 * Returns the observation times backing this time series. The array must not
+	 * be modified.
+	 *
+	 * @return observation times in milliseconds
+	 */
+	long[] timeColumn() {
+		trimToSize();
+		return times;
+	}
+
+	/**
+	 * Returns the infiltration flows backing this time series. The array must not
+	 * be modified.
+	 *
+	 * @return infiltration flows
+	 */
+	double[] infiltrationColumn() {
+		trimToSize();
+		return infiltration;
+	}
+
+	/**
+	 * Returns the sanitary flows backing this time series. The array must not be
+	 * modified.
+	 *
+	 * @return sanitary flows
+	 */
+	double[] sanitaryColumn() {
+		trimToSize();
+		return sanitary;
+	}
+
+	/**
+	 * Returns the storm water flows backing this time series. The array must not
+	 * be modified.
+	 *
+	 * @return storm water flows
+	 */
+	double[] stormWaterColumn() {
+		trimToSize();
+		return stormWater;
 	}
 
 }
@@ -0,0 +1,130 @@
+package gov.usgs.scalp;
+
+import java.util.Arrays;
+
+/**
+ * Streaming hourly averaging of instantaneous flows
+ * <p>
+ * Instantaneous flows are added in time order as they are produced, and the
+ * flows of each hour are summed per constituent. When a flow at or after the
+ * end of the current hour is added, the average of the hour is emitted at the
+ * end of the hour. The averages are the same as those of
+ * {@link InstFlowTimeSeries#getAveraged()} for the same flows, without storing
+ * the instantaneous flows.
+ */
+class HourlyFlowAverager {
+
+	private static final long MILLISECONDS_IN_AN_HOUR = 3600000;
+
+	// hourly averages
+	private long[] times;
+	private double[] infiltration;
+	private double[] sanitary;
+	private double[] stormWater;
+	private int nObs = 0;
+
+	// sums of the current hour
+	private long nextHour;
+	private double infiltrationSum;
+	private double sanitarySum;
+	private double stormWaterSum;
+	private int nValues = 0;
+
+	private boolean finished = false;
+
+	/**
+	 * Constructs an averager with room for a number of hourly averages
+	 *
+	 * @param capacity
+	 *            expected number of hourly averages
+	 */
+	HourlyFlowAverager(int capacity) {
+
+		if (capacity < 0)
+			throw new IllegalArgumentException("Capacity must not be negative");
+
+		times = new long[capacity];
+		infiltration = new double[capacity];
+		sanitary = new double[capacity];
+		stormWater = new double[capacity];
+	}
+
+	/**
+	 * Adds an instantaneous flow. Times must be strictly increasing.
+	 *
+	 * @param time
+	 *            time in milliseconds
+	 * @param infiltrationFlow
+	 *            infiltration flow
+	 * @param sanitaryFlow
+	 *            sanitary flow
+	 * @param stormWaterFlow
+	 *            storm water flow
+	 */
+	void add(long time, double infiltrationFlow, double sanitaryFlow, double stormWaterFlow) {
+
+		if (finished)
+			throw new IllegalStateException("Hourly averages have already been returned");
+
+		if (nValues > 0 && time < nextHour) {
+			infiltrationSum += infiltrationFlow;
+			sanitarySum += sanitaryFlow;
+			stormWaterSum += stormWaterFlow;
+			nValues++;
+			return;
+		}
+
+		if (nValues > 0)
+			emit();
+
+		infiltrationSum = infiltrationFlow;
+		sanitarySum = sanitaryFlow;
+		stormWaterSum = stormWaterFlow;
+		nValues = 1;
+		nextHour = Math.floorDiv(time, MILLISECONDS_IN_AN_HOUR) * MILLISECONDS_IN_AN_HOUR + MILLISECONDS_IN_AN_HOUR;
+	}
+
+	// appends the average of the current hour
+	private void emit() {
+
+		if (nObs == times.length) {
+			int capacity = Math.max(16, 2 * nObs);
+			times = Arrays.copyOf(times, capacity);
+			infiltration = Arrays.copyOf(infiltration, capacity);
+			sanitary = Arrays.copyOf(sanitary, capacity);
+			stormWater = Arrays.copyOf(stormWater, capacity);
+		}
+
+		times[nObs] = nextHour;
+		infiltration[nObs] = infiltrationSum / nValues;
+		sanitary[nObs] = sanitarySum / nValues;
+		stormWater[nObs] = stormWaterSum / nValues;
+		nObs++;
+	}
+
+	/**
+	 * Returns the hourly-averaged flows, including the average of the last,
+	 * possibly partial, hour. No more flows may be added afterwards.
+	 *
+	 * @return hourly-averaged flow time series
+	 */
+	AvgFlowTimeSeries getAveraged() {
+
+		if (nValues > 0) {
+			emit();
+			nValues = 0;
+		}
+
+		finished = true;
+
+		if (nObs < times.length) {
+			times = Arrays.copyOf(times, nObs);
+			infiltration = Arrays.copyOf(infiltration, nObs);
+			sanitary = Arrays.copyOf(sanitary, nObs);
+			stormWater = Arrays.copyOf(stormWater, nObs);
+		}
+
+		return new AvgFlowTimeSeries(times, infiltration, sanitary, stormWater);
+	}
+
+}
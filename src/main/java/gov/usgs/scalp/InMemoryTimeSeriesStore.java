@@ -0,0 +1,124 @@
+package gov.usgs.scalp;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Time series store held in memory
+ * <p>
+ * Records are stored as sorted arrays of times in milliseconds and arrays of
+ * values. Written time series are copied, and reads return copies, so records
+ * can't be modified outside of the store. Reads and writes are synchronized on
+ * this instance. Sessions have no effect.
+ */
+public class InMemoryTimeSeriesStore implements TimeSeriesStore {
+
+	// times and values of a record
+	private static class Record {
+
+		final long[] times;
+		final double[] values;
+
+		Record(long[] times, double[] values) {
+			this.times = times;
+			this.values = values;
+		}
+	}
+
+	private final String name;
+
+	// records by path name, in path name order
+	private final TreeMap<String, Record> records = new TreeMap<>();
+
+	private static final Logger LOGGER = Logger.getLogger("gov.usgs.scalp.InMemoryTimeSeriesStore");
+
+	/**
+	 * Constructs an empty store
+	 *
+	 * @param name
+	 *            store name
+	 */
+	public InMemoryTimeSeriesStore(String name) {
+
+		if (name == null)
+			throw new NullPointerException();
+
+		this.name = name;
+	}
+
+	@Override
+	public TimeSeriesStore open() {
+		return this;
+	}
+
+	@Override
+	public void close() {
+		;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public synchronized TimeSeries readTimeSeries(String pathname) {
+
+		if (pathname == null)
+			throw new NullPointerException();
+
+		Record record = records.get(pathname);
+
+		if (record == null) {
+			LOGGER.log(Level.SEVERE, "Failed to read record " + pathname);
+			return null;
+		}
+
+		return TimeSeries.fromSortedArrays(record.times.clone(), record.values.clone());
+	}
+
+	@Override
+	public synchronized TimeSeries readTimeSeries(String pathname, DateTime startDateTime, DateTime endDateTime) {
+
+		if (pathname == null || startDateTime == null || endDateTime == null)
+			throw new NullPointerException();
+
+		Record record = records.get(pathname);
+
+		if (record == null) {
+			LOGGER.log(Level.SEVERE, "Failed to read record " + pathname);
+			return null;
+		}
+
+		int from = lowerBound(record.times, startDateTime.getTimeInMillis());
+		int to = Math.max(from, lowerBound(record.times, endDateTime.getTimeInMillis() + 1));
+
+		return TimeSeries.fromSortedArrays(Arrays.copyOfRange(record.times, from, to),
+				Arrays.copyOfRange(record.values, from, to));
+	}
+
+	// returns the index of the first time at or after time
+	private static int lowerBound(long[] times, long time) {
+		int index = Arrays.binarySearch(times, time);
+		return index < 0 ? -index - 1 : index;
+	}
+
+	@Override
+	public synchronized int writeTimeSeries(String pathname, TimeSeries timeSeries) {
+
+		if (pathname == null || timeSeries == null)
+			throw new NullPointerException();
+
+		records.put(pathname, new Record(timeSeries.getTimesInMillis(), timeSeries.getValues()));
+
+		return 0;
+	}
+
+	@Override
+	public synchronized String[] getCatalog() {
+		return records.keySet().toArray(new String[0]);
+	}
+
+}
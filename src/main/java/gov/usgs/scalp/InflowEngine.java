@@ -0,0 +1,270 @@
+package gov.usgs.scalp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Inflow assembly for all special contributing areas at once
+ * <p>
+ * SCA infiltration and storm water inflow is a linear combination of land
+ * segment runoff weighted by segment areas. The engine holds the SCA by segment
+ * area weights as a sparse matrix in compressed row form, with one row per SCA
+ * and one entry per land segment of the SCA, and the runoff columns of the
+ * segments it references. Inflow of a range of SCAs is computed in one pass
+ * over blocks of time, so the runoff and inflow of a block stay in cache while
+ * every SCA of the range is summed. Time blocks are distributed over threads.
+ * Inflow is only held for the range, so SCAs can be assembled in batches as
+ * they are routed.
+ * <p>
+ * Flows are computed and summed in the same order as
+ * {@link LandSegment#infiltration()}, {@link LandSegment#stormWaterFlow()},
+ * and {@link TimeSeries#add(TimeSeries)}, so inflow is identical to inflow
+ * summed SCA by SCA.
+ */
+class InflowEngine {
+
+	/**
+	 * Index of infiltration in assembled inflow
+	 */
+	static final int INFILTRATION = 0;
+
+	/**
+	 * Index of storm water in assembled inflow
+	 */
+	static final int STORM_WATER = 1;
+
+	// number of time steps in a block
+	private static final int BLOCK_SIZE = 2048;
+
+	private final int nTimes;
+
+	// compressed rows: entries of SCA i are rowStart[i] to rowStart[i + 1] - 1
+	private final int[] rowStart;
+	private final int[] column;
+	private final double[] imperviousArea;
+	private final double[] overlandArea;
+	private final double[] subsurfaceArea;
+
+	// runoff columns of the referenced segments, in inches per hour
+	private final double[][] imperviousRunoff;
+	private final double[][] overlandRunoff;
+	private final double[][] subsurfaceRunoff;
+
+	private static final Logger LOGGER = Logger.getLogger("gov.usgs.scalp.InflowEngine");
+
+	/**
+	 * Constructs an inflow engine for special contributing areas. The runoff of
+	 * all land segments of the SCAs must share one time axis, see
+	 * {@link SpecialContributingArea#getRunoffAxis()}.
+	 *
+	 * @param scas
+	 *            special contributing areas
+	 * @param watershed
+	 *            watershed of the SCAs
+	 */
+	InflowEngine(SpecialContributingArea[] scas, Watershed watershed) {
+
+		if (scas == null || watershed == null)
+			throw new NullPointerException();
+
+		int nSCAs = scas.length;
+
+		rowStart = new int[nSCAs + 1];
+		for (int i = 0; i < nSCAs; i++)
+			rowStart[i + 1] = rowStart[i] + scas[i].getSegmentNumbers().length;
+
+		int nEntries = rowStart[nSCAs];
+		column = new int[nEntries];
+		imperviousArea = new double[nEntries];
+		overlandArea = new double[nEntries];
+		subsurfaceArea = new double[nEntries];
+
+		// columns of distinct segments, in order of first reference
+		HashMap<Integer, Integer> columnIndex = new HashMap<>();
+		List<double[][]> runoff = new ArrayList<>();
+		TimeSeries axis = null;
+
+		for (int i = 0; i < nSCAs; i++) {
+
+			TimeSeries scaAxis = scas[i].getRunoffAxis();
+
+			if (scaAxis == null || (axis != null && !axis.sameTimes(scaAxis)))
+				throw new IllegalArgumentException("Land segment runoff of SCA number " + scas[i].getSCANumber()
+						+ " does not share one time axis");
+
+			axis = scaAxis;
+
+			int[] segmentNumbers = scas[i].getSegmentNumbers();
+
+			for (int j = 0; j < segmentNumbers.length; j++) {
+
+				Integer index = columnIndex.get(segmentNumbers[j]);
+
+				if (index == null) {
+					index = runoff.size();
+					columnIndex.put(segmentNumbers[j], index);
+					runoff.add(watershed.getRunoffColumns(segmentNumbers[j]));
+				}
+
+				LandSegmentAreaInfo areaInfo = scas[i].getSegmentArea(j);
+				int entry = rowStart[i] + j;
+				column[entry] = index;
+				imperviousArea[entry] = areaInfo.getImpervious();
+				overlandArea[entry] = areaInfo.getOverland();
+				subsurfaceArea[entry] = areaInfo.getSubsurface();
+			}
+		}
+
+		nTimes = axis == null ? 0 : axis.nObs();
+
+		int nColumns = runoff.size();
+		imperviousRunoff = new double[nColumns][];
+		overlandRunoff = new double[nColumns][];
+		subsurfaceRunoff = new double[nColumns][];
+
+		for (int k = 0; k < nColumns; k++) {
+			imperviousRunoff[k] = runoff.get(k)[Watershed.IMPERVIOUS];
+			overlandRunoff[k] = runoff.get(k)[Watershed.OVERLAND];
+			subsurfaceRunoff[k] = runoff.get(k)[Watershed.SUBSURFACE];
+		}
+	}
+
+	/**
+	 * Returns true if the inflow of the SCAs can be assembled by an engine, that
+	 * is, if the runoff of all of their land segments shares one time axis
+	 *
+	 * @param scas
+	 *            special contributing areas
+	 * @return true if inflow can be assembled
+	 */
+	static boolean canAssemble(SpecialContributingArea[] scas) {
+
+		if (scas == null)
+			throw new NullPointerException();
+
+		TimeSeries axis = null;
+
+		for (SpecialContributingArea sca : scas) {
+
+			TimeSeries scaAxis = sca.getRunoffAxis();
+
+			if (scaAxis == null || (axis != null && !axis.sameTimes(scaAxis)))
+				return false;
+
+			axis = scaAxis;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the number of SCAs of this engine
+	 *
+	 * @return number of SCAs
+	 */
+	int nSCAs() {
+		return rowStart.length - 1;
+	}
+
+	/**
+	 * Assembles the infiltration and storm water inflow of SCAs {@code from} to
+	 * {@code to - 1}, in cubic feet per second. Inflow is indexed by
+	 * {@link #INFILTRATION} or {@link #STORM_WATER}, then by SCA from
+	 * {@code from}, then by time step.
+	 *
+	 * @param from
+	 *            index of the first SCA
+	 * @param to
+	 *            index after the last SCA
+	 * @param nThreads
+	 *            number of threads
+	 * @return SCA inflow
+	 */
+	double[][][] assemble(int from, int to, int nThreads) {
+
+		if (from < 0 || from > to || to > nSCAs())
+			throw new IndexOutOfBoundsException();
+
+		if (nThreads < 1)
+			throw new IllegalArgumentException("Number of threads must be at least 1");
+
+		double[][][] inflow = new double[2][to - from][nTimes];
+
+		int nBlocks = (nTimes + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		int nWorkers = Math.min(nThreads, nBlocks);
+
+		if (nWorkers <= 1) {
+			for (int block = 0; block < nBlocks; block++)
+				assembleBlock(block, from, inflow);
+			return inflow;
+		}
+
+		LOGGER.log(Level.INFO, "Assembling inflow of " + (to - from) + " SCAs on " + nWorkers + " threads");
+
+		ExecutorService executor = Executors.newFixedThreadPool(nWorkers);
+		List<Future<?>> blocks = new ArrayList<>();
+
+		try {
+			for (int block = 0; block < nBlocks; block++) {
+				int b = block;
+				blocks.add(executor.submit(() -> assembleBlock(b, from, inflow)));
+			}
+
+			for (Future<?> block : blocks)
+				block.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			LOGGER.log(Level.SEVERE, "Failed to assemble SCA inflow: " + cause.getMessage());
+			throw new RuntimeException("Failed to assemble SCA inflow: " + cause.getMessage(), cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOGGER.log(Level.SEVERE, "Interrupted while assembling SCA inflow");
+			throw new RuntimeException("Interrupted while assembling SCA inflow", e);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return inflow;
+	}
+
+	// assembles inflow of SCAs from from for one block of time steps
+	private void assembleBlock(int block, int from, double[][][] inflow) {
+
+		int start = block * BLOCK_SIZE;
+		int end = Math.min(start + BLOCK_SIZE, nTimes);
+
+		for (int i = 0; i < inflow[INFILTRATION].length; i++) {
+
+			int sca = from + i;
+			double[] infiltration = inflow[INFILTRATION][i];
+			double[] stormWater = inflow[STORM_WATER][i];
+
+			for (int entry = rowStart[sca]; entry < rowStart[sca + 1]; entry++) {
+
+				boolean add = entry > rowStart[sca];
+				double[] impervious = imperviousRunoff[column[entry]];
+				double[] overland = overlandRunoff[column[entry]];
+				double[] subsurface = subsurfaceRunoff[column[entry]];
+				double subArea = subsurfaceArea[entry];
+				double impArea = imperviousArea[entry];
+				double ovlArea = overlandArea[entry];
+
+				for (int t = start; t < end; t++) {
+					double infiltrationFlow = LandSegment.INPHR_TO_FPS * subArea * subsurface[t];
+					double stormWaterFlow = LandSegment.INPHR_TO_FPS
+							* (impArea * impervious[t] + ovlArea * overland[t]);
+					infiltration[t] = add ? infiltration[t] + infiltrationFlow : infiltrationFlow;
+					stormWater[t] = add ? stormWater[t] + stormWaterFlow : stormWaterFlow;
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,125 @@
+package gov.usgs.scalp;
+
+/**
+ * Values decoded from an input line
+ * <p>
+ * Values are indexed in the order of the fields of the format that decoded
+ * them, skipped fields excluded, and are read with the accessor of their type.
+ * Numbers are held unboxed.
+ */
+public final class InputFields {
+
+	private final InputFormat format;
+
+	// integer and real values, indexed by value
+	private final double[] numbers;
+
+	// string values, indexed by value. null if the format has no string fields
+	private final String[] strings;
+
+	/**
+	 * Constructs empty fields for the values of a format
+	 *
+	 * @param format
+	 *            input line format
+	 */
+	InputFields(InputFormat format) {
+
+		assert format != null;
+
+		this.format = format;
+		numbers = new double[format.nValues()];
+		strings = format.hasStrings() ? new String[format.nValues()] : null;
+	}
+
+	void setNumber(int index, double value) {
+		numbers[index] = value;
+	}
+
+	void setString(int index, String value) {
+		strings[index] = value;
+	}
+
+	// throws an exception if the value at index isn't of a type
+	private void checkType(int index, char type, String typeName) {
+		if (format.getValueType(index) != type)
+			throw new IllegalArgumentException(String.format("Value %d is not %s", index, typeName));
+	}
+
+	/**
+	 * Returns the number of values
+	 *
+	 * @return number of values
+	 */
+	public int size() {
+		return numbers.length;
+	}
+
+	/**
+	 * Returns an integer value, decoded from an <code>I</code> field
+	 *
+	 * @param index
+	 *            value index
+	 * @return integer value
+	 */
+	public int getInt(int index) {
+		checkType(index, 'I', "an integer");
+		return (int) numbers[index];
+	}
+
+	/**
+	 * Returns a real value, decoded from an <code>F</code> or <code>E</code> field
+	 *
+	 * @param index
+	 *            value index
+	 * @return real value
+	 */
+	public double getDouble(int index) {
+
+		char type = format.getValueType(index);
+
+		if (type != 'F' && type != 'E')
+			throw new IllegalArgumentException(String.format("Value %d is not a real number", index));
+
+		return numbers[index];
+	}
+
+	/**
+	 * Returns a string value, decoded from an <code>A</code> field
+	 *
+	 * @param index
+	 *            value index
+	 * @return string value
+	 */
+	public String getString(int index) {
+		checkType(index, 'A', "a string");
+		return strings[index];
+	}
+
+	/**
+	 * Returns the values as an array of <code>String</code>,
+	 * <code>Integer</code>, and <code>Double</code> objects
+	 *
+	 * @return array of values
+	 */
+	public Object[] toArray() {
+
+		Object[] values = new Object[numbers.length];
+
+		for (int i = 0; i < values.length; i++) {
+			switch (format.getValueType(i)) {
+			case 'A':
+				values[i] = strings[i];
+				break;
+			case 'I':
+				values[i] = (int) numbers[i];
+				break;
+			default:
+				values[i] = numbers[i];
+			}
+		}
+
+		return values;
+	}
+
+}
@@ -1,24 +1,47 @@
 package gov.usgs.scalp;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
 /**
  * SCALP input file
+ * <p>
+ * An input file either holds all of its lines in memory or streams them from a
+ * text file. A streamed file only keeps the most recently read lines, so
+ * {@link #setCurrentLineNo(int)} can only move back a limited number of lines.
+ * Streamed files should be closed when they are no longer read.
  */
-public class InputFile {
+public class InputFile implements AutoCloseable {
 
 	private int currentLineNo;
 	private int totalLines;
 	private InputLine[] inputLines;
 	private final static Logger logger = Logger.getLogger("gov.usgs.scalp.InputFile");
 
+	// streamed files only. lines are read from reader, and the last lines read
+	// are kept in a ring buffer for backtracking
+	private String filePath;
+	private BufferedReader reader;
+	private InputLine[] recentLines;
+	private int linesRead;
+
 	/**
-	 * Constructs an input file from a text file
+	 * Constructs an input file from a UTF-8 text file
+	 * <p>
+	 * The file is memory-mapped and decoded once, and each line is a range of the
+	 * decoded characters. Lines end at a line feed, a carriage return, or a
+	 * carriage return followed by a line feed, as with
+	 * {@link java.nio.file.Files#readAllLines(java.nio.file.Path)}.
 	 *
 	 * @param filePath
 	 *            path to SCALP input file
@@ -28,24 +51,95 @@ public class InputFile {
 		if (filePath == null)
 			throw new NullPointerException();
 
-		List<String> allLines;
+		inputLines = readLines(filePath);
+		currentLineNo = 1;
+		totalLines = inputLines.length;
+	}
+
+	/**
+	 * Constructs an input file that streams lines from a UTF-8 text file
+	 * <p>
+	 * Only the last <code>backtrackLines</code> lines read are kept in memory.
+	 * {@link #getLine(int)} only returns lines that are kept, and
+	 * {@link #getLines()} isn't supported. {@link #forEachLine(Consumer)} reads
+	 * the file again one line at a time.
+	 *
+	 * @param filePath
+	 *            path to SCALP input file
+	 * @param backtrackLines
+	 *            number of lines read that the current line number can be set
+	 *            back to
+	 */
+	public InputFile(String filePath, int backtrackLines) {
+
+		if (filePath == null)
+			throw new NullPointerException();
+
+		if (backtrackLines < 1)
+			throw new IllegalArgumentException("Number of backtrack lines must be at least 1");
 
 		try {
 			logger.log(Level.INFO, "Opening file " + filePath);
-			allLines = Files.readAllLines(Paths.get(filePath));
+			reader = Files.newBufferedReader(Paths.get(filePath), StandardCharsets.UTF_8);
 		} catch (IOException e) {
 			logger.log(Level.SEVERE, "Unable to open file " + filePath);
 			throw new RuntimeException("Unable to open file " + filePath);
 		}
 
-		String[] lines = new String[allLines.size()];
-		lines = allLines.toArray(lines);
+		this.filePath = filePath;
+		recentLines = new InputLine[backtrackLines];
+		linesRead = 0;
+		currentLineNo = 1;
+		totalLines = -1;
+	}
 
-		inputLines = strToLine(lines);
+	/**
+	 * Constructs an input file from a range of lines of another input file. Lines
+	 * keep their line numbers.
+	 *
+	 * @param lines
+	 *            input lines
+	 * @param from
+	 *            index of the first line
+	 * @param to
+	 *            index after the last line
+	 */
+	InputFile(InputLine[] lines, int from, int to) {
+
+		if (lines == null)
+			throw new NullPointerException();
+
+		if (from < 0 || from > to || to > lines.length)
+			throw new IndexOutOfBoundsException();
+
+		inputLines = Arrays.copyOfRange(lines, from, to);
 		currentLineNo = 1;
 		totalLines = inputLines.length;
 	}
 
+	// read all lines of a file
+	private static InputLine[] readLines(String filePath) {
+
+		CharBuffer chars;
+
+		try (FileChannel channel = FileChannel.open(Paths.get(filePath))) {
+			logger.log(Level.INFO, "Opening file " + filePath);
+			chars = StandardCharsets.UTF_8.newDecoder()
+					.decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} catch (IOException e) {
+			logger.log(Level.SEVERE, "Unable to open file " + filePath);
+			throw new RuntimeException("Unable to open file " + filePath);
+		}
+
+		return charsToLine(chars);
+	}
+
+	// log a line, formatting the message only if it is logged
+	private static void logLine(InputLine inputLine) {
+		if (logger.isLoggable(Level.FINE))
+			logger.log(Level.FINE, String.format("%03d: ", inputLine.getLineNo()) + inputLine.getLine());
+	}
+
 	/**
 	 * Constructs an input file from an array of strings
 	 *
@@ -63,37 +157,64 @@ public class InputFile {
 	}
 
 	// convert an array of strings to an array of lines
-	private InputLine[] strToLine(String[] lines) {
+	private static InputLine[] strToLine(String[] lines) {
 
 		if (lines == null)
 			throw new NullPointerException();
 
-		inputLines = new InputLine[lines.length];
+		InputLine[] inputLines = new InputLine[lines.length];
 
-		String line;
-		String logLine;
 		InputLine inputLine;
-		int lineNo;
 
 		for (int i = 0; i < lines.length; i++) {
 
-			lineNo = i + 1;
-			line = lines[i];
+			inputLine = new InputLine(lines[i], i + 1);
+			logLine(inputLine);
+
+			inputLines[i] = inputLine;
+		}
+
+		return inputLines;
+	}
 
-			logLine = String.format("%03d: ", lineNo) + line;
+	// split a character sequence into lines
+	private static InputLine[] charsToLine(CharSequence chars) {
 
-			logger.log(Level.FINE, logLine);
+		ArrayList<InputLine> lines = new ArrayList<>();
 
-			inputLine = new InputLine(line, lineNo);
+		int length = chars.length();
+		int lineStart = 0;
+		int lineNo;
+		InputLine inputLine;
 
-			inputLines[i] = inputLine;
+		for (int i = 0; i <= length; i++) {
+
+			char c = i < length ? chars.charAt(i) : 0;
+
+			// the last line doesn't need a line terminator
+			if (i < length && c != '\n' && c != '\r')
+				continue;
+			if (i == length && lineStart == length)
+				break;
+
+			lineNo = lines.size() + 1;
+			inputLine = new InputLine(chars, lineStart, i, lineNo);
+
+			logLine(inputLine);
+
+			lines.add(inputLine);
+
+			if (c == '\r' && i + 1 < length && chars.charAt(i + 1) == '\n')
+				i++;
+			lineStart = i + 1;
 		}
 
-		return inputLines;
+		return lines.toArray(new InputLine[0]);
 	}
 
 	/**
-	 * Returns an input file line at a specific line number
+	 * Returns an input file line at a specific line number. A streamed file only
+	 * returns the lines kept for backtracking.
 	 *
 	 * @param lineNo
 	 *            line number
@@ -101,33 +222,116 @@ public class InputFile {
 	 */
 	public InputLine getLine(int lineNo) {
 
-		if (lineNo < 0 || lineNo > totalLines - 1)
+		if (inputLines == null) {
+			if (lineNo < 0 || lineNo < linesRead - recentLines.length || lineNo > linesRead - 1)
+				throw new IllegalArgumentException();
+			return recentLines[(lineNo + 1) % recentLines.length];
+		}
+
+		if (lineNo < 0 || lineNo > inputLines.length - 1)
 			throw new IllegalArgumentException();
 
 		return inputLines[lineNo];
 	}
 
 	/**
-	 * Returns all lines in this file as an array
+	 * Returns all lines in this file as an array. Not supported by a streamed
+	 * file, see {@link #forEachLine(Consumer)}.
 	 *
 	 * @return array of input lines
 	 */
 	public InputLine[] getLines() {
+
+		if (inputLines == null)
+			throw new IllegalStateException("Lines of a streamed file aren't kept");
+
 		return inputLines.clone();
 	}
 
+	/**
+	 * Performs an action on each line of this file, in order. A streamed file is
+	 * read again with a separate reader, one line at a time, without moving the
+	 * current line.
+	 *
+	 * @param action
+	 *            action performed on each line
+	 */
+	public void forEachLine(Consumer<InputLine> action) {
+
+		if (action == null)
+			throw new NullPointerException();
+
+		if (inputLines != null) {
+			for (InputLine inputLine : inputLines)
+				action.accept(inputLine);
+			return;
+		}
+
+		try (BufferedReader lineReader = Files.newBufferedReader(Paths.get(filePath), StandardCharsets.UTF_8)) {
+
+			String line;
+			int lineNo = 0;
+
+			while ((line = lineReader.readLine()) != null)
+				action.accept(new InputLine(line, ++lineNo));
+
+		} catch (IOException e) {
+			logger.log(Level.SEVERE, "Unable to read file " + filePath);
+			throw new RuntimeException("Unable to read file " + filePath);
+		}
+	}
+
 	/**
 	 * Returns the next line in this file
 	 *
 	 * @return next line
 	 */
 	public InputLine nextLine() {
+
+		if (inputLines == null)
+			return nextStreamedLine();
+
 		if (currentLineNo <= totalLines)
 			return inputLines[currentLineNo++ - 1];
 		else
 			return null;
 	}
 
+	// returns the next line of a streamed file, from the recent lines if the
+	// current line number was set back
+	private InputLine nextStreamedLine() {
+
+		if (currentLineNo <= linesRead)
+			return recentLines[currentLineNo++ % recentLines.length];
+
+		if (reader == null)
+			return null;
+
+		String line;
+
+		try {
+			line = reader.readLine();
+		} catch (IOException e) {
+			logger.log(Level.SEVERE, "Unable to read file " + filePath);
+			throw new RuntimeException("Unable to read file " + filePath);
+		}
+
+		if (line == null) {
+			close();
+			totalLines = linesRead;
+			return null;
+		}
+
+		linesRead++;
+		InputLine inputLine = new InputLine(line, linesRead);
+		logLine(inputLine);
+
+		recentLines[linesRead % recentLines.length] = inputLine;
+		currentLineNo++;
+
+		return inputLine;
+	}
+
 	/**
 	 * Returns the next non-empty and non-comment line in this input file
 	 *
@@ -145,18 +349,60 @@ public class InputFile {
 		return inputLine;
 	}
 
+	/**
+	 * Returns the next non-empty and non-comment line in this input file without
+	 * moving past it. Empty and comment lines before it are skipped.
+	 *
+	 * @return next non-empty line, or null at the end of this file
+	 */
+	public InputLine peekNonEmptyLine() {
+
+		InputLine inputLine = nextNonEmptyLine();
+
+		// the line that was just read can always be read again
+		if (inputLine != null)
+			currentLineNo--;
+
+		return inputLine;
+	}
+
 	/**
 	 * Sets the current line number
+	 * <p>
+	 * A streamed file can only be set to one of the lines kept for backtracking or
+	 * to the line after the last line read.
 	 *
 	 * @param lineNo
 	 *            line number
 	 */
 	public void setCurrentLineNo(int lineNo) {
 
-		if (lineNo < 0 || lineNo > totalLines - 1)
+		if (inputLines == null) {
+			if (lineNo < 1 || lineNo <= linesRead - recentLines.length || lineNo > linesRead + 1)
+				throw new IllegalArgumentException();
+		} else if (lineNo < 0 || lineNo > totalLines - 1)
 			throw new IllegalArgumentException();
 
 		currentLineNo = lineNo;
 	}
 
+	/**
+	 * Closes a streamed file. Does nothing for a file held in memory or a file
+	 * that is already closed.
+	 */
+	@Override
+	public void close() {
+
+		if (reader == null)
+			return;
+
+		try {
+			reader.close();
+		} catch (IOException e) {
+			logger.log(Level.WARNING, "Unable to close file " + filePath);
+		}
+
+		reader = null;
+	}
+
 }
@@ -0,0 +1,146 @@
+package gov.usgs.scalp;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled input line format
+ * <p>
+ * A format descriptor, such as <code>A3,13X,I8,3F8</code>, compiled into the
+ * type and field width of each of its data descriptors. Formats are immutable,
+ * and {@link #of(String)} compiles each descriptor string once and caches it,
+ * so lines parsed with the same descriptor share one format.
+ */
+public final class InputFormat {
+
+	// compiled formats by descriptor string
+	private static final ConcurrentHashMap<String, InputFormat> CACHE = new ConcurrentHashMap<>();
+
+	// type and width of each data descriptor, including skipped fields
+	private final char[] types;
+	private final int[] widths;
+
+	// types of the fields that produce values
+	private final char[] valueTypes;
+	private final boolean hasStrings;
+
+	/**
+	 * Compiles a format from data descriptors
+	 *
+	 * @param dataDescriptors
+	 *            data descriptors
+	 */
+	public InputFormat(InputDataDescriptor[] dataDescriptors) {
+
+		if (dataDescriptors == null)
+			throw new NullPointerException();
+
+		int nDescriptors = dataDescriptors.length;
+		types = new char[nDescriptors];
+		widths = new int[nDescriptors];
+
+		int nValues = 0;
+		for (int i = 0; i < nDescriptors; i++) {
+			types[i] = dataDescriptors[i].getType();
+			widths[i] = dataDescriptors[i].getWidth();
+			if (types[i] != 'X')
+				nValues++;
+		}
+
+		valueTypes = new char[nValues];
+		boolean strings = false;
+		for (int i = 0, j = 0; i < nDescriptors; i++) {
+			if (types[i] != 'X')
+				valueTypes[j++] = types[i];
+			if (types[i] == 'A')
+				strings = true;
+		}
+		hasStrings = strings;
+	}
+
+	/**
+	 * Returns the compiled format of a descriptor string, compiling it on first
+	 * use. See {@link InputLine#parse(String)} for the descriptor syntax.
+	 *
+	 * @param descriptor
+	 *            format descriptor
+	 * @return compiled format
+	 */
+	public static InputFormat of(String descriptor) {
+
+		if (descriptor == null)
+			throw new NullPointerException();
+
+		InputFormat format = CACHE.get(descriptor);
+
+		if (format == null) {
+			format = new InputFormat(InputDataDescriptor.parseDescriptor(descriptor));
+			InputFormat cached = CACHE.putIfAbsent(descriptor, format);
+			if (cached != null)
+				format = cached;
+		}
+
+		return format;
+	}
+
+	/**
+	 * Returns the number of data descriptors, including skipped fields
+	 *
+	 * @return number of data descriptors
+	 */
+	int nDescriptors() {
+		return types.length;
+	}
+
+	/**
+	 * Returns the type of a data descriptor
+	 *
+	 * @param index
+	 *            data descriptor index
+	 * @return type character
+	 */
+	char getType(int index) {
+		return types[index];
+	}
+
+	/**
+	 * Returns the field width of a data descriptor
+	 *
+	 * @param index
+	 *            data descriptor index
+	 * @return field width
+	 */
+	int getWidth(int index) {
+		return widths[index];
+	}
+
+	/**
+	 * Returns the number of values produced by this format, that is, the number
+	 * of fields that aren't skipped
+	 *
+	 * @return number of values
+	 */
+	public int nValues() {
+		return valueTypes.length;
+	}
+
+	/**
+	 * Returns the type of a value
+	 *
+	 * @param index
+	 *            value index
+	 * @return type character
+	 */
+	public char getValueType(int index) {
+		return valueTypes[index];
+	}
+
+	/**
+	 * Returns true if any value of this format is a string
+	 *
+	 * @return true if this format has string values
+	 */
+	boolean hasStrings() {
+		return hasStrings;
+	}
+
+}
@@ -1,13 +1,23 @@
 package gov.usgs.scalp;
 
 import java.text.ParseException;
-import java.util.LinkedList;
 
 /**
  * SCALP input line
+ * <p>
+ * A line is either a string or a range of characters of a larger character
+ * sequence, such as the contents of an input file. Fields of a range are
+ * decoded in place, and the line is only copied to a string if
+ * {@link #getLine()} is called.
  */
 public class InputLine {
 
+	// characters of this line are chars[start, end)
+	private final CharSequence chars;
+	private final int start;
+	private final int end;
+
+	// this line as a string, created on first use
 	private String line;
 	private int lineNo = -1;
 
@@ -22,6 +32,9 @@ public class InputLine {
 		if (line == null)
 			throw new NullPointerException();
 
+		this.chars = line;
+		this.start = 0;
+		this.end = line.length();
 		this.line = line;
 	}
 
@@ -38,10 +51,40 @@ public class InputLine {
 		if (line == null)
 			throw new NullPointerException();
 
+		this.chars = line;
+		this.start = 0;
+		this.end = line.length();
 		this.line = line;
 		this.lineNo = lineNo;
 	}
 
+	/**
+	 * Constructs an input line from a range of a character sequence and assigns a
+	 * line number. The sequence isn't copied and must not be modified.
+	 *
+	 * @param chars
+	 *            character sequence
+	 * @param start
+	 *            index of the first character of the line
+	 * @param end
+	 *            index after the last character of the line
+	 * @param lineNo
+	 *            Line number
+	 */
+	InputLine(CharSequence chars, int start, int end, int lineNo) {
+
+		if (chars == null)
+			throw new NullPointerException();
+
+		if (start < 0 || end < start || end > chars.length())
+			throw new IndexOutOfBoundsException();
+
+		this.chars = chars;
+		this.start = start;
+		this.end = end;
+		this.lineNo = lineNo;
+	}
+
 	/**
 	 * Returns true if this line is a comment, false otherwise.
 	 *
@@ -50,7 +93,8 @@ public class InputLine {
 	 * @return true if this line is a comment, false if it is not
 	 */
 	public boolean isComment() {
-		return getLine().startsWith("+++");
+		return end - start >= 3 && chars.charAt(start) == '+' && chars.charAt(start + 1) == '+'
+				&& chars.charAt(start + 2) == '+';
 	}
 
 	/**
@@ -61,7 +105,41 @@ public class InputLine {
 	 * @return true if this line is empty, false if it is not.
 	 */
 	public boolean isEmpty() {
-		return (getLine().trim().length() == 0);
+		for (int i = start; i < end; i++) {
+			if (chars.charAt(i) > ' ')
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns true if the first field of this line equals a keyword. The field is
+	 * the first <code>width</code> characters of this line, or the whole line if
+	 * it is shorter, as decoded by an <code>A</code> descriptor. No strings are
+	 * created.
+	 *
+	 * @param keyword
+	 *            keyword
+	 * @param width
+	 *            field width
+	 * @return true if the field equals <code>keyword</code>
+	 */
+	public boolean matches(String keyword, int width) {
+
+		if (keyword == null)
+			throw new NullPointerException();
+
+		int fieldLength = Math.min(width, end - start);
+
+		if (fieldLength != keyword.length())
+			return false;
+
+		for (int i = 0; i < fieldLength; i++) {
+			if (chars.charAt(start + i) != keyword.charAt(i))
+				return false;
+		}
+
+		return true;
 	}
 
 	/**
@@ -70,6 +148,8 @@ public class InputLine {
 	 * @return this line as a string.
 	 */
 	public String getLine() {
+		if (line == null)
+			line = chars.subSequence(start, end).toString();
 		return line;
 	}
 
@@ -169,9 +249,7 @@ public class InputLine {
 		if (descriptor == null)
 			throw new NullPointerException();
 
-		InputDataDescriptor[] dataDescriptors = InputDataDescriptor.parseDescriptor(descriptor);
-
-		return parse(dataDescriptors);
+		return decode(InputFormat.of(descriptor)).toArray();
 	}
 
 	/**
@@ -189,52 +267,155 @@ public class InputLine {
 		if (dataDescriptors == null)
 			throw new NullPointerException();
 
-		LinkedList<Object> results = new LinkedList<Object>();
+		return decode(new InputFormat(dataDescriptors)).toArray();
+	}
+
+	/**
+	 * Decodes this line with a format descriptor, see {@link #parse(String)}. The
+	 * descriptor is compiled once and cached.
+	 *
+	 * @param descriptor
+	 *            format descriptor
+	 * @return decoded values
+	 * @throws ParseException
+	 *             if this instance is unable to parse the line using
+	 *             <code>descriptor</code>
+	 */
+	public InputFields decode(String descriptor) throws ParseException {
+
+		if (descriptor == null)
+			throw new NullPointerException();
+
+		return decode(InputFormat.of(descriptor));
+	}
+
+	/**
+	 * Returns true if this line can be decoded with a compiled format, that is, if
+	 * {@link #decode(InputFormat)} doesn't throw an exception. Lines are checked
+	 * without decoding strings or throwing exceptions, except for real numbers
+	 * that aren't plain decimal numbers.
+	 *
+	 * @param format
+	 *            compiled format
+	 * @return true if this line can be decoded
+	 */
+	public boolean canDecode(InputFormat format) {
+
+		if (format == null)
+			throw new NullPointerException();
+
+		int lineLength = end - start;
 
 		int beginIndex = 0;
 		int endIndex;
 
-		String substring;
-		int intValue;
-		double doubleValue;
+		// field range within chars
+		int fieldBegin;
+		int fieldEnd;
+		char type;
+
+		for (int i = 0; i < format.nDescriptors(); i++) {
+
+			type = format.getType(i);
+			endIndex = beginIndex + format.getWidth(i);
+
+			if (beginIndex > lineLength - 1)
+				return false;
+
+			if (type != 'X') {
+
+				fieldBegin = start + beginIndex;
+				if (endIndex > lineLength - 1)
+					fieldEnd = end;
+				else
+					fieldEnd = start + endIndex;
+
+				if (type == 'I') {
+					if (!FixedWidthDecoder.isInt(chars, fieldBegin, fieldEnd))
+						return false;
+				} else if (type == 'F' || type == 'E') {
+					try {
+						FixedWidthDecoder.parseDouble(chars, fieldBegin, fieldEnd);
+					} catch (NumberFormatException e) {
+						return false;
+					}
+				} else if (type != 'A')
+					return false;
+			}
+
+			beginIndex = endIndex;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Decodes this line with a compiled format. Values are decoded as
+	 * {@link #parse(String)} parses them, without boxing numbers.
+	 *
+	 * @param format
+	 *            compiled format
+	 * @return decoded values
+	 * @throws ParseException
+	 *             if this instance is unable to parse the line using
+	 *             <code>format</code>
+	 */
+	public InputFields decode(InputFormat format) throws ParseException {
+
+		if (format == null)
+			throw new NullPointerException();
+
+		InputFields fields = new InputFields(format);
+		int lineLength = end - start;
+
+		int beginIndex = 0;
+		int endIndex;
+		int valueIndex = 0;
+
+		// field range within chars
+		int fieldBegin;
+		int fieldEnd;
+		char type;
 
 		// loop over each descriptor
-		for (InputDataDescriptor d : dataDescriptors) {
+		for (int i = 0; i < format.nDescriptors(); i++) {
 
-			endIndex = beginIndex + d.getWidth();
+			type = format.getType(i);
+			endIndex = beginIndex + format.getWidth(i);
 
-			if (beginIndex > getLine().length() - 1)
+			if (beginIndex > lineLength - 1)
 				throw new ParseException("Parse failure", getLineNo());
 
-			if (endIndex > getLine().length() - 1)
-				substring = getLine().substring(beginIndex);
-			else
-				substring = getLine().substring(beginIndex, endIndex);
-
 			// skip character if 'X'
-			if (d.getType() == 'X') {
+			if (type == 'X') {
+				beginIndex = endIndex;
+				continue;
 			}
 
+			fieldBegin = start + beginIndex;
+			if (endIndex > lineLength - 1)
+				fieldEnd = end;
+			else
+				fieldEnd = start + endIndex;
+
 			// parse as String
-			else if (d.getType() == 'A') {
-				results.addLast((Object) substring);
+			if (type == 'A') {
+				fields.setString(valueIndex, chars.subSequence(fieldBegin, fieldEnd).toString());
 			}
 
 			// parse as Integer
-			else if (d.getType() == 'I') {
+			else if (type == 'I') {
 				try {
-					intValue = Integer.parseInt(substring.trim());
-					results.addLast((Object) intValue);
+					fields.setNumber(valueIndex, FixedWidthDecoder.parseInt(chars, fieldBegin, fieldEnd));
 				} catch (NumberFormatException e) {
 					throw new ParseException("Unable to parse as int", getLineNo());
 				}
 			}
 
 			// parse as double
-			else if (d.getType() == 'F' || d.getType() == 'E') {
+			else if (type == 'F' || type == 'E') {
 				try {
-					doubleValue = Double.parseDouble(substring.trim());
-					results.addLast((Object) doubleValue);
+					fields.setNumber(valueIndex, FixedWidthDecoder.parseDouble(chars, fieldBegin, fieldEnd));
 				} catch (NumberFormatException e) {
 					throw new ParseException("Unable to parse as double", getLineNo());
 				}
@@ -242,12 +423,12 @@ public class InputLine {
 
 			// throw exception if type char is unrecognized
 			else
-				throw new ParseException(String.format("Unrecognized type %c", d.getType()), getLineNo());
+				throw new ParseException(String.format("Unrecognized type %c", type), getLineNo());
 
+			valueIndex++;
 			beginIndex = endIndex;
 		}
 
-		return results.toArray();
-
+		return fields;
 	}
 }
@@ -0,0 +1,153 @@
+package gov.usgs.scalp;
+
+/**
+ * Cursor over the instantaneous flows of an hour-averaged flow time series
+ * <p>
+ * Produces the same piecewise-constant flows as
+ * {@link AvgFlowTimeSeries#getInstantaneous(int)}, one time step at a time, from
+ * the hourly columns of the averaged time series. Each averaged flow is
+ * representative of the previous hour, so it's repeated at every time step from
+ * the top of the previous hour up to its observation time. Observation times
+ * must be at least an hour apart.
+ */
+class InstFlowCursor {
+
+	private static final long MILLISECONDS_IN_A_MINUTE = 60000;
+	private static final long MILLISECONDS_IN_AN_HOUR = 3600000;
+
+	private final long[] times;
+	private final double[] infiltration;
+	private final double[] sanitary;
+	private final double[] stormWater;
+	private final long step;
+
+	// current hour and time
+	private int hour;
+	private long time;
+
+	/**
+	 * Constructs a cursor before the first time step of hourly columns
+	 *
+	 * @param times
+	 *            hourly observation times, at least an hour apart
+	 * @param infiltration
+	 *            hour-averaged infiltration flows
+	 * @param sanitary
+	 *            hour-averaged sanitary flows
+	 * @param stormWater
+	 *            hour-averaged storm water flows
+	 * @param timeStep
+	 *            instantaneous time step in minutes
+	 */
+	InstFlowCursor(long[] times, double[] infiltration, double[] sanitary, double[] stormWater, int timeStep) {
+
+		if (times == null || infiltration == null || sanitary == null || stormWater == null)
+			throw new NullPointerException();
+
+		if (timeStep <= 0 || timeStep > 60)
+			throw new IllegalArgumentException();
+
+		this.times = times;
+		this.infiltration = infiltration;
+		this.sanitary = sanitary;
+		this.stormWater = stormWater;
+		this.step = timeStep * MILLISECONDS_IN_A_MINUTE;
+
+		reset();
+	}
+
+	/**
+	 * Returns true if hourly observation times are at least an hour apart, so
+	 * their instantaneous flows can be produced by a cursor
+	 *
+	 * @param times
+	 *            hourly observation times
+	 * @return true if times are at least an hour apart
+	 */
+	static boolean isHourlySpaced(long[] times) {
+
+		for (int i = 1; i < times.length; i++) {
+			if (times[i] - times[i - 1] < MILLISECONDS_IN_AN_HOUR)
+				return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Moves the cursor to the next time step
+	 *
+	 * @return true if the cursor is at a time step, false if it's past the last
+	 */
+	boolean next() {
+
+		if (hour >= 0 && hour < times.length) {
+			time += step;
+			if (time < times[hour])
+				return true;
+		}
+
+		if (hour < times.length)
+			hour++;
+
+		if (hour == times.length)
+			return false;
+
+		time = times[hour] - MILLISECONDS_IN_AN_HOUR;
+
+		return true;
+	}
+
+	/**
+	 * Moves the cursor back before the first time step
+	 */
+	void reset() {
+		hour = -1;
+	}
+
+	/**
+	 * Returns the number of time steps of the cursor
+	 *
+	 * @return number of time steps
+	 */
+	int size() {
+		return Math.toIntExact(times.length * ((MILLISECONDS_IN_AN_HOUR + step - 1) / step));
+	}
+
+	/**
+	 * Returns the time of the current time step
+	 *
+	 * @return time in milliseconds
+	 */
+	long time() {
+		return time;
+	}
+
+	/**
+	 * Returns the infiltration flow at the current time step
+	 *
+	 * @return infiltration flow
+	 */
+	double infiltration() {
+		return infiltration[hour];
+	}
+
+	/**
+	 * Returns the sanitary flow at the current time step
+	 *
+	 * @return sanitary flow
+	 */
+	double sanitary() {
+		return sanitary[hour];
+	}
+
+	/**
+	 * Returns the storm water flow at the current time step
+	 *
+	 * @return storm water flow
+	 */
+	double stormWater() {
+		return stormWater[hour];
+	}
+
+}
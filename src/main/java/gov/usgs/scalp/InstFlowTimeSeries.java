@@ -5,6 +5,35 @@ package gov.usgs.scalp;
  */
 public class InstFlowTimeSeries extends FlowTimeSeries {
 
+	/**
+	 * Initializes an empty instantaneous flow time series
+	 */
+	public InstFlowTimeSeries() {
+		super();
+	}
+
+	/**
+	 * Initializes an instantaneous flow time series that uses the arrays as its
+	 * storage
+	 *
+	 * @param sortedTimes
+	 *            strictly increasing observation times in milliseconds
+	 * @param infiltration
+	 *            infiltration flows
+	 * @param sanitary
+	 *            sanitary flows
+	 * @param stormWater
+	 *            storm water flows
+	 */
+	InstFlowTimeSeries(long[] sortedTimes, double[] infiltration, double[] sanitary, double[] stormWater) {
+		super(sortedTimes, infiltration, sanitary, stormWater);
+	}
+
+	// returns the beginning of the hour after time
+	private static long nextHour(long time) {
+		return new DateTime(time).getNextHour().getTimeInMillis();
+	}
+
 	/**
 	 * Returns an hourly-averaged flow time series
 	 *
@@ -12,45 +41,54 @@ public class InstFlowTimeSeries extends FlowTimeSeries {
 	 */
 	public AvgFlowTimeSeries getAveraged() {
 
-		DateTime[] times = getTimes();
-		FlowValue[] values = getValues();
+		long[] times = timeColumn();
+		double[] infiltration = infiltrationColumn();
+		double[] sanitary = sanitaryColumn();
+		double[] stormWater = stormWaterColumn();
 
 		int nTimes = times.length;
-		DateTime nextHour;
+		long nextHour;
 
 		AvgFlowTimeSeries avgTimeSeries = new AvgFlowTimeSeries();
 		int nValues;
 
-		FlowValue sum;
-		FlowValue average;
+		double infiltrationSum;
+		double sanitarySum;
+		double stormWaterSum;
 
-		nextHour = times[0].getNextHour();
-		sum = values[0];
+		nextHour = nextHour(times[0]);
+		infiltrationSum = infiltration[0];
+		sanitarySum = sanitary[0];
+		stormWaterSum = stormWater[0];
 		nValues = 1;
 		for (int i = 1; i < nTimes; i++) {
 
 			// case 1
 			// times[i] is before nextHour
-			if (times[i].lessThan(nextHour)) {
-				sum = sum.add(values[i]); // add values[i] to the sum
+			if (times[i] < nextHour) {
+				// add values[i] to the sum
+				infiltrationSum += infiltration[i];
+				sanitarySum += sanitary[i];
+				stormWaterSum += stormWater[i];
 				nValues++; // increment the number of summed values
 
 				// case 2
 				// times[i] is at or after nextHour
 			} else {
-				average = sum.divide((double) nValues); // average the sum of flow values
-
 				// add the average to the average time series for the time nextHour
-				avgTimeSeries.put(nextHour, average);
-				sum = values[i]; // set the sum to values[i]
+				avgTimeSeries.put(nextHour, infiltrationSum / nValues, sanitarySum / nValues, stormWaterSum / nValues);
+
+				// set the sum to values[i]
+				infiltrationSum = infiltration[i];
+				sanitarySum = sanitary[i];
+				stormWaterSum = stormWater[i];
 				nValues = 1; // set the number of values to 1
-				nextHour = times[i].getNextHour(); // set the next hour
+				nextHour = nextHour(times[i]); // set the next hour
 			}
 		}
 
 		// average and add remaining flow
-		average = sum.divide((double) nValues);
-		avgTimeSeries.put(nextHour, average);
+		avgTimeSeries.put(nextHour, infiltrationSum / nValues, sanitarySum / nValues, stormWaterSum / nValues);
 
 		return avgTimeSeries;
 	}
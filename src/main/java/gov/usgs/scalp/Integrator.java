@@ -20,4 +20,21 @@ public interface Integrator {
 	 */
 	public FlowValue integrate(SingleLinearReservoirODE ode, double step, FlowValue inflow, FlowValue outflow);
 
+	/**
+	 * Integrates an SLR ODE for a single time step of a single flow constituent
+	 *
+	 * @param ode
+	 *            SLR ODE
+	 * @param step
+	 *            time step in seconds
+	 * @param inflow
+	 *            reservoir inflow
+	 * @param outflow
+	 *            reservoir outflow
+	 * @return flow at next time step
+	 */
+	public default double integrate(SingleLinearReservoirODE ode, double step, double inflow, double outflow) {
+		return integrate(ode, step, new FlowValue(inflow), new FlowValue(outflow)).getStormWater();
+	}
+
 }
@@ -12,7 +12,7 @@ public class LandSegment {
 	private LandSegmentTS timeSeries;
 
 	// inches per hour to feet per second
-	private static final double INPHR_TO_FPS = 1.0 / (12.0 * 60.0 * 60.0);
+	static final double INPHR_TO_FPS = 1.0 / (12.0 * 60.0 * 60.0);
 
 	private static final Logger LOGGER = Logger.getLogger("gov.usgs.scalp.LandSegment");
 
@@ -33,6 +33,24 @@ public class LandSegment {
 		this.timeSeries = timeSeries;
 	}
 
+	/**
+	 * Returns the area info of this land segment
+	 *
+	 * @return land segment area info
+	 */
+	LandSegmentAreaInfo getAreaInfo() {
+		return areaInfo;
+	}
+
+	/**
+	 * Returns the runoff time series of this land segment
+	 *
+	 * @return land segment runoff time series
+	 */
+	LandSegmentTS getTimeSeries() {
+		return timeSeries;
+	}
+
 	/**
 	 * Returns a sewer infiltration time series
 	 *
@@ -46,10 +64,9 @@ public class LandSegment {
 		// runoff is in inches per hour
 		TimeSeries subsurfaceRunoff = timeSeries.subsurfaceRunoff();
 
-		DateTime[] times = subsurfaceRunoff.getTimes();
 		double[] runoff = subsurfaceRunoff.getValues();
 
-		int nTimes = times.length;
+		int nTimes = runoff.length;
 
 		double[] flow = new double[nTimes];
 
@@ -58,7 +75,7 @@ public class LandSegment {
 			flow[i] = INPHR_TO_FPS * subsurfaceArea * runoff[i];
 		}
 
-		return new TimeSeries(times, flow);
+		return subsurfaceRunoff.withValues(flow);
 	}
 
 	/**
@@ -75,29 +92,29 @@ public class LandSegment {
 		TimeSeries imperviousRunoffTS = timeSeries.imperviousRunoff();
 		TimeSeries overlandRunoffTS = timeSeries.overlandRunoff();
 
-		DateTime[] imperviousTimes = imperviousRunoffTS.getTimes();
-		DateTime[] overlandTimes = overlandRunoffTS.getTimes();
+		if (imperviousRunoffTS.nObs() != overlandRunoffTS.nObs()) {
+			LOGGER.log(Level.SEVERE, "Impervious and overland runoff time series are different lengths");
+			throw new RuntimeException();
+		}
+
+		// regular time series are compared by start time and time step only
+		if (!imperviousRunoffTS.sameTimes(overlandRunoffTS)) {
+			LOGGER.log(Level.SEVERE, "Impervious and overland runoff observation times do not match");
+			throw new RuntimeException();
+		}
+
 		double[] imperviousRunoff = imperviousRunoffTS.getValues();
 		double[] overlandRunoff = overlandRunoffTS.getValues();
 
-		int nTimes = imperviousTimes.length;
+		int nTimes = imperviousRunoff.length;
 
 		double[] flow = new double[nTimes];
 
-		if (imperviousTimes.length != overlandTimes.length) {
-			LOGGER.log(Level.SEVERE, "Impervious and overland runoff time series are different lengths");
-			throw new RuntimeException();
-		}
-
 		for (int i = 0; i < nTimes; i++) {
-			if (imperviousTimes[i] != overlandTimes[i]) {
-				LOGGER.log(Level.SEVERE, "Impervious and overland runoff observation times do not match");
-				throw new RuntimeException();
-			}
 			flow[i] = INPHR_TO_FPS * (imperviousArea * imperviousRunoff[i] + perviousArea * overlandRunoff[i]);
 		}
 
-		return new TimeSeries(imperviousTimes, flow);
+		return imperviousRunoffTS.withValues(flow);
 	}
 
 }
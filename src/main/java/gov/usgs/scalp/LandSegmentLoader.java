@@ -0,0 +1,176 @@
+package gov.usgs.scalp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bulk loader of land segment runoff time series
+ * <p>
+ * The impervious, overland, and subsurface runoff paths of all segments are
+ * loaded by a bounded number of workers, which take segments from a shared
+ * queue. All workers read through the input time series store, and reads are
+ * serialized on the store: the native HEC-DSS library isn't safe for
+ * concurrent reads of one file, even through separate handles. Only the
+ * conversion of runoff to the simulation times runs in parallel. A single
+ * worker loads segments on the calling thread.
+ * <p>
+ * Loading doesn't stop at the first path that fails to load. Every failed path
+ * is logged and reported in one exception after all segments are read.
+ */
+class LandSegmentLoader {
+
+	private final TimeSeriesStore inputStore;
+	private final int nThreads;
+
+	private static final Logger LOGGER = Logger.getLogger("gov.usgs.scalp.LandSegmentLoader");
+
+	/**
+	 * Constructs a loader
+	 *
+	 * @param inputStore
+	 *            input time series store
+	 * @param nThreads
+	 *            number of loading threads
+	 */
+	LandSegmentLoader(TimeSeriesStore inputStore, int nThreads) {
+
+		if (inputStore == null)
+			throw new NullPointerException();
+
+		if (nThreads < 1)
+			throw new IllegalArgumentException("Number of threads must be at least 1");
+
+		this.inputStore = inputStore;
+		this.nThreads = nThreads;
+	}
+
+	/**
+	 * Loads the land segments with DSS path parts {@code dssParts}. Segments are
+	 * returned in the order of {@code dssParts}.
+	 *
+	 * @param dssParts
+	 *            parts A and B of the DSS paths of the segments
+	 * @param simulationTimes
+	 *            array of simulation times
+	 * @return land segments
+	 */
+	LandSegmentTS[] load(String[] dssParts, DateTime[] simulationTimes) {
+
+		if (dssParts == null || simulationTimes == null)
+			throw new NullPointerException();
+
+		int nSegments = dssParts.length;
+
+		// collect all paths up front
+		InputDSSPathStrings[] pathStrings = new InputDSSPathStrings[nSegments];
+		for (int i = 0; i < nSegments; i++)
+			pathStrings[i] = new InputDSSPathStrings(dssParts[i]);
+
+		LandSegmentTS[] segments = new LandSegmentTS[nSegments];
+		String[][] failedPaths = new String[nSegments][];
+		AtomicInteger nextSegment = new AtomicInteger();
+
+		int nWorkers = Math.min(nThreads, nSegments);
+
+		if (nWorkers <= 1) {
+			loadSegments(inputStore, dssParts, pathStrings, simulationTimes, nextSegment, segments, failedPaths);
+		} else {
+			LOGGER.log(Level.INFO, "Loading " + nSegments + " land segments on " + nWorkers + " threads");
+
+			ExecutorService executor = Executors.newFixedThreadPool(nWorkers);
+			List<Future<?>> workers = new ArrayList<>();
+
+			try {
+				for (int i = 0; i < nWorkers; i++) {
+					workers.add(executor.submit(() -> loadSegments(inputStore, dssParts, pathStrings,
+							simulationTimes, nextSegment, segments, failedPaths)));
+				}
+
+				for (Future<?> worker : workers)
+					await(worker);
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+
+		// report all failed paths together
+		List<String> failures = new ArrayList<>();
+		for (String[] paths : failedPaths) {
+			if (paths != null) {
+				for (String path : paths)
+					failures.add(path);
+			}
+		}
+
+		if (!failures.isEmpty()) {
+			for (String path : failures)
+				LOGGER.log(Level.SEVERE, "Failed to load time series from DSS path " + path);
+			throw new RuntimeException(String.format("Failed to load %d time series from DSS paths %s",
+					failures.size(), String.join(", ", failures)));
+		}
+
+		return segments;
+	}
+
+	// loads segments from the shared queue until it is empty. runoff is
+	// converted to the simulation times outside of the lock on the store
+	private static void loadSegments(TimeSeriesStore store, String[] dssParts, InputDSSPathStrings[] pathStrings,
+			DateTime[] simulationTimes, AtomicInteger nextSegment, LandSegmentTS[] segments,
+			String[][] failedPaths) {
+
+		DateTime startDate = simulationTimes[0];
+		DateTime endDate = simulationTimes[simulationTimes.length - 1];
+
+		int i;
+		while ((i = nextSegment.getAndIncrement()) < pathStrings.length) {
+
+			String[] paths = { pathStrings[i].getImproPath(), pathStrings[i].getOlfroPath(),
+					pathStrings[i].getSubroPath() };
+			TimeSeries[] runoff = new TimeSeries[paths.length];
+			List<String> failed = new ArrayList<>();
+
+			// reads are serialized on the store
+			synchronized (store) {
+				for (int j = 0; j < paths.length; j++) {
+					try {
+						runoff[j] = store.readTimeSeries(paths[j], startDate, endDate);
+					} catch (RuntimeException e) {
+						LOGGER.log(Level.SEVERE, "Failed to read time series from DSS path " + paths[j], e);
+						runoff[j] = null;
+					}
+					if (runoff[j] == null)
+						failed.add(paths[j]);
+				}
+			}
+
+			if (failed.isEmpty())
+				segments[i] = new LandSegmentTS(dssParts[i], runoff[0], runoff[1], runoff[2], simulationTimes);
+			else
+				failedPaths[i] = failed.toArray(new String[0]);
+		}
+	}
+
+	// waits for a worker to finish
+	private static void await(Future<?> worker) {
+
+		try {
+			worker.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			LOGGER.log(Level.SEVERE, "Failed to load land segments: " + cause.getMessage());
+			throw new RuntimeException("Failed to load land segments: " + cause.getMessage(), cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOGGER.log(Level.SEVERE, "Interrupted while loading land segments");
+			throw new RuntimeException("Interrupted while loading land segments", e);
+		}
+	}
+
+}
@@ -16,16 +16,16 @@ public class LandSegmentTS {
 	/**
 	 * Initialize a land segment
 	 *
-	 * @param inputDSS
-	 *            input DSS file
+	 * @param inputStore
+	 *            input time series store
 	 * @param dssParts
 	 *            parts A and B of a DSS path
 	 * @param simulationTimes
 	 *            array of simulation times
 	 */
-	public LandSegmentTS(DSS inputDSS, String dssParts, DateTime[] simulationTimes) {
+	public LandSegmentTS(TimeSeriesStore inputStore, String dssParts, DateTime[] simulationTimes) {
 
-		if (inputDSS == null || dssParts == null || simulationTimes == null)
+		if (inputStore == null || dssParts == null || simulationTimes == null)
 			throw new NullPointerException();
 
 		pathParts = dssParts;
@@ -37,34 +37,84 @@ public class LandSegmentTS {
 		DateTime endDate = simulationTimes[nTimes - 1];
 
 		// load time series upon initialization
-		TimeSeries impro = inputDSS.readTimeSeries(getImproPath(), startDate, endDate);
+		TimeSeries impro = inputStore.readTimeSeries(getImproPath(), startDate, endDate);
 		if (impro == null) {
 			String errorMessage = String.format("Failed to load time series from DSS path %s", getImproPath());
 			throw new RuntimeException(errorMessage);
 		}
 
-		TimeSeries olfro = inputDSS.readTimeSeries(getOlfroPath(), startDate, endDate);
+		TimeSeries olfro = inputStore.readTimeSeries(getOlfroPath(), startDate, endDate);
 		if (olfro == null) {
 			String errorMessage = String.format("Failed to load time series from DSS path %s", getOlfroPath());
 			throw new RuntimeException(errorMessage);
 		}
 
-		TimeSeries subro = inputDSS.readTimeSeries(getSubroPath(), startDate, endDate);
+		TimeSeries subro = inputStore.readTimeSeries(getSubroPath(), startDate, endDate);
 		if (subro == null) {
 			String errorMessage = String.format("Failed to load time series from DSS path %s", getSubroPath());
 			throw new RuntimeException(errorMessage);
 		}
 
-		imperviousRunoff = new TimeSeries();
-		overlandRunoff = new TimeSeries();
-		subsurfaceRunoff = new TimeSeries();
+		setRunoff(impro, olfro, subro, simulationTimes);
+	}
+
+	/**
+	 * Initialize a land segment from runoff time series that are already loaded
+	 *
+	 * @param dssParts
+	 *            parts A and B of a DSS path
+	 * @param impro
+	 *            impervious runoff time series
+	 * @param olfro
+	 *            overland runoff time series
+	 * @param subro
+	 *            subsurface runoff time series
+	 * @param simulationTimes
+	 *            array of simulation times
+	 */
+	public LandSegmentTS(String dssParts, TimeSeries impro, TimeSeries olfro, TimeSeries subro,
+			DateTime[] simulationTimes) {
+
+		if (dssParts == null || impro == null || olfro == null || subro == null || simulationTimes == null)
+			throw new NullPointerException();
+
+		pathParts = dssParts;
+
+		this.dssPathStrings = new InputDSSPathStrings(dssParts);
+
+		setRunoff(impro, olfro, subro, simulationTimes);
+	}
+
+	// sets runoff at the simulation times
+	private void setRunoff(TimeSeries impro, TimeSeries olfro, TimeSeries subro, DateTime[] simulationTimes) {
+
+		int nTimes = simulationTimes.length;
+
+		long[] times = new long[nTimes];
+		double[] improValues = new double[nTimes];
+		double[] olfroValues = new double[nTimes];
+		double[] subroValues = new double[nTimes];
 
 		// make sure values exist for all simulation times
-		for (DateTime time : simulationTimes) {
-			imperviousRunoff.put(time, impro.getValue(time));
-			overlandRunoff.put(time, olfro.getValue(time));
-			subsurfaceRunoff.put(time, subro.getValue(time));
+		for (int i = 0; i < nTimes; i++) {
+			times[i] = simulationTimes[i].getTimeInMillis();
+			improValues[i] = impro.getValue(simulationTimes[i]);
+			olfroValues[i] = olfro.getValue(simulationTimes[i]);
+			subroValues[i] = subro.getValue(simulationTimes[i]);
 		}
+
+		imperviousRunoff = simulationTimeSeries(times, improValues);
+		overlandRunoff = simulationTimeSeries(times, olfroValues);
+		subsurfaceRunoff = simulationTimeSeries(times, subroValues);
+	}
+
+	// returns a regular time series if the simulation times are regular
+	private static TimeSeries simulationTimeSeries(long[] times, double[] values) {
+
+		if (TimeSeries.isStrictlyIncreasing(times))
+			return TimeSeries.fromSortedArrays(times.clone(), values);
+
+		return new TimeSeries(times, values);
 	}
 
 	/**
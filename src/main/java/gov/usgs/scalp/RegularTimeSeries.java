@@ -0,0 +1,257 @@
+package gov.usgs.scalp;
+
+/**
+ * Regular-interval time series
+ * <p>
+ * A time series whose observation times are defined by a start time and a
+ * constant time step. Only the start time, the time step, and the values are
+ * stored; observation times are computed from their index, and lookups by time
+ * use index arithmetic. Time series with equal start times, time steps, and
+ * numbers of observations are aligned without comparing individual times.
+ * Observations behave exactly as those of any other time series. A time series
+ * stops being regular if an observation off its time step is inserted, and its
+ * times are stored from then on.
+ */
+public class RegularTimeSeries extends TimeSeries {
+
+	private static final long MILLISECONDS_IN_A_MINUTE = 60000;
+
+	private final long startTime; // start time in milliseconds
+	private final long timeStep; // time step in milliseconds
+
+	// false once an observation off the time step has been inserted
+	private boolean regular = true;
+
+	/**
+	 * Constructs a regular time series
+	 *
+	 * @param startTime
+	 *            time of the first observation
+	 * @param timeStep
+	 *            time step in minutes
+	 * @param values
+	 *            observed values
+	 */
+	public RegularTimeSeries(DateTime startTime, int timeStep, double[] values) {
+		this(startTime.getTimeInMillis(), timeStep * MILLISECONDS_IN_A_MINUTE, values.clone());
+	}
+
+	/**
+	 * Constructs a regular time series that uses {@code values} as its storage
+	 *
+	 * @param startTime
+	 *            time of the first observation in milliseconds
+	 * @param timeStep
+	 *            time step in milliseconds
+	 * @param values
+	 *            observed values
+	 */
+	RegularTimeSeries(long startTime, long timeStep, double[] values) {
+
+		super(values, values.length);
+
+		if (timeStep <= 0 || timeStep % MILLISECONDS_IN_A_MINUTE != 0)
+			throw new IllegalArgumentException("Time step must be a positive number of minutes");
+
+		this.startTime = startTime;
+		this.timeStep = timeStep;
+	}
+
+	/**
+	 * Constructs a regular time series that uses {@code values} as its storage.
+	 * The times must be regular, see {@link #isRegular(long[])}, and are not kept.
+	 *
+	 * @param sortedTimes
+	 *            regular observation times in milliseconds
+	 * @param values
+	 *            observed values
+	 */
+	RegularTimeSeries(long[] sortedTimes, double[] values) {
+		this(sortedTimes[0], sortedTimes[1] - sortedTimes[0], values);
+	}
+
+	/**
+	 * Returns true if {@code times} are evenly spaced at a whole number of minutes.
+	 * At least two times are required.
+	 *
+	 * @param times
+	 *            observation times in milliseconds
+	 * @return true if times are regular
+	 */
+	static boolean isRegular(long[] times) {
+
+		if (times.length < 2)
+			return false;
+
+		long step = times[1] - times[0];
+
+		if (step <= 0 || step % MILLISECONDS_IN_A_MINUTE != 0 || times[0] % MILLISECONDS_IN_A_MINUTE != 0)
+			return false;
+
+		for (int i = 2; i < times.length; i++) {
+			if (times[i] - times[i - 1] != step)
+				return false;
+		}
+
+		return true;
+	}
+
+	// returns the index of an observation time on the time step, -1 if time is not
+	// on the time step or is past limit
+	private int indexOf(long time, int limit) {
+
+		long offset = time - startTime;
+
+		if (offset < 0 || offset % timeStep != 0)
+			return -1;
+
+		long index = offset / timeStep;
+
+		if (index > limit)
+			return -1;
+
+		return (int) index;
+	}
+
+	/**
+	 * Returns true if the observation times of this time series are still on its
+	 * time step, that is, no observation off the time step has been inserted
+	 *
+	 * @return true if this time series is regular
+	 */
+	public boolean isRegular() {
+		return regular;
+	}
+
+	/**
+	 * Returns true if {@code other} has the same start time, time step, and number
+	 * of observations as this time series, and both are regular
+	 *
+	 * @param other
+	 *            other regular time series
+	 * @return true if the time series are aligned
+	 */
+	public boolean isAligned(RegularTimeSeries other) {
+
+		if (other == null)
+			throw new NullPointerException();
+
+		return regular && other.regular && startTime == other.startTime && timeStep == other.timeStep
+				&& nObs() == other.nObs();
+	}
+
+	@Override
+	boolean sameTimes(TimeSeries other) {
+
+		if (other instanceof RegularTimeSeries && isAligned((RegularTimeSeries) other))
+			return true;
+
+		return super.sameTimes(other);
+	}
+
+	@Override
+	TimeSeries withValues(double[] newValues) {
+
+		assert newValues.length == nObs();
+
+		if (!regular)
+			return super.withValues(newValues);
+
+		return new RegularTimeSeries(startTime, timeStep, newValues);
+	}
+
+	/**
+	 * Returns the time of the first observation
+	 *
+	 * @return start time
+	 */
+	public DateTime getStartTime() {
+		return new DateTime(startTime);
+	}
+
+	/**
+	 * Returns the time step of this time series
+	 *
+	 * @return time step in minutes
+	 */
+	public int getTimeStep() {
+		return Math.toIntExact(timeStep / MILLISECONDS_IN_A_MINUTE);
+	}
+
+	@Override
+	public void put(DateTime time, double value) {
+
+		if (time == null)
+			throw new NullPointerException();
+
+		checkModifiable();
+
+		if (regular) {
+
+			// replacing a value or appending one time step after the last observation
+			// keeps the times regular
+			int index = indexOf(time.getTimeInMillis(), nObs());
+
+			if (index == nObs()) {
+				appendValue(value);
+				return;
+			}
+
+			if (index >= 0) {
+				setValue(index, value);
+				return;
+			}
+
+			// times are stored once they're no longer regular
+			long[] times = getTimesInMillis();
+			regular = false;
+			storeTimes(times);
+		}
+
+		super.put(time, value);
+	}
+
+	@Override
+	public long[] getTimesInMillis() {
+
+		if (!regular)
+			return super.getTimesInMillis();
+
+		long[] times = new long[nObs()];
+
+		for (int i = 0; i < times.length; i++)
+			times[i] = startTime + i * timeStep;
+
+		return times;
+	}
+
+	@Override
+	public long getTimeInMillis(int index) {
+
+		if (!regular)
+			return super.getTimeInMillis(index);
+
+		if (index < 0 || index >= nObs())
+			throw new IndexOutOfBoundsException();
+
+		return startTime + index * timeStep;
+	}
+
+	@Override
+	public double getValue(DateTime time) {
+
+		if (time == null)
+			throw new NullPointerException();
+
+		if (!regular)
+			return super.getValue(time);
+
+		int index = indexOf(time.getTimeInMillis(), nObs() - 1);
+
+		if (index < 0)
+			return 0.0;
+
+		return getValue(index);
+	}
+
+}
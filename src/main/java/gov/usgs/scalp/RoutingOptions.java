@@ -0,0 +1,204 @@
+package gov.usgs.scalp;
+
+/**
+ * Flow routing options
+ * <p>
+ * Flows are routed either at a fixed time step or adaptively. In adaptive
+ * routing each hour is routed at a coarse time step chosen from the smallest
+ * non-zero storage coefficient of an SCA and an error tolerance, and hours in
+ * which a maximum (QMAX) or split (SPLIT) flow threshold is reached are routed
+ * again at the fine time step.
+ * <p>
+ * Time steps are in minutes and must divide an hour evenly.
+ */
+public class RoutingOptions {
+
+	// time steps that divide an hour evenly, in minutes
+	private static final int[] HOURLY_TIME_STEPS = { 1, 2, 3, 4, 5, 6, 10, 12, 15, 20, 30, 60 };
+
+	private final int timeStep;
+	private final double tolerance;
+
+	/**
+	 * Constructs routing options with the default fixed time step
+	 */
+	public RoutingOptions() {
+		this(SCALP.TIME_STEP);
+	}
+
+	/**
+	 * Constructs routing options with a fixed time step
+	 *
+	 * @param timeStep
+	 *            time step in minutes
+	 */
+	public RoutingOptions(int timeStep) {
+
+		checkTimeStep(timeStep);
+
+		this.timeStep = timeStep;
+		this.tolerance = 0;
+	}
+
+	/**
+	 * Constructs adaptive routing options
+	 *
+	 * @param timeStep
+	 *            fine time step in minutes
+	 * @param tolerance
+	 *            relative error tolerance of coarse time steps
+	 */
+	public RoutingOptions(int timeStep, double tolerance) {
+
+		checkTimeStep(timeStep);
+
+		if (!(tolerance > 0) || Double.isInfinite(tolerance))
+			throw new IllegalArgumentException("Routing tolerance must be a positive number: " + tolerance);
+
+		this.timeStep = timeStep;
+		this.tolerance = tolerance;
+	}
+
+	private static void checkTimeStep(int timeStep) {
+		if (timeStep <= 0 || timeStep > 60 || 60 % timeStep != 0)
+			throw new IllegalArgumentException("Time step must divide 60 minutes evenly: " + timeStep);
+	}
+
+	/**
+	 * Parses routing options from command line arguments of the form
+	 * {@code KEY=VALUE}. Recognized keys are {@code TIMESTEP}, the (fine) time
+	 * step in minutes, and {@code TOLERANCE}, which enables adaptive routing.
+	 * Options that aren't in {@code args} are taken from {@code defaults}.
+	 *
+	 * @param args
+	 *            routing option arguments
+	 * @param defaults
+	 *            default routing options
+	 * @return routing options
+	 */
+	public static RoutingOptions parseArgs(String[] args, RoutingOptions defaults) {
+
+		if (args == null || defaults == null)
+			throw new NullPointerException();
+
+		int timeStep = defaults.timeStep;
+		double tolerance = defaults.tolerance;
+
+		for (String arg : args) {
+
+			int separator = arg.indexOf('=');
+
+			if (separator < 0)
+				throw new IllegalArgumentException("Expected a routing option as KEY=VALUE: " + arg);
+
+			String key = arg.substring(0, separator).trim().toUpperCase();
+			String value = arg.substring(separator + 1).trim();
+
+			try {
+				switch (key) {
+				case "TIMESTEP":
+					timeStep = Integer.parseInt(value);
+					break;
+				case "TOLERANCE":
+					tolerance = Double.parseDouble(value);
+					break;
+				default:
+					throw new IllegalArgumentException("Unrecognized routing option: " + arg);
+				}
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Invalid routing option value: " + arg);
+			}
+		}
+
+		if (tolerance == 0)
+			return new RoutingOptions(timeStep);
+
+		return new RoutingOptions(timeStep, tolerance);
+	}
+
+	/**
+	 * Returns the coarse time step for reservoirs. Holding upstream flow constant
+	 * over a time step dt introduces a relative error of about dt / (2K) in the
+	 * response of a reservoir with storage coefficient K, so the coarse time step
+	 * is the longest time step that divides an hour, is a multiple of the fine
+	 * time step, and is no longer than 2 * tolerance * K for the smallest non-zero
+	 * K.
+	 * <p>
+	 * The fine time step is returned if routing isn't adaptive.
+	 *
+	 * @param reservoirInfo
+	 *            reservoir information
+	 * @return coarse time step in minutes
+	 */
+	public int getCoarseTimeStep(ReservoirInfo[] reservoirInfo) {
+
+		if (reservoirInfo == null)
+			throw new NullPointerException();
+
+		if (!isAdaptive())
+			return timeStep;
+
+		double minK = Double.POSITIVE_INFINITY;
+
+		for (ReservoirInfo info : reservoirInfo) {
+			double K = info.getStorageConstant();
+			if (K > 0)
+				minK = Math.min(minK, K);
+		}
+
+		// storage coefficients are in seconds
+		double maxTimeStep = 2 * tolerance * minK / 60;
+
+		int coarseTimeStep = timeStep;
+
+		for (int step : HOURLY_TIME_STEPS) {
+			if (step % timeStep == 0 && step <= maxTimeStep)
+				coarseTimeStep = step;
+		}
+
+		return coarseTimeStep;
+	}
+
+	/**
+	 * Returns the time step, or the fine time step of adaptive routing
+	 *
+	 * @return time step in minutes
+	 */
+	public int getTimeStep() {
+		return timeStep;
+	}
+
+	/**
+	 * Returns the relative error tolerance of adaptive routing, 0 if routing isn't
+	 * adaptive
+	 *
+	 * @return tolerance
+	 */
+	public double getTolerance() {
+		return tolerance;
+	}
+
+	/**
+	 * Returns true if routing is adaptive
+	 *
+	 * @return true if routing is adaptive
+	 */
+	public boolean isAdaptive() {
+		return tolerance > 0;
+	}
+
+	/**
+	 * Returns a new ODE integrator for these options. The Euler method is used at
+	 * the default time step, and the exact exponential solution otherwise.
+	 *
+	 * @return ODE integrator
+	 */
+	public Integrator newIntegrator() {
+
+		if (!isAdaptive() && timeStep == SCALP.TIME_STEP)
+			return new EulerIntegrator();
+
+		return new ExactExponentialIntegrator();
+	}
+
+}
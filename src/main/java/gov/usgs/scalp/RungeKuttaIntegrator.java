@@ -41,4 +41,43 @@ public class RungeKuttaIntegrator implements Integrator {
 
 		return outflow.add(dFV);
 	}
+
+	/**
+	 * Integrates an SLR ODE for a single time step of a single flow constituent
+	 *
+	 * @param ode
+	 *            SLR ODE
+	 * @param step
+	 *            time step in seconds
+	 * @param inflow
+	 *            reservoir inflow
+	 * @param outflow
+	 *            reservoir outflow
+	 * @return flow at next time step
+	 */
+	@Override
+	public double integrate(SingleLinearReservoirODE ode, double step, double inflow, double outflow) {
+
+		if (ode == null)
+			throw new NullPointerException();
+
+		if (step <= 0)
+			throw new IllegalArgumentException();
+
+		double k1 = step * ode.computeDerivative(inflow, outflow);
+
+		double q2 = outflow + 0.5 * k1;
+		double k2 = step * ode.computeDerivative(inflow, q2);
+
+		double q3 = outflow + 0.5 * k2;
+		double k3 = step * ode.computeDerivative(inflow, q3);
+
+		double q4 = outflow + k3;
+		double k4 = step * ode.computeDerivative(inflow, q4);
+
+		double dQ = 1 / 6. * (k1 + 2 * k2 + 2 * k3 + k4);
+
+		return outflow + dQ;
+	}
+
 }
@@ -3,6 +3,7 @@ package gov.usgs.scalp;
 import java.text.ParseException;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -29,6 +30,12 @@ public class SCAInputBlock {
 	private int sumOverflows; // summation indicator for total, inflow, infiltration, and sanitary overflows
 	private final static Logger LOGGER = Logger.getLogger("gov.usgs.scalp.SCAInputBlock");
 
+	// error messages kept instead of logged while parsing, null if they're logged
+	private final List<String> errors;
+
+	// output summation indicator and DSS path parts
+	private final static InputFormat SUMMATION_FORMAT = InputFormat.of("I8,A72");
+
 	/**
 	 * Constructs special contributing area input block from an input file. The
 	 * current line of the input file must be the beginning of the special
@@ -40,42 +47,60 @@ public class SCAInputBlock {
 	 *             if a parsing error is encountered
 	 */
 	public SCAInputBlock(InputFile inputFile) throws ParseException {
+		this(inputFile, null);
+	}
+
+	/**
+	 * Constructs special contributing area input block from an input file, keeping
+	 * error messages instead of logging them. The messages of a block that fails
+	 * to parse can be logged later with {@link #logErrors(List)}.
+	 *
+	 * @param inputFile
+	 *            SCALP input file
+	 * @param errors
+	 *            list that error messages are added to, or null to log them
+	 * @throws ParseException
+	 *             if a parsing error is encountered
+	 */
+	SCAInputBlock(InputFile inputFile, List<String> errors) throws ParseException {
 
 		if (inputFile == null)
 			throw new NullPointerException();
 
+		this.errors = errors;
+
 		InputLine inputLine;
-		Object[] data;
+		InputFields data;
 		String errorString = "Error parsing SCA input block";
 		String unexpectedLogLine = "Unexpected line: %s, line number %d";
 
 		// beginning of sca block
 		inputLine = inputFile.nextNonEmptyLine();
-		data = inputLine.parse("A3");
-		if (!"SCA".equals((String) data[0])) {
-			LOGGER.log(Level.SEVERE, String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
+		data = inputLine.decode("A3");
+		if (!"SCA".equals(data.getString(0))) {
+			logError(String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
 			throw new ParseException(errorString, inputLine.getLineNo());
 		}
 
 		// analysis
 		inputLine = inputFile.nextNonEmptyLine();
-		data = inputLine.parse("A8");
-		if (!"ANALYSIS".equals((String) data[0])) {
-			LOGGER.log(Level.SEVERE, String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
+		data = inputLine.decode("A8");
+		if (!"ANALYSIS".equals(data.getString(0))) {
+			logError(String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
 			throw new ParseException(errorString, inputLine.getLineNo());
 		}
 
 		// sca number and total sca area
 		inputLine = inputFile.nextNonEmptyLine();
-		data = inputLine.parse("A3,13X,I8,F8");
-		scaNumber = (int) data[1];
-		scaArea = (double) data[2];
+		data = inputLine.decode("A3,13X,I8,F8");
+		scaNumber = data.getInt(1);
+		scaArea = data.getDouble(2);
 
 		// beginning of lands block
 		inputLine = inputFile.nextNonEmptyLine();
-		data = inputLine.parse("A5");
-		if (!"LANDS".equals((String) data[0])) {
-			LOGGER.log(Level.SEVERE, String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
+		data = inputLine.decode("A5");
+		if (!"LANDS".equals(data.getString(0))) {
+			logError(String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
 			throw new ParseException(errorString, inputLine.getLineNo());
 		}
 
@@ -85,15 +110,14 @@ public class SCAInputBlock {
 		LandSegmentInfo segment;
 		while (!landsEndReached) {
 			inputLine = inputFile.nextNonEmptyLine();
-			data = inputLine.parse("A3");
-			if ("END".equals((String) data[0]))
+			data = inputLine.decode("A3");
+			if ("END".equals(data.getString(0)))
 				landsEndReached = true;
 			else {
 				segment = new LandSegmentInfo(inputLine);
 
 				if (landSegments.containsKey(segment.segmentNumber)) {
-					LOGGER.log(Level.SEVERE,
-							String.format("Duplicate land segment number: %2d", segment.segmentNumber));
+					logError(String.format("Duplicate land segment number: %2d", segment.segmentNumber));
 					throw new RuntimeException("Duplicate land segment number encountered");
 				}
 
@@ -103,47 +127,47 @@ public class SCAInputBlock {
 
 		// beginning of sanitary block
 		inputLine = inputFile.nextNonEmptyLine();
-		data = inputLine.parse("A8");
-		if (!"SANITARY".equals((String) data[0])) {
-			LOGGER.log(Level.SEVERE, String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
+		data = inputLine.decode("A8");
+		if (!"SANITARY".equals(data.getString(0))) {
+			logError(String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
 			throw new ParseException(errorString, inputLine.getLineNo());
 		}
 
 		// sanitary info set and population equivalent
 		inputLine = inputFile.nextNonEmptyLine();
-		data = inputLine.parse("A3,13X,I8,F8");
-		sanitaryInfoSet = (int) data[1];
-		popEquivalent = (double) data[2];
+		data = inputLine.decode("A3,13X,I8,F8");
+		sanitaryInfoSet = data.getInt(1);
+		popEquivalent = data.getDouble(2);
 
 		if (popEquivalent < 0) {
-			LOGGER.log(Level.SEVERE, "Negative population equivalent encountered");
+			logError("Negative population equivalent encountered");
 			throw new RuntimeException("Negative population equivalent encountered");
 		}
 
 		// end of sanitary info set
 		inputLine = inputFile.nextNonEmptyLine();
-		data = inputLine.parse("A3");
-		if (!"END".equals((String) data[0])) {
-			LOGGER.log(Level.SEVERE, String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
+		data = inputLine.decode("A3");
+		if (!"END".equals(data.getString(0))) {
+			logError(String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
 			throw new ParseException(errorString, inputLine.getLineNo());
 		}
 
 		// beginning of initial flows block
 		inputLine = inputFile.nextNonEmptyLine();
-		data = inputLine.parse("A13");
-		if (!"INITIAL FLOWS".equals((String) data[0])) {
-			LOGGER.log(Level.SEVERE, String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
+		data = inputLine.decode("A13");
+		if (!"INITIAL FLOWS".equals(data.getString(0))) {
+			logError(String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
 			throw new ParseException(errorString, inputLine.getLineNo());
 		}
 
 		// initial sewer flows
 		inputLine = inputFile.nextNonEmptyLine();
-		data = inputLine.parse("16X,3F8");
+		data = inputLine.decode("16X,3F8");
 		initialFlows = new double[3];
 		for (int i = 0; i < 3; i++) {
-			initialFlows[i] = (double) data[i];
+			initialFlows[i] = data.getDouble(i);
 			if (initialFlows[i] < 0) {
-				LOGGER.log(Level.SEVERE, "Negative initial flow value encountered");
+				logError("Negative initial flow value encountered");
 				throw new RuntimeException("Negative initial flow value encountered");
 			}
 		}
@@ -153,63 +177,84 @@ public class SCAInputBlock {
 
 		// output paths
 		inputLine = inputFile.nextNonEmptyLine();
-		data = inputLine.parse("A6");
-		if (!"OUTPUT".equals((String) data[0])) {
-			LOGGER.log(Level.SEVERE, String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
+		data = inputLine.decode("A6");
+		if (!"OUTPUT".equals(data.getString(0))) {
+			logError(String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
 			throw new ParseException(errorString, inputLine.getLineNo());
 		}
 
 		// sanitary treatment plant flows
 		inputLine = inputFile.nextNonEmptyLine();
-		boolean sumTreatmentFound = false;
-		try {
-			data = inputLine.parse("I8,A72");
-			sumTreatment = (int) data[0];
-			sewerParts = (String) data[1];
-			sumTreatmentFound = true;
-		} catch (ParseException e) {
-			data = inputLine.parse("8X,A72");
+		boolean sumTreatmentFound = inputLine.canDecode(SUMMATION_FORMAT);
+		if (sumTreatmentFound) {
+			data = inputLine.decode(SUMMATION_FORMAT);
+			sumTreatment = data.getInt(0);
+			sewerParts = data.getString(1);
+		} else {
+			data = inputLine.decode("8X,A72");
 			sumTreatment = 0;
-			sewerParts = (String) data[0];
+			sewerParts = data.getString(0);
 		}
 		sewerPaths = new OutputDSSPathStrings(sewerParts, "STP");
 
 		if (sumTreatmentFound) {
-			LOGGER.log(Level.SEVERE, String.format("Output summation not supported: %d, line number %d", sumTreatment,
+			logError(String.format("Output summation not supported: %d, line number %d", sumTreatment,
 					inputLine.getLineNo()));
 			throw new RuntimeException(errorString + ": Output summation not supported");
 		}
 
 		// overflows
 		inputLine = inputFile.nextNonEmptyLine();
-		boolean sumOverflowsFound = false;
-		try {
-			data = inputLine.parse("I8,A72");
-			sumOverflows = (int) data[0];
-			overflowParts = (String) data[1];
-			sumOverflowsFound = true;
-		} catch (ParseException e) {
-			data = inputLine.parse("8X,A72");
+		boolean sumOverflowsFound = inputLine.canDecode(SUMMATION_FORMAT);
+		if (sumOverflowsFound) {
+			data = inputLine.decode(SUMMATION_FORMAT);
+			sumOverflows = data.getInt(0);
+			overflowParts = data.getString(1);
+		} else {
+			data = inputLine.decode("8X,A72");
 			sumOverflows = 0;
-			overflowParts = (String) data[0];
+			overflowParts = data.getString(0);
 		}
 		overflowPaths = new OutputDSSPathStrings(overflowParts, "OVF");
 
 		if (sumOverflowsFound) {
-			LOGGER.log(Level.SEVERE, String.format("Output summation not supported: %d, line number %d", sumOverflows,
+			logError(String.format("Output summation not supported: %d, line number %d", sumOverflows,
 					inputLine.getLineNo()));
 			throw new RuntimeException(errorString + ": Output summation not supported");
 		}
 
 		// expect execute command
 		inputLine = inputFile.nextNonEmptyLine();
-		data = inputLine.parse("A7");
-		if (!"EXECUTE".equals((String) data[0])) {
-			LOGGER.log(Level.SEVERE, String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
+		data = inputLine.decode("A7");
+		if (!"EXECUTE".equals(data.getString(0))) {
+			logError(String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
 			throw new ParseException(errorString, inputLine.getLineNo());
 		}
 	}
 
+	// logs an error message, or keeps it if messages are kept
+	private void logError(String message) {
+		if (errors == null)
+			LOGGER.log(Level.SEVERE, message);
+		else
+			errors.add(message);
+	}
+
+	/**
+	 * Logs error messages kept while parsing a block
+	 *
+	 * @param errors
+	 *            error messages
+	 */
+	static void logErrors(List<String> errors) {
+
+		if (errors == null)
+			throw new NullPointerException();
+
+		for (String message : errors)
+			LOGGER.log(Level.SEVERE, message);
+	}
+
 	// contains land segment information
 	private class LandSegmentInfo {
 		int segmentNumber;
@@ -219,16 +264,16 @@ public class SCAInputBlock {
 
 			assert inputLine != null;
 
-			Object[] data;
-			data = inputLine.parse("A3,13X,I8,3F8");
-			segmentNumber = (int) data[1];
+			InputFields data;
+			data = inputLine.decode("A3,13X,I8,3F8");
+			segmentNumber = data.getInt(1);
 			tributaryArea = new double[3];
 			for (int i = 2; i < 5; i++)
-				tributaryArea[i - 2] = (double) data[i];
+				tributaryArea[i - 2] = data.getDouble(i);
 
 			for (double area : tributaryArea) {
 				if (area < 0) {
-					LOGGER.log(Level.SEVERE, "Negative land segment area encountered");
+					logError("Negative land segment area encountered");
 					throw new RuntimeException("Negative land segment area encountered");
 				}
 			}
@@ -255,7 +300,7 @@ public class SCAInputBlock {
 
 			assert inputFile != null;
 
-			Object[] data;
+			InputFields data;
 			InputLine inputLine;
 
 			String errorString = "Error parsing routing info";
@@ -263,56 +308,56 @@ public class SCAInputBlock {
 
 			// ROUTING
 			inputLine = inputFile.nextNonEmptyLine();
-			data = inputLine.parse("A7");
-			if (!"ROUTING".equals((String) data[0])) {
-				LOGGER.log(Level.SEVERE, String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
+			data = inputLine.decode("A7");
+			if (!"ROUTING".equals(data.getString(0))) {
+				logError(String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
 				throw new ParseException(errorString, inputLine.getLineNo());
 			}
 
 			// STOPSTORE
 			inputLine = inputFile.nextNonEmptyLine();
-			data = inputLine.parse("16X,3(5X,A3)");
+			data = inputLine.decode("16X,3(5X,A3)");
 			stopStore = new String[3];
 			for (int i = 0; i < 3; i++) {
-				stopStore[i] = ((String) data[i]).trim();
+				stopStore[i] = data.getString(i).trim();
 				if (!("YES".equals(stopStore[i]) || "NO".equals(stopStore[i]))) {
-					LOGGER.log(Level.SEVERE, String.format("Expected YES/NO: %s", stopStore[i]));
+					logError(String.format("Expected YES/NO: %s", stopStore[i]));
 					throw new ParseException(errorString, inputLine.getLineNo());
 				}
 			}
 
 			// RK(*)
 			inputLine = inputFile.nextNonEmptyLine();
-			data = inputLine.parse("16X,3F8");
+			data = inputLine.decode("16X,3F8");
 			routingConstants = new double[3];
 			for (int i = 0; i < 3; i++) {
-				routingConstants[i] = (double) data[i];
+				routingConstants[i] = data.getDouble(i);
 				if (routingConstants[i] < 0) {
-					LOGGER.log(Level.SEVERE, "Negative routing constant encountered");
+					logError("Negative routing constant encountered");
 					throw new RuntimeException("Negative routing constant encountered");
 				}
 			}
 
 			// QMAX(*)
 			inputLine = inputFile.nextNonEmptyLine();
-			data = inputLine.parse("16X,3F8");
+			data = inputLine.decode("16X,3F8");
 			maximumQs = new double[3];
 			for (int i = 0; i < 3; i++) {
-				maximumQs[i] = (double) data[i];
+				maximumQs[i] = data.getDouble(i);
 				if (maximumQs[i] < 0) {
-					LOGGER.log(Level.SEVERE, "Negative QMAX value encountered");
+					logError("Negative QMAX value encountered");
 					throw new RuntimeException("Negative QMAX value encountered");
 				}
 			}
 
 			// SPLIT(*)
 			inputLine = inputFile.nextNonEmptyLine();
-			data = inputLine.parse("16X,3F8");
+			data = inputLine.decode("16X,3F8");
 			split = new double[3];
 			for (int i = 0; i < 3; i++) {
-				split[i] = (double) data[i];
+				split[i] = data.getDouble(i);
 				if (split[i] < 0) {
-					LOGGER.log(Level.SEVERE, "Negative QSPLIT value encountered");
+					logError("Negative QSPLIT value encountered");
 					throw new RuntimeException("Negative QSPLIT value encountered");
 				}
 			}
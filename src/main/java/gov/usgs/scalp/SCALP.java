@@ -1,6 +1,14 @@
 package gov.usgs.scalp;
 
 import java.text.ParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -9,10 +17,21 @@ import java.util.logging.Logger;
  */
 public class SCALP {
 
-	// time step in minutes
+	// default time step in minutes
 	public static final int TIME_STEP = 1;
 
+	// number of required command line arguments
+	private static final int N_REQUIRED_ARGS = 4;
+
+	// number of SCAs routed sequentially whose inflow is assembled at once
+	private static final int ASSEMBLY_BATCH_SIZE = 16;
+
 	private SpecialContributingArea[] specialContributingAreas;
+
+	// assembles the inflow of batches of SCAs as they are routed, null if the
+	// land segment runoff of the SCAs doesn't share one time axis
+	private InflowEngine inflowEngine;
+
 	private final static SCALPUserLog USER_LOG = new SCALPUserLog();
 	private final static Logger LOGGER = Logger.getLogger("gov.usgs.scalp.SCALP");
 
@@ -25,58 +44,133 @@ public class SCALP {
 	 *            path to DSS input file
 	 */
 	public SCALP(String inputFilePath, String dssFilePath) {
+		this(inputFilePath, dssFilePath, new String[0]);
+	}
+
+	/**
+	 * Constructs a program instance with routing options that override those of
+	 * the input file
+	 *
+	 * @param inputFilePath
+	 *            path to SCALP input file
+	 * @param dssFilePath
+	 *            path to DSS input file
+	 * @param routingArgs
+	 *            routing options as {@code KEY=VALUE} arguments, see
+	 *            {@link RoutingOptions#parseArgs(String[], RoutingOptions)}
+	 */
+	public SCALP(String inputFilePath, String dssFilePath, String[] routingArgs) {
+		this(inputFilePath, dssFilePath, routingArgs, 1);
+	}
+
+	/**
+	 * Constructs a program instance with routing options that override those of
+	 * the input file, loading land segment runoff on up to {@code nThreads}
+	 * threads
+	 *
+	 * @param inputFilePath
+	 *            path to SCALP input file
+	 * @param dssFilePath
+	 *            path to DSS input file
+	 * @param routingArgs
+	 *            routing options as {@code KEY=VALUE} arguments, see
+	 *            {@link RoutingOptions#parseArgs(String[], RoutingOptions)}
+	 * @param nThreads
+	 *            number of loading threads
+	 */
+	public SCALP(String inputFilePath, String dssFilePath, String[] routingArgs, int nThreads) {
+		this(inputFilePath, new DSS(dssFilePath), routingArgs, nThreads);
+	}
+
+	/**
+	 * Constructs a program instance that reads land segment runoff from a time
+	 * series store, with routing options that override those of the input file,
+	 * parsing special contributing area blocks and loading land segment runoff on
+	 * up to {@code nThreads} threads. Input is read
+	 * within a session on the store, which is closed when construction completes.
+	 *
+	 * @param inputFilePath
+	 *            path to SCALP input file
+	 * @param inputStore
+	 *            input time series store
+	 * @param routingArgs
+	 *            routing options as {@code KEY=VALUE} arguments, see
+	 *            {@link RoutingOptions#parseArgs(String[], RoutingOptions)}
+	 * @param nThreads
+	 *            number of loading threads
+	 */
+	public SCALP(String inputFilePath, TimeSeriesStore inputStore, String[] routingArgs, int nThreads) {
 
-		if (inputFilePath == null || dssFilePath == null)
+		if (inputFilePath == null || inputStore == null || routingArgs == null)
 			throw new NullPointerException();
 
-		SCALPTextInput inputFile;
-		DSS inputDSS = new DSS(dssFilePath);
+		if (nThreads < 1)
+			throw new IllegalArgumentException("Number of threads must be at least 1");
 
-		LOGGER.log(Level.INFO,
-				"Initializing SCALP with text input file " + inputFilePath + " and DSS file " + dssFilePath);
+		// input is read while the program is constructed, within one session on the
+		// input store
+		try (TimeSeriesStore store = inputStore.open()) {
 
-		try {
-			USER_LOG.logInput();
-			inputFile = new SCALPTextInput(inputFilePath, inputDSS);
-			USER_LOG.logInput(inputFile.scalpLines());
-		} catch (ParseException e) {
-			LOGGER.log(Level.SEVERE, "Unable to parse input file " + inputFilePath);
-			throw new RuntimeException("Unable to parse input file");
-		}
+			SCALPTextInput inputFile;
+
+			LOGGER.log(Level.INFO, "Initializing SCALP with text input file " + inputFilePath + " and input "
+					+ store.getName());
 
-		// watershed
-		USER_LOG.logWatershed();
-		WatershedInputBlock watershedBlock = inputFile.getWatershedBlock();
-		Watershed watershed = new Watershed(watershedBlock, inputDSS);
-		USER_LOG.logWatershed(watershed);
-
-		// sanitary
-		USER_LOG.logSanitary();
-		SanitaryInputBlock sanitaryBlock = inputFile.getSanitaryBlock();
-		Sanitary sanitary = new Sanitary(sanitaryBlock);
-
-		// special contributing areas
-		SCAInputBlock scaBlock;
-		int[] scaNumbers = inputFile.getScaNumbers();
-		specialContributingAreas = new SpecialContributingArea[scaNumbers.length];
-
-		for (int i = 0; i < scaNumbers.length; i++) {
-			USER_LOG.logSCA(scaNumbers[i]);
-			scaBlock = inputFile.getScaBlock(scaNumbers[i]);
 			try {
-				specialContributingAreas[i] = new SpecialContributingArea(scaBlock, watershed, sanitary);
-			} catch (RuntimeException e) {
-				String exceptionMessage = e.getMessage();
-				if (exceptionMessage == null) {
-					LOGGER.log(Level.SEVERE, "Failed to initialize SCA number " + scaNumbers[i]);
-					throw new RuntimeException("Failed to initialize SCA number " + scaNumbers[i]);
-				} else {
-					LOGGER.log(Level.SEVERE,
-							"Failed to initialize SCA number " + scaNumbers[i] + ": " + e.getMessage());
-					throw new RuntimeException(
-							"Failed to initialize SCA number " + scaNumbers[i] + ": " + e.getMessage());
+				USER_LOG.logInput();
+				inputFile = new SCALPTextInput(inputFilePath, store, nThreads);
+				USER_LOG.logInput(inputFile.scalpLines());
+			} catch (ParseException e) {
+				LOGGER.log(Level.SEVERE, "Unable to parse input file " + inputFilePath);
+				throw new RuntimeException("Unable to parse input file");
+			}
+
+			// watershed
+			USER_LOG.logWatershed();
+			WatershedInputBlock watershedBlock = inputFile.getWatershedBlock();
+			Watershed watershed = new Watershed(watershedBlock, store, nThreads);
+			USER_LOG.logWatershed(watershed);
+
+			// routing options from the input file, overridden by the command line
+			RoutingOptions routingOptions = watershedBlock.getRoutingOptions();
+			if (routingOptions == null)
+				routingOptions = new RoutingOptions();
+			routingOptions = RoutingOptions.parseArgs(routingArgs, routingOptions);
+			USER_LOG.logRouting(routingOptions);
+
+			// sanitary
+			USER_LOG.logSanitary();
+			SanitaryInputBlock sanitaryBlock = inputFile.getSanitaryBlock();
+			Sanitary sanitary = new Sanitary(sanitaryBlock);
+
+			// special contributing areas
+			SCAInputBlock scaBlock;
+			int[] scaNumbers = inputFile.getScaNumbers();
+			specialContributingAreas = new SpecialContributingArea[scaNumbers.length];
+
+			for (int i = 0; i < scaNumbers.length; i++) {
+				USER_LOG.logSCA(scaNumbers[i]);
+				scaBlock = inputFile.getScaBlock(scaNumbers[i]);
+				try {
+					specialContributingAreas[i] = new SpecialContributingArea(scaBlock, watershed, sanitary,
+							routingOptions);
+				} catch (RuntimeException e) {
+					String exceptionMessage = e.getMessage();
+					if (exceptionMessage == null) {
+						LOGGER.log(Level.SEVERE, "Failed to initialize SCA number " + scaNumbers[i]);
+						throw new RuntimeException("Failed to initialize SCA number " + scaNumbers[i]);
+					} else {
+						LOGGER.log(Level.SEVERE,
+								"Failed to initialize SCA number " + scaNumbers[i] + ": " + e.getMessage());
+						throw new RuntimeException(
+								"Failed to initialize SCA number " + scaNumbers[i] + ": " + e.getMessage());
+					}
 				}
 			}
+
+			// inflow is assembled in batches as SCAs are routed
+			if (InflowEngine.canAssemble(specialContributingAreas))
+				inflowEngine = new InflowEngine(specialContributingAreas, watershed);
 		}
 	}
 
@@ -96,36 +190,229 @@ public class SCALP {
 	 *            path to output DSS file
 	 */
 	public void runSCALP(String outputDSSPath) {
+		runSCALP(outputDSSPath, 1);
+	}
+
+	/**
+	 * Run the special contributing area loading program with SCAs routed in
+	 * parallel
+	 * <p>
+	 * SCAs are routed on a pool of {@code nThreads} worker threads, with at most
+	 * twice that many SCAs routed ahead of output. SCAs are routed sequentially
+	 * if {@code nThreads} is 1 or there is only one SCA. Either way, the inflow of
+	 * the SCAs is assembled in batches on up to {@code nThreads} threads as they
+	 * are routed, and each batch is released as its SCAs are routed. Output is
+	 * written to the DSS file and logged to the user log by the calling thread,
+	 * one SCA at a time in SCA order. The output DSS file is held open for the
+	 * whole run, and output is committed on a dedicated I/O thread while routing
+	 * continues.
+	 *
+	 * @param outputDSSPath
+	 *            path to output DSS file
+	 * @param nThreads
+	 *            number of routing threads
+	 */
+	public void runSCALP(String outputDSSPath, int nThreads) {
 
 		if (outputDSSPath == null)
 			throw new NullPointerException();
 
-		DSS outputDSSFile = new DSS(outputDSSPath);
+		runSCALP(new DSS(outputDSSPath), nThreads);
+	}
+
+	/**
+	 * Run the special contributing area loading program with output written to a
+	 * time series store, see {@link #runSCALP(String, int)}. The store is held in
+	 * a session for the whole run and closed when the run completes.
+	 *
+	 * @param outputStore
+	 *            output time series store
+	 * @param nThreads
+	 *            number of routing threads
+	 */
+	public void runSCALP(TimeSeriesStore outputStore, int nThreads) {
+
+		if (outputStore == null)
+			throw new NullPointerException();
+
+		if (nThreads < 1)
+			throw new IllegalArgumentException("Number of threads must be at least 1");
+
+		if (nThreads > 1 && specialContributingAreas.length > 1) {
+			runParallel(outputStore, Math.min(nThreads, specialContributingAreas.length));
+			return;
+		}
+
 		SCATimeSeriesOutput timeSeriesOutput;
+		int nSCAs = specialContributingAreas.length;
+
+		try (TimeSeriesStore store = outputStore.open();
+				TimeSeriesOutputWriter outputWriter = new TimeSeriesOutputWriter(store)) {
+			for (int i = 0; i < nSCAs; i++) {
+
+				SpecialContributingArea sca = specialContributingAreas[i];
+
+				// inflow of a batch of SCAs is assembled at once
+				if (i % ASSEMBLY_BATCH_SIZE == 0)
+					assembleInflow(i, Math.min(nSCAs, i + ASSEMBLY_BATCH_SIZE), nThreads);
+
+				// execution
+				try {
+					timeSeriesOutput = sca.getTimeSeriesOutput();
+				} catch (RuntimeException e) {
+					throw routingFailed(sca, outputWriter, e);
+				}
+
+				// writing output. the SCA's log section is added once the records are
+				// written
+				timeSeriesOutput.writeTimeSeries(outputWriter, failedPaths -> logSection(sca, failedPaths));
+			}
+		}
+	}
+
+	private void runParallel(TimeSeriesStore outputStore, int nThreads) {
+
+		LOGGER.log(Level.INFO, "Routing SCAs on " + nThreads + " threads");
+
+		ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+		ArrayDeque<Future<SCATimeSeriesOutput>> pending = new ArrayDeque<>();
+		int nSCAs = specialContributingAreas.length;
+		int nextSCA = 0;
+
+		try (TimeSeriesStore store = outputStore.open();
+				TimeSeriesOutputWriter outputWriter = new TimeSeriesOutputWriter(store)) {
+			for (SpecialContributingArea sca : specialContributingAreas) {
+
+				// keep a bounded number of SCAs routed ahead of output. SCAs are
+				// submitted in batches, with the inflow of each batch assembled at once
+				if (nextSCA < nSCAs && pending.size() <= nThreads) {
+					int batchEnd = Math.min(nSCAs, nextSCA + 2 * nThreads - pending.size());
+					assembleInflow(nextSCA, batchEnd, nThreads);
+					while (nextSCA < batchEnd) {
+						SpecialContributingArea next = specialContributingAreas[nextSCA++];
+						pending.add(executor.submit(next::getTimeSeriesOutput));
+					}
+				}
+
+				// execution
+				SCATimeSeriesOutput timeSeriesOutput;
+				try {
+					timeSeriesOutput = routedOutput(sca, pending.remove());
+				} catch (RuntimeException e) {
+					throw routingFailed(sca, outputWriter, e);
+				}
+
+				// writing output. the SCA's log section is added once the records are
+				// written
+				timeSeriesOutput.writeTimeSeries(outputWriter, failedPaths -> logSection(sca, failedPaths));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	// assembles the inflow of SCAs from to to - 1 on up to nThreads threads. the
+	// SCAs release their inflow once it is routed
+	private void assembleInflow(int from, int to, int nThreads) {
+
+		if (inflowEngine == null)
+			return;
 
-		for (SpecialContributingArea sca : specialContributingAreas) {
+		double[][][] inflow = inflowEngine.assemble(from, to, nThreads);
 
-			// execution
-			USER_LOG.logExecution(sca.getSCANumber());
-			timeSeriesOutput = sca.getTimeSeriesOutput();
+		for (int i = from; i < to; i++)
+			specialContributingAreas[i].setAssembledInflow(inflow[InflowEngine.INFILTRATION][i - from],
+					inflow[InflowEngine.STORM_WATER][i - from]);
+	}
+
+	// logs the section of an SCA once its output is written: its execution and
+	// its output paths. sections are logged in SCA order, as batches are completed
+	// in queue order. the run fails if any record failed to write
+	private static void logSection(SpecialContributingArea sca, List<String> failedPaths) {
 
-			// writing output
-			USER_LOG.logWritingOutput(sca.getSCANumber());
-			timeSeriesOutput.writeTimeSeries(outputDSSFile);
+		USER_LOG.logExecution(sca.getSCANumber());
+		USER_LOG.logWritingOutput(sca.getSCANumber());
+
+		if (failedPaths.isEmpty()) {
 			USER_LOG.logWritingOutput(sca);
+			return;
+		}
+
+		USER_LOG.logFailedOutput(failedPaths.toArray(new String[0]));
+
+		String message = String.format("Failed to write %d records of SCA number %d: %s", failedPaths.size(),
+				sca.getSCANumber(), String.join(", ", failedPaths));
+		LOGGER.log(Level.SEVERE, message);
+		throw new RuntimeException(message);
+	}
+
+	// logs the sections of the SCAs before an SCA that failed to route, then the
+	// execution of that SCA, and returns the routing exception
+	private static RuntimeException routingFailed(SpecialContributingArea sca, TimeSeriesOutputWriter outputWriter,
+			RuntimeException e) {
+
+		try {
+			outputWriter.flush();
+		} catch (RuntimeException flushException) {
+			e.addSuppressed(flushException);
 		}
+
+		USER_LOG.logExecution(sca.getSCANumber());
+
+		return e;
+	}
+
+	// waits for the routed output of an SCA
+	private static SCATimeSeriesOutput routedOutput(SpecialContributingArea sca, Future<SCATimeSeriesOutput> future) {
+
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			LOGGER.log(Level.SEVERE, "Failed to route SCA number " + sca.getSCANumber() + ": " + cause.getMessage());
+			throw new RuntimeException("Failed to route SCA number " + sca.getSCANumber() + ": " + cause.getMessage(),
+					cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOGGER.log(Level.SEVERE, "Interrupted while routing SCA number " + sca.getSCANumber());
+			throw new RuntimeException("Interrupted while routing SCA number " + sca.getSCANumber(), e);
+		}
+	}
+
+	// parses the number of routing threads. AUTO is the number of available
+	// processors.
+	private static int parseThreads(String value) {
+
+		if ("AUTO".equalsIgnoreCase(value))
+			return Runtime.getRuntime().availableProcessors();
+
+		try {
+			int nThreads = Integer.parseInt(value);
+			if (nThreads >= 1)
+				return nThreads;
+		} catch (NumberFormatException e) {
+			;
+		}
+
+		throw new IllegalArgumentException("Invalid number of threads: " + value);
 	}
 
 	/**
 	 * Special contributing area loading program entry point
+	 * <p>
+	 * The input text file, input DSS file, output DSS file, and user log file
+	 * paths are required. They may be followed by routing options of the form
+	 * {@code TIMESTEP=15} or {@code TOLERANCE=0.05}, and by {@code THREADS=8} or
+	 * {@code THREADS=AUTO} to load land segments and route SCAs in parallel.
 	 *
 	 * @param args
 	 *            command line arguments
 	 */
 	public static void main(String[] args) {
 
-		if (args.length != 4)
-			throw new ArrayIndexOutOfBoundsException("Incorrect number of args: expected 4, got " + args.length);
+		if (args.length < N_REQUIRED_ARGS)
+			throw new ArrayIndexOutOfBoundsException(
+					"Incorrect number of args: expected at least " + N_REQUIRED_ARGS + ", got " + args.length);
 
 		String inputFilePath = args[0];
 		String inDSSFilePath = args[1];
@@ -134,8 +421,19 @@ public class SCALP {
 
 		try {
 			USER_LOG.logArgs(args);
-			SCALP scalp = new SCALP(inputFilePath, inDSSFilePath);
-			scalp.runSCALP(outDSSFilePath);
+
+			// options following the required arguments
+			int nThreads = 1;
+			ArrayList<String> routingArgs = new ArrayList<>();
+			for (String arg : Arrays.copyOfRange(args, N_REQUIRED_ARGS, args.length)) {
+				if (arg.toUpperCase().startsWith("THREADS="))
+					nThreads = parseThreads(arg.substring("THREADS=".length()).trim());
+				else
+					routingArgs.add(arg);
+			}
+
+			SCALP scalp = new SCALP(inputFilePath, inDSSFilePath, routingArgs.toArray(new String[0]), nThreads);
+			scalp.runSCALP(outDSSFilePath, nThreads);
 			USER_LOG.logSuccess();
 		} catch (Exception e) {
 			USER_LOG.logError(e);
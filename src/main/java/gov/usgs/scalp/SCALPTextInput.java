@@ -1,8 +1,14 @@
 package gov.usgs.scalp;
 
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -18,68 +24,214 @@ public class SCALPTextInput {
 
 	private final static Logger LOGGER = Logger.getLogger("gov.usgs.scalp.SCALPTextInput");
 
+	// lines kept by a streamed input file. blocks only look ahead to the next line
+	private static final int BACKTRACK_LINES = 1;
+
 	/**
 	 * Construct SCALP text input
+	 * <p>
+	 * The text file is streamed while it is parsed.
 	 *
 	 * @param filePath
 	 *            path to SCALP text file
-	 * @param inputDSS
-	 *            SCALP DSS instance
+	 * @param inputStore
+	 *            SCALP input time series store
 	 * @throws ParseException
 	 *             when a parsing error is encountered
 	 */
-	public SCALPTextInput(String filePath, DSS inputDSS) throws ParseException {
+	public SCALPTextInput(String filePath, TimeSeriesStore inputStore) throws ParseException {
 
-		this(new InputFile(filePath), inputDSS);
+		this(filePath, inputStore, 1);
 
 	}
 
+	/**
+	 * Constructs SCALP text input, parsing special contributing area blocks on up
+	 * to {@code nThreads} threads
+	 * <p>
+	 * With one thread, the text file is streamed while it is parsed. Otherwise, the
+	 * file is read into memory and the special contributing area blocks are found
+	 * by their SCA, EXECUTE and FINISH lines, then parsed in parallel. Blocks are
+	 * kept in file order. The first duplicate number or parsing error in file
+	 * order is reported, and only the errors of that block are logged.
+	 *
+	 * @param filePath
+	 *            path to SCALP text file
+	 * @param inputStore
+	 *            SCALP input time series store
+	 * @param nThreads
+	 *            number of threads
+	 * @throws ParseException
+	 *             when a parsing error is encountered
+	 */
+	public SCALPTextInput(String filePath, TimeSeriesStore inputStore, int nThreads) throws ParseException {
+
+		if (filePath == null || inputStore == null)
+			throw new NullPointerException();
+
+		if (nThreads < 1)
+			throw new IllegalArgumentException("Number of threads must be at least 1");
+
+		if (nThreads == 1) {
+			try (InputFile streamedFile = new InputFile(filePath, BACKTRACK_LINES)) {
+				parse(streamedFile);
+			}
+			return;
+		}
+
+		inputFile = new InputFile(filePath);
+		watershedBlock = new WatershedInputBlock(inputFile);
+		sanitaryBlock = new SanitaryInputBlock(inputFile);
+
+		scaBlocks = new LinkedHashMap<>();
+		parseSCABlocks(inputFile, nThreads);
+	}
+
 	/**
 	 * Constructs SCALP text input
 	 *
 	 * @param inputFile
 	 *            SCALP input file
-	 * @param inputDSS
-	 *            SCALP DSS instance
+	 * @param inputStore
+	 *            SCALP input time series store
 	 * @throws ParseException
 	 *             when a parsing error is encountered
 	 */
-	public SCALPTextInput(InputFile inputFile, DSS inputDSS) throws ParseException {
+	public SCALPTextInput(InputFile inputFile, TimeSeriesStore inputStore) throws ParseException {
 
-		if (inputFile == null || inputDSS == null)
+		if (inputFile == null || inputStore == null)
 			throw new NullPointerException();
 
+		parse(inputFile);
+	}
+
+	// parse the blocks of an input file
+	private void parse(InputFile inputFile) throws ParseException {
+
 		this.inputFile = inputFile;
 		watershedBlock = new WatershedInputBlock(this.inputFile);
 		sanitaryBlock = new SanitaryInputBlock(this.inputFile);
 
-		boolean finishFile = false;
 		scaBlocks = new LinkedHashMap<>();
-		InputLine inputLine;
-		Object[] data;
-		SCAInputBlock scaBlock;
-		while (!finishFile) {
-			inputLine = this.inputFile.nextNonEmptyLine();
-			data = inputLine.parse("A9");
-			if ("FINISH".equals((String) data[0]))
-				finishFile = true;
-			else {
-				this.inputFile.setCurrentLineNo(inputLine.getLineNo());
-				scaBlock = new SCAInputBlock(this.inputFile);
-
-				int scaNumber = scaBlock.getSCANumber();
-
-				if (scaBlocks.containsKey(scaNumber)) {
-					LOGGER.log(Level.SEVERE,
-							String.format("Duplicate special contributing area number: %2d", scaNumber));
-					throw new RuntimeException("Duplicate special contributing area numbers encountered");
+		parseSCABlocks(this.inputFile);
+	}
+
+	// parse special contributing area blocks one after another, until the next
+	// line is FINISH
+	private void parseSCABlocks(InputFile inputFile) throws ParseException {
+
+		while (!inputFile.peekNonEmptyLine().matches("FINISH", 9))
+			addSCABlock(new SCAInputBlock(inputFile));
+
+		// FINISH
+		inputFile.nextNonEmptyLine();
+	}
+
+	// parse special contributing area blocks in parallel. blocks are parsed one
+	// after another if their boundaries aren't found. error messages of a block
+	// are only logged if it is the first block that fails to parse
+	private void parseSCABlocks(InputFile inputFile, int nThreads) throws ParseException {
+
+		InputLine[] lines = inputFile.getLines();
+		InputLine firstLine = inputFile.peekNonEmptyLine();
+		List<int[]> blockRanges = firstLine == null ? null : findSCABlocks(lines, firstLine.getLineNo() - 1);
+
+		int nWorkers = blockRanges == null ? 1 : Math.min(nThreads, blockRanges.size());
+
+		if (nWorkers <= 1) {
+			parseSCABlocks(inputFile);
+			return;
+		}
+
+		LOGGER.log(Level.INFO, "Parsing " + blockRanges.size() + " SCA blocks on " + nWorkers + " threads");
+
+		ExecutorService executor = Executors.newFixedThreadPool(nWorkers);
+		List<Future<SCAInputBlock>> blocks = new ArrayList<>();
+		List<List<String>> blockErrors = new ArrayList<>();
+
+		try {
+			for (int[] range : blockRanges) {
+				List<String> errors = new ArrayList<>();
+				blockErrors.add(errors);
+				blocks.add(executor.submit(() -> new SCAInputBlock(new InputFile(lines, range[0], range[1]), errors)));
+			}
+
+			for (int i = 0; i < blocks.size(); i++) {
+
+				SCAInputBlock scaBlock;
+
+				try {
+					scaBlock = blocks.get(i).get();
+				} catch (ExecutionException e) {
+
+					// blocks that are still queued aren't parsed
+					executor.shutdownNow();
+					SCAInputBlock.logErrors(blockErrors.get(i));
+
+					Throwable cause = e.getCause();
+					if (cause instanceof ParseException)
+						throw (ParseException) cause;
+					if (cause instanceof RuntimeException)
+						throw (RuntimeException) cause;
+					if (cause instanceof Error)
+						throw (Error) cause;
+					LOGGER.log(Level.SEVERE, "Unable to parse SCA block: " + cause.getMessage());
+					throw new RuntimeException("Unable to parse SCA block", cause);
 				}
 
-				scaBlocks.put(scaNumber, scaBlock);
+				addSCABlock(scaBlock);
 			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOGGER.log(Level.SEVERE, "Interrupted while parsing SCA blocks");
+			throw new RuntimeException("Interrupted while parsing SCA blocks", e);
+		} finally {
+			executor.shutdownNow();
 		}
 	}
 
+	// returns the index ranges of the special contributing area blocks from a line
+	// index to the FINISH line, or null if the block boundaries aren't found
+	private static List<int[]> findSCABlocks(InputLine[] lines, int from) {
+
+		List<int[]> blockRanges = new ArrayList<>();
+		int blockStart = -1;
+
+		for (int i = from; i < lines.length; i++) {
+
+			InputLine inputLine = lines[i];
+
+			if (inputLine.isComment() || inputLine.isEmpty())
+				continue;
+
+			if (blockStart < 0) {
+				if (inputLine.matches("FINISH", 9))
+					return blockRanges;
+				if (!inputLine.matches("SCA", 3))
+					return null;
+				blockStart = i;
+			} else if (inputLine.matches("EXECUTE", 7)) {
+				blockRanges.add(new int[] { blockStart, i + 1 });
+				blockStart = -1;
+			}
+		}
+
+		return null;
+	}
+
+	// add a special contributing area block, checking for duplicate numbers
+	private void addSCABlock(SCAInputBlock scaBlock) {
+
+		int scaNumber = scaBlock.getSCANumber();
+
+		if (scaBlocks.containsKey(scaNumber)) {
+			LOGGER.log(Level.SEVERE, String.format("Duplicate special contributing area number: %2d", scaNumber));
+			throw new RuntimeException("Duplicate special contributing area numbers encountered");
+		}
+
+		scaBlocks.put(scaNumber, scaBlock);
+	}
+
 	/**
 	 * Returns the input file lines as an array of strings
 	 *
@@ -89,14 +241,11 @@ public class SCALPTextInput {
 	 * @return input file lines
 	 */
 	public String[] inputFile() {
-		InputLine[] inputLines = inputFile.getLines();
-		String[] lines = new String[inputLines.length];
+		List<String> lines = new ArrayList<>();
 
-		int i = 0;
-		for (InputLine l : inputLines)
-			lines[i++] = l.getLine();
+		inputFile.forEachLine(l -> lines.add(l.getLine()));
 
-		return lines;
+		return lines.toArray(new String[0]);
 	}
 
 	/**
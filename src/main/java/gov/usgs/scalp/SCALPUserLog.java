@@ -46,7 +46,10 @@ public class SCALPUserLog {
 		log("*** Command line arguments ***");
 
 		for (int i = 0; i < args.length; i++) {
-			log(argsDescriptions[i] + ":", args[i]);
+			if (i < argsDescriptions.length)
+				log(argsDescriptions[i] + ":", args[i]);
+			else
+				log("Option:", args[i]);
 		}
 	}
 
@@ -128,6 +131,24 @@ public class SCALPUserLog {
 		}
 	}
 
+	/**
+	 * Logs the routing options
+	 *
+	 * @param routingOptions
+	 *            routing options
+	 */
+	public void logRouting(RoutingOptions routingOptions) {
+
+		if (routingOptions == null)
+			throw new NullPointerException();
+
+		if (routingOptions.isAdaptive())
+			log("*** Routing ***", "Adaptive time step, fine time step (minutes): " + routingOptions.getTimeStep(),
+					"Tolerance: " + routingOptions.getTolerance());
+		else
+			log("*** Routing ***", "Time step (minutes): " + routingOptions.getTimeStep());
+	}
+
 	/**
 	 * Logs the sanitary initialization header
 	 */
@@ -201,6 +222,21 @@ public class SCALPUserLog {
 		log("Sewer total output dss path:", stp_total);
 	}
 
+	/**
+	 * Logs the DSS output file paths that failed to write
+	 *
+	 * @param failedPaths
+	 *            output paths that failed to write
+	 */
+	public void logFailedOutput(String[] failedPaths) {
+
+		if (failedPaths == null)
+			throw new NullPointerException();
+
+		for (String failedPath : failedPaths)
+			log("Failed to write output dss path:", failedPath);
+	}
+
 	/**
 	 * Logs the success message
 	 */
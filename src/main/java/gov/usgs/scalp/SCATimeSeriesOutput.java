@@ -1,5 +1,7 @@
 package gov.usgs.scalp;
 
+import java.util.List;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -39,28 +41,78 @@ public class SCATimeSeriesOutput {
 	}
 
 	/**
-	 * Writes time series output to a DSS file
+	 * Writes time series output to a time series store
+	 * <p>
+	 * Throws an exception with the paths of the records that failed to write.
 	 *
-	 * @param dssFile
-	 *            output DSS file
+	 * @param store
+	 *            output time series store
 	 */
-	public void writeTimeSeries(DSS dssFile) {
+	public void writeTimeSeries(TimeSeriesStore store) {
 
-		if (dssFile == null)
+		if (store == null)
 			throw new NullPointerException();
 
-		LOGGER.log(Level.INFO, "Writing output of SCA number " + scaNumber + " to DSS file " + dssFile.getFilePath());
+		LOGGER.log(Level.INFO, "Writing output of SCA number " + scaNumber + " to " + store.getName());
 
-		FlowTimeSeries sewerFlow = routedTimeSeries[0];
-		dssFile.writeTimeSeries(sewerPaths.getTotal(), sewerFlow.getTotalFlow());
-		dssFile.writeTimeSeries(sewerPaths.getInfiltration(), sewerFlow.getInfiltration());
-		dssFile.writeTimeSeries(sewerPaths.getInflow(), sewerFlow.getStormWater());
-		dssFile.writeTimeSeries(sewerPaths.getSanitary(), sewerFlow.getSanitary());
+		String[] failedPaths = store.writeTimeSeries(getPathnames(), getTimeSeries());
+
+		if (failedPaths.length > 0) {
+			String message = String.format("Failed to write %d records of SCA number %d: %s", failedPaths.length,
+					scaNumber, String.join(", ", failedPaths));
+			LOGGER.log(Level.SEVERE, message);
+			throw new RuntimeException(message);
+		}
+	}
+
+	/**
+	 * Queues time series output on an output writer. Records are written
+	 * asynchronously, and write failures are reported when the writer is flushed
+	 * or closed.
+	 *
+	 * @param writer
+	 *            output writer
+	 */
+	public void writeTimeSeries(TimeSeriesOutputWriter writer) {
+		writeTimeSeries(writer, null);
+	}
 
+	/**
+	 * Queues time series output on an output writer, with a callback that is run
+	 * by the writer once the records are written. The callback is passed the
+	 * paths of records that failed to write, if any.
+	 *
+	 * @param writer
+	 *            output writer
+	 * @param onWritten
+	 *            callback run with the paths of failed records after the records
+	 *            are written, or null
+	 */
+	public void writeTimeSeries(TimeSeriesOutputWriter writer, Consumer<List<String>> onWritten) {
+
+		if (writer == null)
+			throw new NullPointerException();
+
+		LOGGER.log(Level.INFO, "Queueing output of SCA number " + scaNumber);
+
+		writer.write(getPathnames(), getTimeSeries(), onWritten);
+	}
+
+	// output DSS paths, in the order of getTimeSeries()
+	private String[] getPathnames() {
+		return new String[] { sewerPaths.getTotal(), sewerPaths.getInfiltration(), sewerPaths.getInflow(),
+				sewerPaths.getSanitary(), overflowPaths.getTotal(), overflowPaths.getInfiltration(),
+				overflowPaths.getInflow(), overflowPaths.getSanitary() };
+	}
+
+	// output time series, in the order of getPathnames()
+	private TimeSeries[] getTimeSeries() {
+
+		FlowTimeSeries sewerFlow = routedTimeSeries[0];
 		FlowTimeSeries overflow = routedTimeSeries[1];
-		dssFile.writeTimeSeries(overflowPaths.getTotal(), overflow.getTotalFlow());
-		dssFile.writeTimeSeries(overflowPaths.getInfiltration(), overflow.getInfiltration());
-		dssFile.writeTimeSeries(overflowPaths.getInflow(), overflow.getStormWater());
-		dssFile.writeTimeSeries(overflowPaths.getSanitary(), overflow.getSanitary());
+
+		return new TimeSeries[] { sewerFlow.getTotalFlow(), sewerFlow.getInfiltration(), sewerFlow.getStormWater(),
+				sewerFlow.getSanitary(), overflow.getTotalFlow(), overflow.getInfiltration(), overflow.getStormWater(),
+				overflow.getSanitary() };
 	}
 }
@@ -2,13 +2,21 @@ package gov.usgs.scalp;
 
 /**
  * Sanitary flow set
+ * <p>
+ * Flow per person is precomputed for every month, day of week, and hour of day
+ * on construction, so lookups are a single table read.
  */
 public class SanitaryFlowSet {
 
-	private final double populationFactor;
-	private final double[] monthlyFlowFactors;
-	private final double[] weekdayFlowFactors;
-	private final double[] hourlyFlowFactors;
+	private static final int N_MONTHS = 12;
+	private static final int N_WEEKDAYS = 7;
+	private static final int N_HOURS = 24;
+
+	private static final long MINUTES_IN_AN_HOUR = 60;
+	private static final long MINUTES_IN_A_DAY = 1440;
+
+	// flow per person indexed by month, day of week, and hour of day
+	private final double[] flowPerPerson;
 
 	/**
 	 * Constructs a sanitary flow set from SNA info
@@ -17,10 +25,32 @@ public class SanitaryFlowSet {
 	 *            sanitary flow set initialization information
 	 */
 	public SanitaryFlowSet(SNAInfo snaInfo) {
-		populationFactor = snaInfo.getPopulationFactor();
-		monthlyFlowFactors = snaInfo.getMonthlyFlowFactors();
-		weekdayFlowFactors = snaInfo.getWeekdayFlowFactors();
-		hourlyFlowFactors = snaInfo.getHourlyFlowFactors();
+		double populationFactor = snaInfo.getPopulationFactor();
+		double[] monthlyFlowFactors = snaInfo.getMonthlyFlowFactors();
+		double[] weekdayFlowFactors = snaInfo.getWeekdayFlowFactors();
+		double[] hourlyFlowFactors = snaInfo.getHourlyFlowFactors();
+
+		flowPerPerson = new double[N_MONTHS * N_WEEKDAYS * N_HOURS];
+
+		// factors are multiplied in the same order as the per-time computation they
+		// replace
+		for (int month = 1; month <= N_MONTHS; month++) {
+			for (int dayOfWeek = 1; dayOfWeek <= N_WEEKDAYS; dayOfWeek++) {
+				for (int hour = 1; hour <= N_HOURS; hour++) {
+					flowPerPerson[index(month, dayOfWeek, hour)] = hourlyFlowFactors[hour - 1]
+							* weekdayFlowFactors[dayOfWeek - 1] * monthlyFlowFactors[month - 1] * populationFactor;
+				}
+			}
+		}
+	}
+
+	private static int index(int month, int dayOfWeek, int hour) {
+		return ((month - 1) * N_WEEKDAYS + (dayOfWeek - 1)) * N_HOURS + (hour - 1);
+	}
+
+	private static void checkHour(int hour) {
+		if (hour < 1)
+			throw new IllegalArgumentException("Sanitary flow is not defined before the end of the first hour of a day");
 	}
 
 	/**
@@ -32,19 +62,56 @@ public class SanitaryFlowSet {
 	 */
 	public double sanitaryFlowPerPerson(DateTime dateTime) {
 
-		int month = dateTime.getMonth();
+		int hour = dateTime.getHourOfDay();
 
-		int dayOfWeek = dateTime.getDayOfWeek();
+		checkHour(hour);
 
-		int hour = dateTime.getHourOfDay();
+		return flowPerPerson[index(dateTime.getMonth(), dateTime.getDayOfWeek(), hour)];
+	}
+
+	/**
+	 * Fills {@code flow} with the sanitary flow per person at regular times
+	 * beginning at {@code startTime}. Calendar fields are computed once per day.
+	 *
+	 * @param startTime
+	 *            time of the first flow observation
+	 * @param timeStep
+	 *            time step, in minutes
+	 * @param flow
+	 *            sanitary flow per person output
+	 */
+	public void sanitaryFlowPerPerson(DateTime startTime, int timeStep, double[] flow) {
+
+		if (startTime == null || flow == null)
+			throw new NullPointerException();
+
+		if (timeStep <= 0)
+			throw new IllegalArgumentException("Time step must be positive");
+
+		long startMinutes = startTime.getTimeInMinutes();
+
+		// midnight is hour 24 of the previous day, as in DateTime
+		long day = Long.MIN_VALUE;
+		int dayOffset = 0;
+
+		for (int i = 0; i < flow.length; i++) {
+
+			long minutes = startMinutes + i * (long) timeStep;
+			long minuteOfDay = Math.floorMod(minutes, MINUTES_IN_A_DAY);
+			long epochDay = Math.floorDiv(minutes - 1, MINUTES_IN_A_DAY);
+
+			if (epochDay != day) {
+				DateTime dateTime = DateTime.fromTimeInMinutes(minutes);
+				day = epochDay;
+				dayOffset = index(dateTime.getMonth(), dateTime.getDayOfWeek(), 1);
+			}
 
-		double monthFlowFactor = monthlyFlowFactors[month - 1];
-		double weekdayFlowFactor = weekdayFlowFactors[dayOfWeek - 1];
-		double hourlyFlowFactor = hourlyFlowFactors[hour - 1];
+			int hour = minuteOfDay == 0 ? N_HOURS : (int) (minuteOfDay / MINUTES_IN_AN_HOUR);
 
-		double sanitaryFlowPer = hourlyFlowFactor * weekdayFlowFactor * monthFlowFactor * populationFactor;
+			checkHour(hour);
 
-		return sanitaryFlowPer;
+			flow[i] = flowPerPerson[dayOffset + hour - 1];
+		}
 	}
 
 }
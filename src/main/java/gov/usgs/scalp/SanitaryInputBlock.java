@@ -33,22 +33,22 @@ public class SanitaryInputBlock {
 			throw new NullPointerException();
 
 		InputLine inputLine;
-		Object[] data;
+		InputFields data;
 		String errorString = "Error parsing SANITARY input block";
 		String unexpectedLogLine = "Unexpected line: %s, line number %d";
 
 		inputLine = inputFile.nextNonEmptyLine();
-		data = inputLine.parse("A8");
-		if (!"SANITARY".equals((String) data[0])) {
+		data = inputLine.decode("A8");
+		if (!"SANITARY".equals(data.getString(0))) {
 			LOGGER.log(Level.SEVERE, String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
 			throw new ParseException(errorString, inputLine.getLineNo());
 		}
 
 		SanitaryFlowSetInfo infoSet;
-		boolean endReached = false;
 
+		// info sets are read until the next line is the end of the sanitary block
 		infoSets = new LinkedHashMap<>();
-		while (!endReached) {
+		do {
 
 			infoSet = new SanitaryFlowSetInfo(inputFile);
 
@@ -59,15 +59,10 @@ public class SanitaryInputBlock {
 
 			infoSets.put(infoSet.setNumber, infoSet);
 
-			// if this is the end of the sanitary block, the line will contain END,
-			// otherwise, it will parse as SNA.
-			inputLine = inputFile.nextNonEmptyLine();
-			data = inputLine.parse("A3");
-			if ("END".equals((String) data[0]))
-				endReached = true;
-			else
-				inputFile.setCurrentLineNo(inputLine.getLineNo());
-		}
+		} while (!inputFile.peekNonEmptyLine().matches("END", 3));
+
+		// END
+		inputFile.nextNonEmptyLine();
 	}
 
 	private class SanitaryFlowSetInfo {
@@ -79,23 +74,23 @@ public class SanitaryInputBlock {
 
 		public SanitaryFlowSetInfo(InputFile inputFile) throws ParseException {
 			InputLine inputLine;
-			Object[] data;
+			InputFields data;
 			String errorString = "Error parsing sanitary flow info set";
 			String unexpectedLogLine = "Unexpected line: %s, line number %d";
 
 			// block number
 			inputLine = inputFile.nextNonEmptyLine();
-			data = inputLine.parse("A3,13X,I8");
-			if (!"SNA".equals((String) data[0])) {
+			data = inputLine.decode("A3,13X,I8");
+			if (!"SNA".equals(data.getString(0))) {
 				LOGGER.log(Level.SEVERE, String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
 				throw new ParseException(errorString, inputLine.getLineNo());
 			}
-			setNumber = (int) data[1];
+			setNumber = data.getInt(1);
 
 			// sanitary flow per person
 			inputLine = inputFile.nextNonEmptyLine();
-			data = inputLine.parse("16X,E20");
-			populationFactor = (double) data[0];
+			data = inputLine.decode("16X,E20");
+			populationFactor = data.getDouble(0);
 
 			if (populationFactor < 0) {
 				LOGGER.log(Level.SEVERE,
@@ -107,16 +102,16 @@ public class SanitaryInputBlock {
 
 			// monthly flow factors for Jan-June
 			inputLine = inputFile.nextNonEmptyLine();
-			data = inputLine.parse("16X,6F8");
+			data = inputLine.decode("16X,6F8");
 			for (int i = 0; i < 6; i++) {
-				monthlyFlowFactors[i] = (double) data[i];
+				monthlyFlowFactors[i] = data.getDouble(i);
 			}
 
 			// monthly flow factors for July-Dec
 			inputLine = inputFile.nextNonEmptyLine();
-			data = inputLine.parse("16X,6F8");
+			data = inputLine.decode("16X,6F8");
 			for (int i = 0; i < 6; i++) {
-				monthlyFlowFactors[i + 6] = (double) data[i];
+				monthlyFlowFactors[i + 6] = data.getDouble(i);
 			}
 
 			for (int i = 0; i < monthlyFlowFactors.length; i++) {
@@ -130,9 +125,9 @@ public class SanitaryInputBlock {
 			// weekday flow factors
 			weekdayFlowFactors = new double[7];
 			inputLine = inputFile.nextNonEmptyLine();
-			data = inputLine.parse("16X,7F8");
+			data = inputLine.decode("16X,7F8");
 			for (int i = 0; i < 7; i++) {
-				weekdayFlowFactors[i] = (double) data[i];
+				weekdayFlowFactors[i] = data.getDouble(i);
 				if (weekdayFlowFactors[i] < 0) {
 					LOGGER.log(Level.SEVERE, "Negative weekday flow factor encountered in sanitary info set number %d",
 							setNumber);
@@ -145,27 +140,27 @@ public class SanitaryInputBlock {
 
 			// 1 am to 6 am
 			inputLine = inputFile.nextNonEmptyLine();
-			data = inputLine.parse("16X,6F8");
+			data = inputLine.decode("16X,6F8");
 			for (int i = 0; i < 6; i++)
-				hourlyFlowFactors[i] = (double) data[i];
+				hourlyFlowFactors[i] = data.getDouble(i);
 
 			// 7 am to 12 pm
 			inputLine = inputFile.nextNonEmptyLine();
-			data = inputLine.parse("16X,6F8");
+			data = inputLine.decode("16X,6F8");
 			for (int i = 0; i < 6; i++)
-				hourlyFlowFactors[i + 6] = (double) data[i];
+				hourlyFlowFactors[i + 6] = data.getDouble(i);
 
 			// 1 pm to 6 pm
 			inputLine = inputFile.nextNonEmptyLine();
-			data = inputLine.parse("16X,6F8");
+			data = inputLine.decode("16X,6F8");
 			for (int i = 0; i < 6; i++)
-				hourlyFlowFactors[i + 12] = (double) data[i];
+				hourlyFlowFactors[i + 12] = data.getDouble(i);
 
 			// 7 pm to 12 am
 			inputLine = inputFile.nextNonEmptyLine();
-			data = inputLine.parse("16X,6F8");
+			data = inputLine.decode("16X,6F8");
 			for (int i = 0; i < 6; i++)
-				hourlyFlowFactors[i + 18] = (double) data[i];
+				hourlyFlowFactors[i + 18] = data.getDouble(i);
 
 			for (double f : hourlyFlowFactors) {
 				if (f < 0) {
@@ -0,0 +1,288 @@
+package gov.usgs.scalp;
+
+import static gov.usgs.scalp.SingleLinearReservoir.INFILTRATION;
+import static gov.usgs.scalp.SingleLinearReservoir.SANITARY;
+import static gov.usgs.scalp.SingleLinearReservoir.STORM_WATER;
+
+import java.util.Arrays;
+
+/**
+ * Lateral, sub main, and main sewer cascade of a special contributing area
+ * <p>
+ * Flows are routed through the three sewer reservoirs in a single pass over
+ * primitive arrays. Flow arrays are indexed first by constituent
+ * ({@link SingleLinearReservoir#INFILTRATION},
+ * {@link SingleLinearReservoir#SANITARY}, and
+ * {@link SingleLinearReservoir#STORM_WATER}) and then by time step.
+ */
+class SewerCascade {
+
+	private final SingleLinearReservoir lateralReservoir;
+	private final SingleLinearReservoir subMainReservoir;
+	private final SingleLinearReservoir mainReservoir;
+
+	// reservoir step outputs, reused for every time step
+	private final double[] lateralSewer = new double[3];
+	private final double[] lateralOverflow = new double[3];
+	private final double[] subMainSewer = new double[3];
+	private final double[] subMainOverflow = new double[3];
+	private final double[] mainSewer = new double[3];
+	private final double[] mainOverflow = new double[3];
+
+	// outflow limits of the three sewers at the last step, see
+	// SingleLinearReservoir.getLimits()
+	private int stepLimits;
+
+	/**
+	 * Constructs a sewer cascade
+	 *
+	 * @param reservoirInfo
+	 *            lateral, sub main, and main sewer reservoir information
+	 */
+	SewerCascade(ReservoirInfo[] reservoirInfo) {
+		this(reservoirInfo, new EulerIntegrator());
+	}
+
+	/**
+	 * Constructs a sewer cascade with reservoirs routed by an integrator
+	 *
+	 * @param reservoirInfo
+	 *            lateral, sub main, and main sewer reservoir information
+	 * @param integrator
+	 *            reservoir ODE integrator, shared by the reservoirs
+	 */
+	SewerCascade(ReservoirInfo[] reservoirInfo, Integrator integrator) {
+
+		if (reservoirInfo == null || integrator == null)
+			throw new NullPointerException();
+
+		if (reservoirInfo.length != 3)
+			throw new IllegalArgumentException("Reservoir information is required for 3 sewers");
+
+		lateralReservoir = new SingleLinearReservoir(reservoirInfo[0], integrator);
+		subMainReservoir = new SingleLinearReservoir(reservoirInfo[1], integrator);
+		mainReservoir = new SingleLinearReservoir(reservoirInfo[2], integrator);
+	}
+
+	/**
+	 * Routes inflow through the cascade. Main sewer flow is written to
+	 * {@code sewer} and the sum of the overflows of all three sewers is written to
+	 * {@code overflow}.
+	 *
+	 * @param inflow
+	 *            inflow into the lateral sewer
+	 * @param deltaT
+	 *            time step, in seconds
+	 * @param sewer
+	 *            main sewer flow output
+	 * @param overflow
+	 *            overflow output
+	 */
+	void route(double[][] inflow, double deltaT, double[][] sewer, double[][] overflow) {
+
+		if (inflow == null || sewer == null || overflow == null)
+			throw new NullPointerException();
+
+		double[] infiltration = inflow[INFILTRATION];
+		double[] sanitary = inflow[SANITARY];
+		double[] stormWater = inflow[STORM_WATER];
+
+		int nTimes = infiltration.length;
+
+		if (sanitary.length != nTimes || stormWater.length != nTimes)
+			throw new IllegalArgumentException("Inflow constituents must have equal lengths");
+
+		double[] sewerInfiltration = sewer[INFILTRATION];
+		double[] sewerSanitary = sewer[SANITARY];
+		double[] sewerStormWater = sewer[STORM_WATER];
+
+		double[] overflowInfiltration = overflow[INFILTRATION];
+		double[] overflowSanitary = overflow[SANITARY];
+		double[] overflowStormWater = overflow[STORM_WATER];
+
+		for (int i = 0; i < nTimes; i++) {
+
+			step(infiltration[i], sanitary[i], stormWater[i], deltaT);
+
+			sewerInfiltration[i] = mainSewer[INFILTRATION];
+			sewerSanitary[i] = mainSewer[SANITARY];
+			sewerStormWater[i] = mainSewer[STORM_WATER];
+
+			overflowInfiltration[i] = overflow(INFILTRATION);
+			overflowSanitary[i] = overflow(SANITARY);
+			overflowStormWater[i] = overflow(STORM_WATER);
+		}
+	}
+
+	/**
+	 * Routes instantaneous inflow from a cursor through the cascade. Main sewer
+	 * flow and the sum of the overflows of all three sewers at each time step of
+	 * the cursor are added to the {@code sewer} and {@code overflow} averagers.
+	 *
+	 * @param inflow
+	 *            inflow into the lateral sewer
+	 * @param deltaT
+	 *            time step, in seconds
+	 * @param sewer
+	 *            main sewer flow averager
+	 * @param overflow
+	 *            overflow averager
+	 */
+	void route(InstFlowCursor inflow, double deltaT, HourlyFlowAverager sewer, HourlyFlowAverager overflow) {
+
+		if (inflow == null || sewer == null || overflow == null)
+			throw new NullPointerException();
+
+		while (inflow.next()) {
+
+			step(inflow.infiltration(), inflow.sanitary(), inflow.stormWater(), deltaT);
+
+			long time = inflow.time();
+			sewer.add(time, mainSewer[INFILTRATION], mainSewer[SANITARY], mainSewer[STORM_WATER]);
+			overflow.add(time, overflow(INFILTRATION), overflow(SANITARY), overflow(STORM_WATER));
+		}
+	}
+
+	/**
+	 * Routes hourly inflow through the cascade adaptively and writes hourly
+	 * averaged main sewer flow and overflow. Inflow is constant over each hour.
+	 * <p>
+	 * Each hour is routed at {@code coarseTimeStep}. If the maximum, stored, or
+	 * split flow limit of any reservoir starts or stops limiting its outflow
+	 * during the hour, or since the end of the previous hour, the hour is routed
+	 * again from its initial state at {@code fineTimeStep}. Hours that stay above
+	 * or below every threshold are routed at the coarse time step. The averages
+	 * are of the flows at the end of each time step in the hour.
+	 *
+	 * @param inflow
+	 *            hourly inflow into the lateral sewer
+	 * @param coarseTimeStep
+	 *            coarse time step, in minutes
+	 * @param fineTimeStep
+	 *            fine time step, in minutes
+	 * @param sewer
+	 *            hourly averaged main sewer flow output
+	 * @param overflow
+	 *            hourly averaged overflow output
+	 * @return number of hours routed at the fine time step
+	 */
+	int routeHourly(double[][] inflow, int coarseTimeStep, int fineTimeStep, double[][] sewer, double[][] overflow) {
+
+		if (inflow == null || sewer == null || overflow == null)
+			throw new NullPointerException();
+
+		if (fineTimeStep <= 0 || coarseTimeStep % fineTimeStep != 0 || 60 % coarseTimeStep != 0)
+			throw new IllegalArgumentException("Time steps must divide 60 minutes evenly");
+
+		int nHours = inflow[INFILTRATION].length;
+
+		if (inflow[SANITARY].length != nHours || inflow[STORM_WATER].length != nHours)
+			throw new IllegalArgumentException("Inflow constituents must have equal lengths");
+
+		double[] state = new double[18];
+		double[] sums = new double[6];
+		int nFineHours = 0;
+
+		// outflow limits at the end of the previous hour, unknown before the first
+		int limits = -1;
+
+		for (int hour = 0; hour < nHours; hour++) {
+
+			double infiltration = inflow[INFILTRATION][hour];
+			double sanitary = inflow[SANITARY][hour];
+			double stormWater = inflow[STORM_WATER][hour];
+
+			int timeStep = coarseTimeStep;
+
+			if (coarseTimeStep > fineTimeStep) {
+				saveState(state);
+				if (routeHour(infiltration, sanitary, stormWater, coarseTimeStep, limits, sums)) {
+					restoreState(state);
+					timeStep = fineTimeStep;
+				}
+			}
+
+			if (timeStep == fineTimeStep) {
+				routeHour(infiltration, sanitary, stormWater, fineTimeStep, limits, sums);
+				if (coarseTimeStep > fineTimeStep)
+					nFineHours++;
+			}
+
+			limits = stepLimits;
+
+			int nSteps = 60 / timeStep;
+			for (int c = 0; c < 3; c++) {
+				sewer[c][hour] = sums[c] / nSteps;
+				overflow[c][hour] = sums[c + 3] / nSteps;
+			}
+		}
+
+		return nFineHours;
+	}
+
+	// routes one hour of constant inflow and sums main sewer flow and overflow.
+	// returns true if the outflow limits changed at any step, starting from the
+	// limits at the end of the previous hour, or -1 if they're unknown
+	private boolean routeHour(double infiltration, double sanitary, double stormWater, int timeStep,
+			int previousLimits, double[] sums) {
+
+		double deltaT = timeStep * 60.0;
+		int nSteps = 60 / timeStep;
+		int limits = previousLimits;
+		boolean changed = false;
+
+		Arrays.fill(sums, 0);
+
+		for (int i = 0; i < nSteps; i++) {
+
+			step(infiltration, sanitary, stormWater, deltaT);
+
+			changed |= limits >= 0 && stepLimits != limits;
+			limits = stepLimits;
+
+			sums[INFILTRATION] += mainSewer[INFILTRATION];
+			sums[SANITARY] += mainSewer[SANITARY];
+			sums[STORM_WATER] += mainSewer[STORM_WATER];
+			sums[3 + INFILTRATION] += overflow(INFILTRATION);
+			sums[3 + SANITARY] += overflow(SANITARY);
+			sums[3 + STORM_WATER] += overflow(STORM_WATER);
+		}
+
+		return changed;
+	}
+
+	// routes one time step through all three sewers and sets the outflow limits
+	// of the step
+	private void step(double infiltration, double sanitary, double stormWater, double deltaT) {
+
+		lateralReservoir.step(infiltration, sanitary, stormWater, deltaT, lateralSewer, lateralOverflow);
+
+		subMainReservoir.step(lateralSewer[INFILTRATION], lateralSewer[SANITARY], lateralSewer[STORM_WATER], deltaT,
+				subMainSewer, subMainOverflow);
+
+		mainReservoir.step(subMainSewer[INFILTRATION], subMainSewer[SANITARY], subMainSewer[STORM_WATER], deltaT,
+				mainSewer, mainOverflow);
+
+		stepLimits = lateralReservoir.getLimits() | subMainReservoir.getLimits() << 3
+				| mainReservoir.getLimits() << 6;
+	}
+
+	// overflow of a constituent at the last step. overflows are summed onto zero in
+	// the order of the FlowValue summation they replace, which also normalizes -0.0
+	private double overflow(int constituent) {
+		return 0.0 + (lateralOverflow[constituent] + (subMainOverflow[constituent] + mainOverflow[constituent]));
+	}
+
+	private void saveState(double[] state) {
+		lateralReservoir.saveState(state, 0);
+		subMainReservoir.saveState(state, 6);
+		mainReservoir.saveState(state, 12);
+	}
+
+	private void restoreState(double[] state) {
+		lateralReservoir.restoreState(state, 0);
+		subMainReservoir.restoreState(state, 6);
+		mainReservoir.restoreState(state, 12);
+	}
+
+}
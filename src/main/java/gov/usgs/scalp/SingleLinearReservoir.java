@@ -4,16 +4,60 @@ import java.lang.Math;
 
 /**
  * Single linear reservoir
+ * <p>
+ * Reservoir outflow and storage are kept per constituent as primitive state.
+ * {@link #step(double, double, double, double, double[], double[])} routes a
+ * time step without allocating; {@link #step(FlowValue, double)} is an adapter
+ * for callers that work with flow values.
  */
 public class SingleLinearReservoir {
 
+	/**
+	 * Index of infiltration flow in step output arrays
+	 */
+	public static final int INFILTRATION = 0;
+
+	/**
+	 * Index of sanitary flow in step output arrays
+	 */
+	public static final int SANITARY = 1;
+
+	/**
+	 * Index of storm water flow in step output arrays
+	 */
+	public static final int STORM_WATER = 2;
+
+	/**
+	 * Outflow limit flag set when routed flow exceeds the maximum flow
+	 */
+	static final int MAX_FLOW_LIMIT = 1;
+
+	/**
+	 * Outflow limit flag set when stored flow is released
+	 */
+	static final int STORAGE_LIMIT = 2;
+
+	/**
+	 * Outflow limit flag set when outflow exceeds the split flow
+	 */
+	static final int SPLIT_LIMIT = 4;
+
 	private double K;
 	private double splitQ;
 	private double maxQ;
 
-	private FlowValue outflow;
+	// outflow at the previous time step
+	private double outflowInfiltration;
+	private double outflowSanitary;
+	private double outflowStormWater;
+
+	// storage volume
+	private double storageInfiltration;
+	private double storageSanitary;
+	private double storageStormWater;
 
-	private StorageValue storage;
+	// limits on the outflow of the last step, see getLimits()
+	private int limits = 0;
 
 	private SingleLinearReservoirODE ode;
 	private Integrator integrator;
@@ -36,8 +80,22 @@ public class SingleLinearReservoir {
 	 *            reservoir initialization information
 	 */
 	public SingleLinearReservoir(ReservoirInfo reservoirInfo) {
+		this(reservoirInfo, new EulerIntegrator());
+	}
 
-		if (reservoirInfo == null)
+	/**
+	 * Constructs a single linear reservoir from reservoir info that is routed with
+	 * an integrator. Reservoirs with a storage coefficient of 0 pass inflow through
+	 * regardless of the integrator.
+	 *
+	 * @param reservoirInfo
+	 *            reservoir initialization information
+	 * @param integrator
+	 *            reservoir ODE integrator
+	 */
+	public SingleLinearReservoir(ReservoirInfo reservoirInfo, Integrator integrator) {
+
+		if (reservoirInfo == null || integrator == null)
 			throw new NullPointerException();
 
 		// check validity of values from reservoir info
@@ -62,18 +120,20 @@ public class SingleLinearReservoir {
 			throw new IllegalArgumentException();
 
 		// initialize values for this instance
-		storage = new StorageValue();
 		ode = new SingleLinearReservoirODE(K);
-		outflow = new FlowValue(initialFlow / 3, initialFlow / 3, initialFlow / 3); // split initial flows evenly
+		// split initial flows evenly
+		outflowInfiltration = initialFlow / 3;
+		outflowSanitary = initialFlow / 3;
+		outflowStormWater = initialFlow / 3;
 		this.K = K;
 		this.splitQ = splitQ;
 		this.maxQ = maxQ;
 		this.stopStore = reservoirInfo.getStopStore();
 
 		if (K == 0)
-			integrator = new PassThroughIntegrator();
+			this.integrator = new PassThroughIntegrator();
 		else
-			integrator = new EulerIntegrator();
+			this.integrator = integrator;
 	}
 
 	/**
@@ -104,34 +164,46 @@ public class SingleLinearReservoir {
 	 */
 	public SingleLinearReservoir(double storageCoefficient, FlowValue initialOutflow, double splitDischarge,
 			double maxDischarge) {
+		this(storageCoefficient, initialOutflow, splitDischarge, maxDischarge, new EulerIntegrator());
+	}
+
+	/**
+	 * Constructs a single linear reservoir that is routed with an integrator and
+	 * specifies split and maximum discharge values. Reservoirs with a storage
+	 * coefficient of 0 pass inflow through regardless of the integrator.
+	 *
+	 * @param storageCoefficient
+	 *            storage coefficient of this reservoir, in seconds
+	 * @param initialOutflow
+	 *            initial outflow of this reservoir
+	 * @param splitDischarge
+	 *            split discharge value
+	 * @param maxDischarge
+	 *            maximum discharge
+	 * @param integrator
+	 *            reservoir ODE integrator
+	 */
+	public SingleLinearReservoir(double storageCoefficient, FlowValue initialOutflow, double splitDischarge,
+			double maxDischarge, Integrator integrator) {
 
 		if (K < 0 || splitDischarge < 0 || maxDischarge < 0)
 			throw new IllegalArgumentException();
 
-		if (initialOutflow == null)
+		if (initialOutflow == null || integrator == null)
 			throw new NullPointerException();
 
 		K = storageCoefficient;
-		outflow = initialOutflow;
-		storage = new StorageValue();
+		outflowInfiltration = initialOutflow.getInfiltration();
+		outflowSanitary = initialOutflow.getSanitary();
+		outflowStormWater = initialOutflow.getStormWater();
 		maxQ = maxDischarge;
 		splitQ = splitDischarge;
 		ode = new SingleLinearReservoirODE(storageCoefficient);
 
 		if (K == 0)
-			integrator = new PassThroughIntegrator();
+			this.integrator = new PassThroughIntegrator();
 		else
-			integrator = new EulerIntegrator();
-	}
-
-	private FlowValue reservoirOutflow(FlowValue previousQ, FlowValue currentI, double dT) {
-
-		assert previousQ != null && currentI != null;
-
-		FlowValue outflow;
-		outflow = integrator.integrate(ode, dT, currentI, previousQ);
-
-		return outflow;
+			this.integrator = integrator;
 	}
 
 	/**
@@ -151,49 +223,155 @@ public class SingleLinearReservoir {
 		if (currentInflow == null)
 			throw new NullPointerException();
 
+		double[] interceptorFlow = new double[3];
+		double[] overflow = new double[3];
+
+		step(currentInflow.getInfiltration(), currentInflow.getSanitary(), currentInflow.getStormWater(), deltaT,
+				interceptorFlow, overflow);
+
+		FlowValue[] flow = new FlowValue[2];
+		flow[0] = new FlowValue(interceptorFlow[INFILTRATION], interceptorFlow[SANITARY], interceptorFlow[STORM_WATER]);
+		flow[1] = new FlowValue(overflow[INFILTRATION], overflow[SANITARY], overflow[STORM_WATER]);
+
+		return flow;
+	}
+
+	/**
+	 * Reservoir routing step method
+	 * <p>
+	 * Interceptor flow and reservoir overflow are written to the output arrays at
+	 * {@link #INFILTRATION}, {@link #SANITARY}, and {@link #STORM_WATER}. The
+	 * output arrays must have a length of at least 3.
+	 *
+	 * @param infiltration
+	 *            infiltration inflow at the current time step
+	 * @param sanitary
+	 *            sanitary inflow at the current time step
+	 * @param stormWater
+	 *            storm water inflow at the current time step
+	 * @param deltaT
+	 *            time step, in seconds
+	 * @param interceptorFlow
+	 *            interceptor flow output
+	 * @param overflow
+	 *            reservoir overflow output
+	 */
+	public void step(double infiltration, double sanitary, double stormWater, double deltaT, double[] interceptorFlow,
+			double[] overflow) {
+
+		if (interceptorFlow == null || overflow == null)
+			throw new NullPointerException();
+
 		if (deltaT <= 0)
 			throw new IllegalArgumentException();
 
 		// compute routed flow
-		FlowValue routedFlow = reservoirOutflow(outflow, currentInflow, deltaT);
+		double routedInfiltration = integrator.integrate(ode, deltaT, infiltration, outflowInfiltration);
+		double routedSanitary = integrator.integrate(ode, deltaT, sanitary, outflowSanitary);
+		double routedStormWater = integrator.integrate(ode, deltaT, stormWater, outflowStormWater);
+
+		// totals are summed in the same order as FlowValue.getTotal() and
+		// StorageValue.getTotal()
+		double routedTotal = routedStormWater + routedInfiltration + routedSanitary;
+		double storageTotal = storageInfiltration + storageSanitary + storageStormWater;
 
 		// storage and storage flow
-		double excessFlow = routedFlow.getTotal() - maxQ;
+		double excessFlow = routedTotal - maxQ;
 
-		double storageFlow = Math.max(-storage.getTotal() / K, excessFlow);
+		double storageFlow = Math.max(-storageTotal / K, excessFlow);
 
 		// storage frac will go nan if total routed flow is 0
-		double storageFrac = storageFlow / routedFlow.getTotal();
+		double storageFrac = storageFlow / routedTotal;
 		if (Double.isNaN(storageFrac))
 			storageFrac = 0;
 
-		FlowValue storageFlowValue = routedFlow.multiply(storageFrac);
+		double storageFlowInfiltration = storageFrac * routedInfiltration;
+		double storageFlowSanitary = storageFrac * routedSanitary;
+		double storageFlowStormWater = storageFrac * routedStormWater;
 
 		if (!stopStore) {
-			storage = storage.add(storageFlowValue.multiplyTime(K));
+			storageInfiltration = storageInfiltration + K * storageFlowInfiltration;
+			storageSanitary = storageSanitary + K * storageFlowSanitary;
+			storageStormWater = storageStormWater + K * storageFlowStormWater;
 		}
 
 		// outflow for current time step
-		FlowValue currentOutflow = routedFlow.subtract(storageFlowValue);
+		double currentInfiltration = routedInfiltration - storageFlowInfiltration;
+		double currentSanitary = routedSanitary - storageFlowSanitary;
+		double currentStormWater = routedStormWater - storageFlowStormWater;
+		double currentTotal = currentStormWater + currentInfiltration + currentSanitary;
+
+		double interceptorTotal = Math.min(currentTotal, splitQ);
 
-		double interceptorFlow = Math.min(currentOutflow.getTotal(), splitQ);
+		limits = (excessFlow > 0 ? MAX_FLOW_LIMIT : 0) | (storageTotal > 0 ? STORAGE_LIMIT : 0)
+				| (currentTotal > splitQ ? SPLIT_LIMIT : 0);
 
 		// interceptor frac will go nan if current outflow is 0
-		double interceptorFrac = interceptorFlow / currentOutflow.getTotal();
+		double interceptorFrac = interceptorTotal / currentTotal;
 		if (Double.isNaN(interceptorFrac))
 			interceptorFrac = 0;
 
-		FlowValue interceptorFlowValue = currentOutflow.multiply(interceptorFrac);
-		FlowValue overflowValue = currentOutflow.subtract(interceptorFlowValue);
+		double interceptorInfiltration = interceptorFrac * currentInfiltration;
+		double interceptorSanitary = interceptorFrac * currentSanitary;
+		double interceptorStormWater = interceptorFrac * currentStormWater;
+
+		interceptorFlow[INFILTRATION] = interceptorInfiltration;
+		interceptorFlow[SANITARY] = interceptorSanitary;
+		interceptorFlow[STORM_WATER] = interceptorStormWater;
+
+		overflow[INFILTRATION] = currentInfiltration - interceptorInfiltration;
+		overflow[SANITARY] = currentSanitary - interceptorSanitary;
+		overflow[STORM_WATER] = currentStormWater - interceptorStormWater;
 
 		// store previous flow values for next call to step()
-		outflow = currentOutflow;
+		outflowInfiltration = currentInfiltration;
+		outflowSanitary = currentSanitary;
+		outflowStormWater = currentStormWater;
+	}
 
-		FlowValue[] flow = new FlowValue[2];
-		flow[0] = interceptorFlowValue;
-		flow[1] = overflowValue;
+	/**
+	 * Returns the limits on the outflow of the most recent step, as a combination
+	 * of {@link #MAX_FLOW_LIMIT}, {@link #STORAGE_LIMIT}, and {@link #SPLIT_LIMIT}
+	 *
+	 * @return outflow limits
+	 */
+	int getLimits() {
+		return limits;
+	}
 
-		return flow;
+	/**
+	 * Copies the outflow and storage state of this reservoir to {@code state},
+	 * starting at {@code offset}. Six values are copied.
+	 *
+	 * @param state
+	 *            state array
+	 * @param offset
+	 *            offset in the state array
+	 */
+	void saveState(double[] state, int offset) {
+		state[offset] = outflowInfiltration;
+		state[offset + 1] = outflowSanitary;
+		state[offset + 2] = outflowStormWater;
+		state[offset + 3] = storageInfiltration;
+		state[offset + 4] = storageSanitary;
+		state[offset + 5] = storageStormWater;
+	}
+
+	/**
+	 * Restores outflow and storage state saved by {@link #saveState}
+	 *
+	 * @param state
+	 *            state array
+	 * @param offset
+	 *            offset in the state array
+	 */
+	void restoreState(double[] state, int offset) {
+		outflowInfiltration = state[offset];
+		outflowSanitary = state[offset + 1];
+		outflowStormWater = state[offset + 2];
+		storageInfiltration = state[offset + 3];
+		storageSanitary = state[offset + 4];
+		storageStormWater = state[offset + 5];
 	}
 
 }
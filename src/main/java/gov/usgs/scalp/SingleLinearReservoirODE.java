@@ -7,6 +7,10 @@ public class SingleLinearReservoirODE {
 
 	private double k;
 
+	// decay factor of the most recent time step
+	private double decayStep = Double.NaN;
+	private double decayFactor;
+
 	/**
 	 * Constructs a SingleLinearReservoirODE
 	 *
@@ -30,4 +34,45 @@ public class SingleLinearReservoirODE {
 		return inflow.subtract(outflow).divideTime(k);
 	}
 
+	/**
+	 * Computes the derivative of this ODE for a single flow constituent
+	 *
+	 * @param inflow
+	 *            reservoir inflow
+	 * @param outflow
+	 *            reservoir outflow
+	 * @return flow derivative
+	 */
+	public double computeDerivative(double inflow, double outflow) {
+		return (inflow - outflow) / k;
+	}
+
+	/**
+	 * Returns the storage coefficient of this ODE
+	 *
+	 * @return storage coefficient
+	 */
+	public double getStorageCoefficient() {
+		return k;
+	}
+
+	/**
+	 * Returns the factor by which the difference between outflow and a constant
+	 * inflow decays over a time step, exp(-step / k). The factor is computed once
+	 * and reused while the time step does not change.
+	 *
+	 * @param step
+	 *            time step in seconds
+	 * @return decay factor
+	 */
+	public double getDecayFactor(double step) {
+
+		if (step != decayStep) {
+			decayFactor = k == 0 ? 0 : Math.exp(-step / k);
+			decayStep = step;
+		}
+
+		return decayFactor;
+	}
+
 }
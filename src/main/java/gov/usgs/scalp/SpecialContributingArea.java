@@ -9,6 +9,8 @@ import java.util.logging.Logger;
 public class SpecialContributingArea {
 
 	private int scaNumber;
+	private Watershed watershed;
+	private int[] segmentNumbers;
 	private LandSegment[] landSegments;
 	private SanitaryFlowSet sanitaryFlowSet;
 	private ReservoirInfo[] reservoirInfo;
@@ -16,12 +18,15 @@ public class SpecialContributingArea {
 	private OutputDSSPathStrings sewerPaths;
 	private OutputDSSPathStrings overflowPaths;
 
-	private SingleLinearReservoir lateralReservoir;
-	private SingleLinearReservoir subMainReservoir;
-	private SingleLinearReservoir mainReservoir;
-
 	private double scaPopulation;
 
+	private RoutingOptions routingOptions;
+
+	// inflow assembled with other SCAs by an inflow engine, null if not assembled
+	// or already used
+	private double[] assembledInfiltration;
+	private double[] assembledStormWater;
+
 	private static final Logger LOGGER = Logger.getLogger("gov.usgs.scalp.SpecialContributingArea");
 
 	/**
@@ -35,10 +40,29 @@ public class SpecialContributingArea {
 	 *            sanitary
 	 */
 	public SpecialContributingArea(SCAInputBlock scaInputBlock, Watershed watershed, Sanitary sanitary) {
+		this(scaInputBlock, watershed, sanitary, new RoutingOptions());
+	}
 
-		if (scaInputBlock == null || watershed == null || sanitary == null)
+	/**
+	 * Constructs a special contributing area with flow routing options
+	 *
+	 * @param scaInputBlock
+	 *            special contributing area input block
+	 * @param watershed
+	 *            watershed
+	 * @param sanitary
+	 *            sanitary
+	 * @param routingOptions
+	 *            flow routing options
+	 */
+	public SpecialContributingArea(SCAInputBlock scaInputBlock, Watershed watershed, Sanitary sanitary,
+			RoutingOptions routingOptions) {
+
+		if (scaInputBlock == null || watershed == null || sanitary == null || routingOptions == null)
 			throw new NullPointerException();
 
+		this.routingOptions = routingOptions;
+
 		scaNumber = scaInputBlock.getSCANumber();
 
 		LOGGER.log(Level.INFO, "Initializing special contributing area number " + scaNumber);
@@ -46,6 +70,8 @@ public class SpecialContributingArea {
 		int infoSetNo = scaInputBlock.getSanitaryInfoSet();
 		sanitaryFlowSet = sanitary.getFlowSet(infoSetNo);
 
+		this.watershed = watershed;
+		segmentNumbers = scaInputBlock.landSegmentNumbers();
 		landSegments = initLandSegments(scaInputBlock, watershed);
 
 		scaPopulation = scaInputBlock.getSCAPopulation();
@@ -89,30 +115,116 @@ public class SpecialContributingArea {
 
 		LOGGER.log(Level.INFO, "Initializing time series for SCA number " + getSCANumber());
 
-		AvgFlowTimeSeries flowTimeSeries = new AvgFlowTimeSeries();
+		TimeSeries axis = getRunoffAxis();
+
+		if (axis == null) {
+			String errorMessage = "Land segment runoff observation times do not match for SCA number "
+					+ getSCANumber();
+			LOGGER.log(Level.SEVERE, errorMessage);
+			throw new RuntimeException(errorMessage);
+		}
 
-		TimeSeries infiltrationTS = landSegments[0].infiltration();
-		TimeSeries stormWaterTS = landSegments[0].stormWaterFlow();
+		// inflow assembled with other SCAs, or assembled for this SCA alone
+		double[][] inflow = takeAssembledInflow();
 
-		for (int i = 1; i < landSegments.length; i++) {
-			infiltrationTS = infiltrationTS.add(landSegments[i].infiltration());
-			stormWaterTS = stormWaterTS.add(landSegments[i].stormWaterFlow());
+		if (inflow == null) {
+			double[][][] assembled = new InflowEngine(new SpecialContributingArea[] { this }, watershed).assemble(0,
+					1, 1);
+			inflow = new double[][] { assembled[InflowEngine.INFILTRATION][0], assembled[InflowEngine.STORM_WATER][0] };
 		}
 
-		DateTime[] times = infiltrationTS.getTimes();
+		long[] times = axis.getTimesInMillis();
+		double[] infiltration = inflow[InflowEngine.INFILTRATION];
+		double[] stormWater = inflow[InflowEngine.STORM_WATER];
+		double[] sanitary = new double[times.length];
+
+		if (axis instanceof RegularTimeSeries && ((RegularTimeSeries) axis).isRegular()) {
+			RegularTimeSeries regularTS = (RegularTimeSeries) axis;
+			sanitaryFlowSet.sanitaryFlowPerPerson(regularTS.getStartTime(), regularTS.getTimeStep(), sanitary);
+		} else {
+			for (int i = 0; i < times.length; i++)
+				sanitary[i] = sanitaryFlowSet.sanitaryFlowPerPerson(new DateTime(times[i]));
+		}
+
+		for (int i = 0; i < sanitary.length; i++)
+			sanitary[i] *= scaPopulation;
+
+		return new AvgFlowTimeSeries(times, infiltration, sanitary, stormWater);
+	}
+
+	/**
+	 * Returns the runoff time axis of the land segments of this SCA if all of their
+	 * runoff has the same observation times, null otherwise
+	 *
+	 * @return runoff time axis
+	 */
+	TimeSeries getRunoffAxis() {
 
-		double infiltration;
-		double stormWater;
-		double sanitary;
+		TimeSeries axis = landSegments[0].getTimeSeries().imperviousRunoff();
 
-		for (DateTime t : times) {
-			infiltration = infiltrationTS.getValue(t);
-			stormWater = stormWaterTS.getValue(t);
-			sanitary = sanitaryFlowSet.sanitaryFlowPerPerson(t) * scaPopulation;
-			flowTimeSeries.put(t, new FlowValue(infiltration, sanitary, stormWater));
+		for (LandSegment landSegment : landSegments) {
+			LandSegmentTS timeSeries = landSegment.getTimeSeries();
+			TimeSeries[] runoff = { timeSeries.imperviousRunoff(), timeSeries.overlandRunoff(),
+					timeSeries.subsurfaceRunoff() };
+			for (TimeSeries ts : runoff) {
+				if (!axis.sameTimes(ts))
+					return null;
+			}
 		}
 
-		return flowTimeSeries;
+		return axis;
+	}
+
+	/**
+	 * Returns the land segment numbers of this SCA
+	 *
+	 * @return land segment numbers
+	 */
+	int[] getSegmentNumbers() {
+		return segmentNumbers.clone();
+	}
+
+	/**
+	 * Returns the area info of a land segment of this SCA
+	 *
+	 * @param index
+	 *            index of the land segment in {@link #getSegmentNumbers()}
+	 * @return land segment area info
+	 */
+	LandSegmentAreaInfo getSegmentArea(int index) {
+		return landSegments[index].getAreaInfo();
+	}
+
+	/**
+	 * Sets inflow assembled by an {@link InflowEngine} with other SCAs. The inflow
+	 * is used once, by the next computation of the inflow time series of this SCA,
+	 * and then released. The arrays must not be modified afterwards.
+	 *
+	 * @param infiltration
+	 *            infiltration inflow in cubic feet per second
+	 * @param stormWater
+	 *            storm water inflow in cubic feet per second
+	 */
+	synchronized void setAssembledInflow(double[] infiltration, double[] stormWater) {
+
+		if (infiltration == null || stormWater == null)
+			throw new NullPointerException();
+
+		assembledInfiltration = infiltration;
+		assembledStormWater = stormWater;
+	}
+
+	// returns and releases assembled inflow, or returns null if none is set
+	private synchronized double[][] takeAssembledInflow() {
+
+		if (assembledInfiltration == null)
+			return null;
+
+		double[][] inflow = { assembledInfiltration, assembledStormWater };
+		assembledInfiltration = null;
+		assembledStormWater = null;
+
+		return inflow;
 	}
 
 	/**
@@ -168,73 +280,103 @@ public class SpecialContributingArea {
 	 */
 	public AvgFlowTimeSeries[] routeFlows() {
 
-		int timeStep = SCALP.TIME_STEP;
+		int timeStep = routingOptions.getTimeStep();
 
 		LOGGER.log(Level.INFO, "Routing flows for SCA number " + getSCANumber());
 
-		// initialize reservoirs
-		lateralReservoir = new SingleLinearReservoir(reservoirInfo[0]);
-		subMainReservoir = new SingleLinearReservoir(reservoirInfo[1]);
-		mainReservoir = new SingleLinearReservoir(reservoirInfo[2]);
+		AvgFlowTimeSeries avgInflowTS = getInflowTimeSeries();
 
-		// initialize sewer and overflow time series
-		InstFlowTimeSeries sewerTS = new InstFlowTimeSeries();
-		InstFlowTimeSeries overflowTS = new InstFlowTimeSeries();
+		if (routingOptions.isAdaptive())
+			return routeFlowsAdaptive(avgInflowTS);
 
-		AvgFlowTimeSeries avgInflowTS = getInflowTimeSeries();
-		InstFlowTimeSeries inflowTS = avgInflowTS.getInstantaneous(timeStep);
+		double deltaT = timeStep * 60.0;
+		SewerCascade cascade = new SewerCascade(reservoirInfo, routingOptions.newIntegrator());
 
-		DateTime[] times = inflowTS.getTimes();
-		int nTimes = times.length;
+		AvgFlowTimeSeries[] routedFlow = new AvgFlowTimeSeries[2];
+
+		if (InstFlowCursor.isHourlySpaced(avgInflowTS.timeColumn())) {
+			// instantaneous flow is produced from the hourly inflow and averaged as
+			// it's routed
+			InstFlowCursor inflow = avgInflowTS.getInstantaneousCursor(timeStep);
+			int nHours = avgInflowTS.timeColumn().length;
 
-		FlowValue inflow;
-		FlowValue overflow;
+			HourlyFlowAverager sewer = new HourlyFlowAverager(nHours);
+			HourlyFlowAverager overflow = new HourlyFlowAverager(nHours);
 
-		FlowValue lateralSewer;
-		FlowValue lateralOverflow;
+			// route flow through the lateral, sub main, and main sewers
+			cascade.route(inflow, deltaT, sewer, overflow);
 
-		FlowValue subMainSewer;
-		FlowValue subMainOverflow;
+			routedFlow[0] = sewer.getAveraged();
+			routedFlow[1] = overflow.getAveraged();
+		} else {
+			InstFlowTimeSeries inflowTS = avgInflowTS.getInstantaneous(timeStep);
 
-		FlowValue mainSewer;
-		FlowValue mainOverflow;
+			long[] times = inflowTS.timeColumn();
+			int nTimes = times.length;
 
-		FlowValue[] out;
+			double[][] inflow = new double[3][];
+			inflow[SingleLinearReservoir.INFILTRATION] = inflowTS.infiltrationColumn();
+			inflow[SingleLinearReservoir.SANITARY] = inflowTS.sanitaryColumn();
+			inflow[SingleLinearReservoir.STORM_WATER] = inflowTS.stormWaterColumn();
 
-		// assume a constant time step
-		double deltaT = (times[1].getTimeInMillis() - times[0].getTimeInMillis()) / 1000.0;
+			double[][] sewer = new double[3][nTimes];
+			double[][] overflow = new double[3][nTimes];
 
-		for (int i = 0; i < nTimes; i++) {
+			// route flow through the lateral, sub main, and main sewers
+			cascade.route(inflow, deltaT, sewer, overflow);
 
-			// inflow into special contributing area
-			inflow = inflowTS.getValue(times[i]);
+			InstFlowTimeSeries sewerTS = new InstFlowTimeSeries(times, sewer[SingleLinearReservoir.INFILTRATION],
+					sewer[SingleLinearReservoir.SANITARY], sewer[SingleLinearReservoir.STORM_WATER]);
+			InstFlowTimeSeries overflowTS = new InstFlowTimeSeries(times.clone(),
+					overflow[SingleLinearReservoir.INFILTRATION], overflow[SingleLinearReservoir.SANITARY],
+					overflow[SingleLinearReservoir.STORM_WATER]);
+
+			routedFlow[0] = sewerTS.getAveraged();
+			routedFlow[1] = overflowTS.getAveraged();
+		}
+
+		LOGGER.log(Level.INFO, "Finished routing flows for SCA number " + getSCANumber());
 
-			// route flow through lateral sewer
-			out = lateralReservoir.step(inflow, deltaT);
-			lateralSewer = out[0];
-			lateralOverflow = out[1];
+		return routedFlow;
+	}
 
-			// route flow through sub main sewer
-			out = subMainReservoir.step(lateralSewer, deltaT);
-			subMainSewer = out[0];
-			subMainOverflow = out[1];
+	// routes hourly inflow adaptively. hourly inflow is representative of the
+	// previous hour, as is the routed flow.
+	private AvgFlowTimeSeries[] routeFlowsAdaptive(AvgFlowTimeSeries avgInflowTS) {
 
-			// route flow through main sewer
-			out = mainReservoir.step(subMainSewer, deltaT);
-			mainSewer = out[0];
-			mainOverflow = out[1];
+		int fineTimeStep = routingOptions.getTimeStep();
+		int coarseTimeStep = routingOptions.getCoarseTimeStep(reservoirInfo);
 
-			// initialize new overflow for this time step and add all overflows
-			overflow = new FlowValue(0, 0, 0);
-			overflow = overflow.add(lateralOverflow.add(subMainOverflow.add(mainOverflow)));
+		long[] times = avgInflowTS.timeColumn();
+		int nTimes = times.length;
 
-			sewerTS.put(times[i], mainSewer);
-			overflowTS.put(times[i], overflow);
+		for (int i = 1; i < nTimes; i++) {
+			if (times[i] - times[i - 1] != 3600000) {
+				LOGGER.log(Level.SEVERE, "Adaptive routing requires an hourly inflow time series for SCA number "
+						+ getSCANumber());
+				throw new RuntimeException("Adaptive routing requires an hourly inflow time series");
+			}
 		}
 
+		double[][] inflow = new double[3][];
+		inflow[SingleLinearReservoir.INFILTRATION] = avgInflowTS.infiltrationColumn();
+		inflow[SingleLinearReservoir.SANITARY] = avgInflowTS.sanitaryColumn();
+		inflow[SingleLinearReservoir.STORM_WATER] = avgInflowTS.stormWaterColumn();
+
+		double[][] sewer = new double[3][nTimes];
+		double[][] overflow = new double[3][nTimes];
+
+		SewerCascade cascade = new SewerCascade(reservoirInfo, routingOptions.newIntegrator());
+		int nFineHours = cascade.routeHourly(inflow, coarseTimeStep, fineTimeStep, sewer, overflow);
+
+		LOGGER.log(Level.INFO, String.format("Routed SCA number %d at %d minute steps, %d of %d hours at %d minute steps",
+				getSCANumber(), coarseTimeStep, nFineHours, nTimes, fineTimeStep));
+
 		AvgFlowTimeSeries[] routedFlow = new AvgFlowTimeSeries[2];
-		routedFlow[0] = sewerTS.getAveraged();
-		routedFlow[1] = overflowTS.getAveraged();
+		routedFlow[0] = new AvgFlowTimeSeries(times, sewer[SingleLinearReservoir.INFILTRATION],
+				sewer[SingleLinearReservoir.SANITARY], sewer[SingleLinearReservoir.STORM_WATER]);
+		routedFlow[1] = new AvgFlowTimeSeries(times.clone(), overflow[SingleLinearReservoir.INFILTRATION],
+				overflow[SingleLinearReservoir.SANITARY], overflow[SingleLinearReservoir.STORM_WATER]);
 
 		LOGGER.log(Level.INFO, "Finished routing flows for SCA number " + getSCANumber());
 
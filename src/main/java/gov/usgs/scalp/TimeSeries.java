@@ -1,14 +1,26 @@
 package gov.usgs.scalp;
 
 import java.util.Arrays;
-import java.util.TreeMap;
 
 /**
  * Time series class
+ * <p>
+ * Observations are stored in two parallel primitive arrays: observation times
+ * in milliseconds from the epoch of 1970-01-01T00:00:00Z, sorted in ascending
+ * order, and observed values.
  */
 public class TimeSeries {
 
-	private TreeMap<DateTime, Double> map;
+	private static final int INITIAL_CAPACITY = 16;
+	private static final long MILLISECONDS_IN_A_MINUTE = 60000;
+
+	// null while the times are derived, see RegularTimeSeries
+	private long[] times;
+	private double[] values;
+	private int nObs;
+
+	// true once the values are shared by sharedValues()
+	private boolean shared = false;
 
 	/**
 	 * Initializes a TimeSeries from an array of observations times and observed
@@ -29,11 +41,13 @@ public class TimeSeries {
 		if (nObs != values.length)
 			throw new RuntimeException("times.length must be equal to values.length");
 
-		map = new TreeMap<DateTime, Double>();
+		long[] millis = new long[nObs];
 
 		for (int i = 0; i < nObs; i++) {
-			map.put(times[i], values[i]);
+			millis[i] = times[i].getTimeInMillis();
 		}
+
+		init(millis, values);
 	}
 
 	/**
@@ -55,19 +69,177 @@ public class TimeSeries {
 		if (nObs != values.length)
 			throw new RuntimeException("times.length must be equal to values.length");
 
-		map = new TreeMap<DateTime, Double>();
+		// observation times have a resolution of one minute
+		long[] millis = new long[nObs];
 
 		for (int i = 0; i < nObs; i++) {
-			map.put(new DateTime(times[i]), values[i]);
+			millis[i] = Math.floorDiv(times[i], MILLISECONDS_IN_A_MINUTE) * MILLISECONDS_IN_A_MINUTE;
 		}
 
+		init(millis, values);
 	}
 
 	/**
 	 * Initializes an empty TimeSeries.
 	 */
 	public TimeSeries() {
-		map = new TreeMap<DateTime, Double>();
+		times = new long[INITIAL_CAPACITY];
+		values = new double[INITIAL_CAPACITY];
+		nObs = 0;
+	}
+
+	// adopts arrays of strictly increasing times and values without copying
+	TimeSeries(long[] sortedTimes, double[] values, int nObs) {
+
+		assert sortedTimes.length >= nObs && values.length >= nObs;
+
+		this.times = sortedTimes;
+		this.values = values;
+		this.nObs = nObs;
+	}
+
+	// adopts an array of values without copying. times aren't stored, and must be
+	// derived by the subclass until storeTimes is called
+	TimeSeries(double[] values, int nObs) {
+
+		assert values.length >= nObs;
+
+		this.values = values;
+		this.nObs = nObs;
+	}
+
+	// stores the times of the observations of a time series whose times were
+	// derived
+	void storeTimes(long[] observationTimes) {
+
+		assert times == null && observationTimes.length == nObs;
+
+		times = Arrays.copyOf(observationTimes, values.length);
+	}
+
+	// throws an exception if the values of this time series are shared, see
+	// sharedValues()
+	void checkModifiable() {
+		if (shared)
+			throw new IllegalStateException("Time series values are shared and can't be modified");
+	}
+
+	// replaces the value at an index
+	void setValue(int index, double value) {
+
+		assert index >= 0 && index < nObs;
+
+		checkModifiable();
+
+		values[index] = value;
+	}
+
+	// appends a value to a time series whose times are derived
+	void appendValue(double value) {
+
+		assert times == null;
+
+		checkModifiable();
+		ensureCapacity(nObs + 1);
+		values[nObs++] = value;
+	}
+
+	/**
+	 * Returns a time series that uses {@code sortedTimes} and {@code values} as its
+	 * storage. The times must be strictly increasing and neither array may be
+	 * modified by the caller afterwards.
+	 * <p>
+	 * A {@link RegularTimeSeries} is returned if the times are evenly spaced.
+	 *
+	 * @param sortedTimes
+	 *            strictly increasing observation times in milliseconds
+	 * @param values
+	 *            observed values
+	 * @return time series
+	 */
+	static TimeSeries fromSortedArrays(long[] sortedTimes, double[] values) {
+
+		if (sortedTimes == null || values == null)
+			throw new NullPointerException();
+
+		if (sortedTimes.length != values.length)
+			throw new RuntimeException("times.length must be equal to values.length");
+
+		if (RegularTimeSeries.isRegular(sortedTimes))
+			return new RegularTimeSeries(sortedTimes, values);
+
+		return new TimeSeries(sortedTimes, values, sortedTimes.length);
+	}
+
+	/**
+	 * Returns true if {@code times} is in strictly increasing order
+	 *
+	 * @param times
+	 *            observation times
+	 * @return true if times are strictly increasing
+	 */
+	static boolean isStrictlyIncreasing(long[] times) {
+
+		for (int i = 1; i < times.length; i++) {
+			if (times[i - 1] >= times[i])
+				return false;
+		}
+
+		return true;
+	}
+
+	// sorts observations by time. if a time is repeated, the last value is kept.
+	private void init(long[] millis, double[] obsValues) {
+
+		int n = millis.length;
+
+		if (isStrictlyIncreasing(millis)) {
+			times = millis;
+			values = Arrays.copyOf(obsValues, n);
+			nObs = n;
+			return;
+		}
+
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++)
+			order[i] = i;
+
+		// ties are ordered by position so the last duplicate is found last
+		Arrays.sort(order, (a, b) -> {
+			int c = Long.compare(millis[a], millis[b]);
+			return c != 0 ? c : Integer.compare(a, b);
+		});
+
+		times = new long[n];
+		values = new double[n];
+		nObs = 0;
+
+		for (int i = 0; i < n; i++) {
+			int j = order[i];
+			if (nObs > 0 && times[nObs - 1] == millis[j]) {
+				values[nObs - 1] = obsValues[j];
+			} else {
+				times[nObs] = millis[j];
+				values[nObs] = obsValues[j];
+				nObs++;
+			}
+		}
+	}
+
+	// returns the index of time, or (-(insertion point) - 1) if not found
+	private int indexOf(long time) {
+		return Arrays.binarySearch(times, 0, nObs, time);
+	}
+
+	private void ensureCapacity(int capacity) {
+
+		if (capacity <= values.length)
+			return;
+
+		int newCapacity = Math.max(capacity, Math.max(INITIAL_CAPACITY, 2 * values.length));
+		if (times != null)
+			times = Arrays.copyOf(times, newCapacity);
+		values = Arrays.copyOf(values, newCapacity);
 	}
 
 	/**
@@ -82,24 +254,61 @@ public class TimeSeries {
 		if (other == null)
 			throw new NullPointerException();
 
-		DateTime[] times = getTimes();
-
-		if (!Arrays.equals(times, other.getTimes()))
+		if (!sameTimes(other))
 			throw new RuntimeException("Unequal times in time series addition");
 
-		TimeSeries result = new TimeSeries();
-		double value;
+		double[] sumValues = other.getValues();
+
+		for (int i = 0; i < sumValues.length; i++) {
+			sumValues[i] = getValue(i) + sumValues[i];
+		}
+
+		return withValues(sumValues);
+	}
+
+	/**
+	 * Returns true if {@code other} has the same observation times as this time
+	 * series
+	 *
+	 * @param other
+	 *            other time series
+	 * @return true if the observation times are equal
+	 */
+	boolean sameTimes(TimeSeries other) {
+
+		int nObs = nObs();
 
-		for (DateTime t : times) {
-			value = getValue(t) + other.getValue(t);
-			result.put(t, value);
+		if (nObs != other.nObs())
+			return false;
+
+		for (int i = 0; i < nObs; i++) {
+			if (getTimeInMillis(i) != other.getTimeInMillis(i))
+				return false;
 		}
 
-		return result;
+		return true;
+	}
+
+	/**
+	 * Returns a time series with the observation times of this time series and
+	 * {@code newValues} as values. {@code newValues} is not copied.
+	 *
+	 * @param newValues
+	 *            observed values
+	 * @return time series
+	 */
+	TimeSeries withValues(double[] newValues) {
+
+		assert newValues.length == nObs;
+
+		return new TimeSeries(Arrays.copyOf(times, nObs), newValues, nObs);
 	}
 
 	/**
 	 * Returns true of this object is equal to {@code other}, false otherwise.
+	 * <p>
+	 * Time series are equal if they have the same observation times and values,
+	 * regardless of how the observations are stored.
 	 *
 	 * @return boolean
 	 */
@@ -108,10 +317,33 @@ public class TimeSeries {
 		if (this == other)
 			return true;
 
-		if (this.getClass() != other.getClass())
+		if (!(other instanceof TimeSeries))
 			return false;
 
-		return this.map.equals(((TimeSeries) other).map);
+		TimeSeries timeSeries = (TimeSeries) other;
+
+		if (!sameTimes(timeSeries))
+			return false;
+
+		for (int i = 0; i < nObs(); i++) {
+			if (Double.doubleToLongBits(getValue(i)) != Double.doubleToLongBits(timeSeries.getValue(i)))
+				return false;
+		}
+
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+
+		int hash = 1;
+
+		for (int i = 0; i < nObs(); i++) {
+			hash = 31 * hash + Long.hashCode(getTimeInMillis(i));
+			hash = 31 * hash + Double.hashCode(getValue(i));
+		}
+
+		return hash;
 	}
 
 	/**
@@ -120,7 +352,7 @@ public class TimeSeries {
 	 * @return int
 	 */
 	public int nObs() {
-		return map.size();
+		return nObs;
 	}
 
 	/**
@@ -131,13 +363,42 @@ public class TimeSeries {
 	 *            the observation time
 	 * @param value
 	 *            the observed value
+	 * @throws IllegalStateException
+	 *             if the values of this time series are shared, see
+	 *             {@link #sharedValues()}
 	 */
 	public void put(DateTime time, double value) {
 
 		if (time == null)
 			throw new NullPointerException();
 
-		map.put(time, value);
+		checkModifiable();
+
+		long t = time.getTimeInMillis();
+
+		// observations are usually added in time order
+		if (nObs == 0 || t > times[nObs - 1]) {
+			ensureCapacity(nObs + 1);
+			times[nObs] = t;
+			values[nObs] = value;
+			nObs++;
+			return;
+		}
+
+		int index = indexOf(t);
+
+		if (index >= 0) {
+			values[index] = value;
+			return;
+		}
+
+		int insertAt = -(index + 1);
+		ensureCapacity(nObs + 1);
+		System.arraycopy(times, insertAt, times, insertAt + 1, nObs - insertAt);
+		System.arraycopy(values, insertAt, values, insertAt + 1, nObs - insertAt);
+		times[insertAt] = t;
+		values[insertAt] = value;
+		nObs++;
 	}
 
 	/**
@@ -147,12 +408,50 @@ public class TimeSeries {
 	 */
 	public DateTime[] getTimes() {
 
-		int nObs = nObs();
-		DateTime[] times = new DateTime[nObs];
+		DateTime[] dateTimes = new DateTime[nObs];
 
-		times = map.keySet().toArray(times);
+		for (int i = 0; i < nObs; i++) {
+			dateTimes[i] = new DateTime(getTimeInMillis(i));
+		}
+
+		return dateTimes;
+	}
+
+	/**
+	 * Returns the observation times of this time series in milliseconds from the
+	 * epoch of 1970-01-01T00:00:00Z in a sorted array.
+	 *
+	 * @return array of times in milliseconds
+	 */
+	public long[] getTimesInMillis() {
+		return Arrays.copyOf(times, nObs);
+	}
 
-		return times;
+	/**
+	 * Returns the observation time at an index
+	 *
+	 * @param index
+	 *            observation index
+	 * @return observation time
+	 */
+	public DateTime getTime(int index) {
+		return new DateTime(getTimeInMillis(index));
+	}
+
+	/**
+	 * Returns the observation time at an index in milliseconds from the epoch of
+	 * 1970-01-01T00:00:00Z
+	 *
+	 * @param index
+	 *            observation index
+	 * @return observation time in milliseconds
+	 */
+	public long getTimeInMillis(int index) {
+
+		if (index < 0 || index >= nObs)
+			throw new IndexOutOfBoundsException();
+
+		return times[index];
 	}
 
 	/**
@@ -168,10 +467,27 @@ public class TimeSeries {
 		if (time == null)
 			throw new NullPointerException();
 
-		Double value = map.get(time);
-		if (value == null)
-			value = 0.0;
-		return value;
+		int index = indexOf(time.getTimeInMillis());
+
+		if (index < 0)
+			return 0.0;
+
+		return values[index];
+	}
+
+	/**
+	 * Returns the value observed at an index
+	 *
+	 * @param index
+	 *            observation index
+	 * @return observed value
+	 */
+	public double getValue(int index) {
+
+		if (index < 0 || index >= nObs)
+			throw new IndexOutOfBoundsException();
+
+		return values[index];
 	}
 
 	/**
@@ -181,15 +497,26 @@ public class TimeSeries {
 	 * @return array of values
 	 */
 	public double[] getValues() {
+		return Arrays.copyOf(values, nObs);
+	}
 
-		int nObs = nObs();
-		double[] values = new double[nObs];
-		Double[] mapValues = new Double[nObs];
+	/**
+	 * Returns the observed values of this time series without copying them. The
+	 * storage is first trimmed to the number of observations. The array must not
+	 * be modified, and this time series can't be modified once its values are
+	 * shared: {@link #put(DateTime, double)} throws an exception.
+	 *
+	 * @return array of values
+	 */
+	double[] sharedValues() {
 
-		mapValues = map.values().toArray(mapValues);
+		shared = true;
 
-		for (int i = 0; i < nObs; i++)
-			values[i] = mapValues[i];
+		if (values.length != nObs) {
+			if (times != null)
+				times = Arrays.copyOf(times, nObs);
+			values = Arrays.copyOf(values, nObs);
+		}
 
 		return values;
 	}
@@ -0,0 +1,264 @@
+package gov.usgs.scalp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Asynchronous, batched time series output writer
+ * <p>
+ * Batches of records are queued by {@link #write(String[], TimeSeries[])} and
+ * written to the output time series store in queue order on a dedicated I/O
+ * thread, so callers can keep routing while output is committed. Each batch is
+ * written with {@link TimeSeriesStore#writeTimeSeries(String[], TimeSeries[])}.
+ * <p>
+ * A batch may be queued with a callback that is run once the batch is
+ * written, with the paths of its records that failed to write. Callbacks run
+ * in queue order on a thread that calls the writer, when a later batch is
+ * queued or when the writer is flushed. An exception thrown by a callback is
+ * thrown to that caller.
+ * <p>
+ * Records that fail to write don't stop the writer. The paths of all failed
+ * records are reported in one exception by {@link #flush()} and
+ * {@link #close()}.
+ */
+public class TimeSeriesOutputWriter implements AutoCloseable {
+
+	// default number of batches that may be queued before write blocks
+	private static final int MAX_PENDING_BATCHES = 4;
+
+	private final TimeSeriesStore store;
+	private final ExecutorService ioThread;
+	private final Semaphore pendingBatches;
+
+	// batches that haven't been completed, in queue order
+	private final ArrayDeque<Batch> batches = new ArrayDeque<>();
+
+	// paths of records that failed to write in completed batches
+	private final List<String> failedPaths = new ArrayList<>();
+
+	private boolean closed = false;
+
+	private static final Logger LOGGER = Logger.getLogger("gov.usgs.scalp.TimeSeriesOutputWriter");
+
+	// queued batch. the future returns the paths of records that failed to write
+	private static class Batch {
+
+		final Future<List<String>> failedPaths;
+		final Consumer<List<String>> onWritten;
+
+		Batch(Future<List<String>> failedPaths, Consumer<List<String>> onWritten) {
+			this.failedPaths = failedPaths;
+			this.onWritten = onWritten;
+		}
+	}
+
+	/**
+	 * Constructs a writer on an output time series store
+	 *
+	 * @param store
+	 *            output time series store
+	 */
+	public TimeSeriesOutputWriter(TimeSeriesStore store) {
+		this(store, MAX_PENDING_BATCHES);
+	}
+
+	/**
+	 * Constructs a writer on an output time series store with a bound on queued
+	 * batches
+	 *
+	 * @param store
+	 *            output time series store
+	 * @param maxPendingBatches
+	 *            number of batches that may be queued before
+	 *            {@link #write(String[], TimeSeries[])} blocks
+	 */
+	public TimeSeriesOutputWriter(TimeSeriesStore store, int maxPendingBatches) {
+
+		if (store == null)
+			throw new NullPointerException();
+
+		if (maxPendingBatches < 1)
+			throw new IllegalArgumentException("Number of pending batches must be at least 1");
+
+		this.store = store;
+		this.pendingBatches = new Semaphore(maxPendingBatches);
+		this.ioThread = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "Time series output writer " + store.getName());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Queues a batch of records to write. Blocks while the maximum number of
+	 * batches is queued. The time series must not be modified after they're
+	 * queued.
+	 *
+	 * @param pathnames
+	 *            path names of the records
+	 * @param timeSeries
+	 *            time series of the records
+	 */
+	public void write(String[] pathnames, TimeSeries[] timeSeries) {
+		write(pathnames, timeSeries, null);
+	}
+
+	/**
+	 * Queues a batch of records to write, with a callback that is run once the
+	 * batch is written. The callback is passed the paths of the records of the
+	 * batch that failed to write, if any. Blocks while the maximum number of
+	 * batches is queued. The time series must not be modified after they're
+	 * queued.
+	 *
+	 * @param pathnames
+	 *            path names of the records
+	 * @param timeSeries
+	 *            time series of the records
+	 * @param onWritten
+	 *            callback run with the paths of failed records after the batch
+	 *            is written, or null
+	 */
+	public void write(String[] pathnames, TimeSeries[] timeSeries, Consumer<List<String>> onWritten) {
+
+		if (pathnames == null || timeSeries == null)
+			throw new NullPointerException();
+
+		if (pathnames.length != timeSeries.length)
+			throw new IllegalArgumentException("Path names and time series must have equal lengths");
+
+		for (int i = 0; i < pathnames.length; i++) {
+			if (pathnames[i] == null || timeSeries[i] == null)
+				throw new NullPointerException();
+		}
+
+		String[] batchPaths = pathnames.clone();
+		TimeSeries[] batchSeries = timeSeries.clone();
+
+		// wait for a free slot without holding the lock, so flush and close aren't
+		// blocked
+		try {
+			pendingBatches.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOGGER.log(Level.SEVERE, "Interrupted while queueing output records");
+			throw new RuntimeException("Interrupted while queueing output records", e);
+		}
+
+		synchronized (this) {
+
+			if (closed) {
+				pendingBatches.release();
+				throw new IllegalStateException("Output writer is closed");
+			}
+
+			Future<List<String>> failed;
+
+			try {
+				failed = ioThread.submit(() -> {
+					try {
+						return writeBatch(batchPaths, batchSeries);
+					} finally {
+						pendingBatches.release();
+					}
+				});
+			} catch (RuntimeException e) {
+				pendingBatches.release();
+				throw e;
+			}
+
+			batches.add(new Batch(failed, onWritten));
+			completeBatches(false);
+		}
+	}
+
+	// writes a batch of records on the I/O thread and returns the paths of records
+	// that failed to write
+	private List<String> writeBatch(String[] pathnames, TimeSeries[] timeSeries) {
+
+		try {
+			return Arrays.asList(store.writeTimeSeries(pathnames, timeSeries));
+		} catch (RuntimeException e) {
+			LOGGER.log(Level.SEVERE, "Failed to write output records to " + store.getName(), e);
+			return Arrays.asList(pathnames);
+		}
+	}
+
+	// removes completed batches from the front of the queue, in queue order,
+	// collecting their failed paths and running their callbacks. waits for all
+	// batches if wait is true
+	private void completeBatches(boolean wait) {
+
+		while (!batches.isEmpty() && (wait || batches.peek().failedPaths.isDone())) {
+
+			Batch batch = batches.remove();
+			List<String> failed;
+
+			try {
+				failed = batch.failedPaths.get();
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				LOGGER.log(Level.SEVERE, "Failed to write output records: " + cause.getMessage());
+				throw new RuntimeException("Failed to write output records: " + cause.getMessage(), cause);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				LOGGER.log(Level.SEVERE, "Interrupted while writing output records");
+				throw new RuntimeException("Interrupted while writing output records", e);
+			}
+
+			failedPaths.addAll(failed);
+
+			if (batch.onWritten != null)
+				batch.onWritten.accept(Collections.unmodifiableList(failed));
+		}
+	}
+
+	/**
+	 * Waits for all queued records to be written and runs the callbacks of their
+	 * batches. Throws an exception with the paths of all records that failed to
+	 * write since the last flush.
+	 */
+	public synchronized void flush() {
+
+		completeBatches(true);
+
+		if (!failedPaths.isEmpty()) {
+			String message = String.format("Failed to write %d records to %s: %s", failedPaths.size(),
+					store.getName(), String.join(", ", failedPaths));
+			failedPaths.clear();
+			LOGGER.log(Level.SEVERE, message);
+			throw new RuntimeException(message);
+		}
+	}
+
+	/**
+	 * Writes all queued records and stops the I/O thread. Throws an exception with
+	 * the paths of all records that failed to write since the last flush. Does
+	 * nothing if the writer is already closed.
+	 */
+	@Override
+	public synchronized void close() {
+
+		if (closed)
+			return;
+
+		closed = true;
+
+		try {
+			flush();
+		} finally {
+			ioThread.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,107 @@
+package gov.usgs.scalp;
+
+import java.util.ArrayList;
+
+/**
+ * Store of time series records identified by path names
+ * <p>
+ * Records are read by path name, optionally within a time window, written one
+ * at a time or in bulk, and listed with {@link #getCatalog()}. Reads and writes
+ * may be made within a session, from {@link #open()} to {@link #close()}, or
+ * outside of one. Implementations must be safe for use by multiple threads.
+ */
+public interface TimeSeriesStore extends AutoCloseable {
+
+	/**
+	 * Opens a session on this store. Does nothing if a session is already open.
+	 *
+	 * @return this instance
+	 */
+	public TimeSeriesStore open();
+
+	/**
+	 * Closes the session on this store. Does nothing if no session is open.
+	 */
+	@Override
+	public void close();
+
+	/**
+	 * Returns the name of this store, used in log and error messages
+	 *
+	 * @return store name
+	 */
+	public String getName();
+
+	/**
+	 * Reads a time series. Returns null if the record can't be read.
+	 *
+	 * @param pathname
+	 *            path name
+	 * @return time series
+	 */
+	public TimeSeries readTimeSeries(String pathname);
+
+	/**
+	 * Reads a time series for a given time period, including the start and end
+	 * times. Returns null if the record can't be read.
+	 *
+	 * @param pathname
+	 *            path name
+	 * @param startDateTime
+	 *            time series start time
+	 * @param endDateTime
+	 *            time series end time
+	 * @return time series
+	 */
+	public TimeSeries readTimeSeries(String pathname, DateTime startDateTime, DateTime endDateTime);
+
+	/**
+	 * Writes a time series
+	 * <p>
+	 * Returns a write code of 0 if write is successful, -1 if an error was
+	 * encountered during write.
+	 *
+	 * @param pathname
+	 *            path name
+	 * @param timeSeries
+	 *            time series to write
+	 * @return write code
+	 */
+	public int writeTimeSeries(String pathname, TimeSeries timeSeries);
+
+	/**
+	 * Writes a batch of time series. Writing continues past records that fail to
+	 * write, and the path names of all failed records are returned.
+	 *
+	 * @param pathnames
+	 *            path names
+	 * @param timeSeries
+	 *            time series to write
+	 * @return path names of records that failed to write
+	 */
+	public default String[] writeTimeSeries(String[] pathnames, TimeSeries[] timeSeries) {
+
+		if (pathnames == null || timeSeries == null)
+			throw new NullPointerException();
+
+		if (pathnames.length != timeSeries.length)
+			throw new IllegalArgumentException("Path names and time series must have equal lengths");
+
+		ArrayList<String> failedPaths = new ArrayList<>();
+
+		for (int i = 0; i < pathnames.length; i++) {
+			if (writeTimeSeries(pathnames[i], timeSeries[i]) != 0)
+				failedPaths.add(pathnames[i]);
+		}
+
+		return failedPaths.toArray(new String[0]);
+	}
+
+	/**
+	 * Returns the path names of all records in this store
+	 *
+	 * @return path names
+	 */
+	public String[] getCatalog();
+
+}
@@ -5,16 +5,38 @@
  */
 package gov.usgs.scalp;
 
+import java.util.HashMap;
 import java.util.Hashtable;
 
 /**
  * Watershed
+ * <p>
+ * Runoff columns of land segments are the value arrays of their runoff time
+ * series, shared without copying by all SCAs on a segment.
  */
 public class Watershed {
 
+	/**
+	 * Index of impervious runoff in runoff columns
+	 */
+	static final int IMPERVIOUS = 0;
+
+	/**
+	 * Index of overland runoff in runoff columns
+	 */
+	static final int OVERLAND = 1;
+
+	/**
+	 * Index of subsurface runoff in runoff columns
+	 */
+	static final int SUBSURFACE = 2;
+
 	private WatershedInputBlock inputBlock;
 	private Hashtable<Integer, LandSegmentTS> landSegments;
 
+	// runoff columns by segment number
+	private final HashMap<Integer, double[][]> runoffColumns;
+
 	/**
 	 * Constructor for watershed
 	 *
@@ -22,12 +44,30 @@ public class Watershed {
 	 * 
 	 * @param watershedInputBlock
 	 *            watershed input block
-	 * @param inputDSS
-	 *            DSS input file
+	 * @param inputStore
+	 *            input time series store
 	 */
-	public Watershed(WatershedInputBlock watershedInputBlock, DSS inputDSS) {
+	public Watershed(WatershedInputBlock watershedInputBlock, TimeSeriesStore inputStore) {
+		this(watershedInputBlock, inputStore, 1);
+	}
 
-		if (watershedInputBlock == null || inputDSS == null)
+	/**
+	 * Constructor for watershed
+	 *
+	 * Initializes a watershed from a watershed input block, loading land segment
+	 * runoff on up to {@code nThreads} threads. Paths that fail to load are
+	 * reported together after all segments are read.
+	 *
+	 * @param watershedInputBlock
+	 *            watershed input block
+	 * @param inputStore
+	 *            input time series store
+	 * @param nThreads
+	 *            number of loading threads
+	 */
+	public Watershed(WatershedInputBlock watershedInputBlock, TimeSeriesStore inputStore, int nThreads) {
+
+		if (watershedInputBlock == null || inputStore == null)
 			throw new NullPointerException();
 
 		inputBlock = watershedInputBlock;
@@ -36,19 +76,33 @@ public class Watershed {
 		DateTime[] simulationTimes = computeSimTimes(inputBlock.getStartDate(), inputBlock.getEndDate());
 
 		// land segments
-		String dssPath;
-		LandSegmentTS segment;
-		landSegments = new Hashtable<>();
-
 		int[] segmentNumbers = inputBlock.getSegmentNumbers();
-		for (int segmentNumber : segmentNumbers) {
-			dssPath = inputBlock.getDssPath(segmentNumber);
-			segment = new LandSegmentTS(inputDSS, dssPath, simulationTimes);
-			landSegments.put(segmentNumber, segment);
+		String[] dssPaths = new String[segmentNumbers.length];
+		for (int i = 0; i < segmentNumbers.length; i++)
+			dssPaths[i] = inputBlock.getDssPath(segmentNumbers[i]);
+
+		LandSegmentTS[] segments = new LandSegmentLoader(inputStore, nThreads).load(dssPaths, simulationTimes);
+
+		landSegments = new Hashtable<>();
+		runoffColumns = new HashMap<>();
+		for (int i = 0; i < segmentNumbers.length; i++) {
+			landSegments.put(segmentNumbers[i], segments[i]);
+			runoffColumns.put(segmentNumbers[i], runoffColumns(segments[i]));
 		}
 
 	}
 
+	// runoff columns of a land segment, which share the storage of its runoff
+	private static double[][] runoffColumns(LandSegmentTS segment) {
+
+		double[][] columns = new double[3][];
+		columns[IMPERVIOUS] = segment.imperviousRunoff().sharedValues();
+		columns[OVERLAND] = segment.overlandRunoff().sharedValues();
+		columns[SUBSURFACE] = segment.subsurfaceRunoff().sharedValues();
+
+		return columns;
+	}
+
 	private static DateTime[] computeSimTimes(DateTime startDateTime, DateTime endDateTime) {
 
 		if (startDateTime == null || endDateTime == null)
@@ -79,6 +133,22 @@ public class Watershed {
 		return landSegments.get(segmentNumber);
 	}
 
+	/**
+	 * Returns the runoff columns of a land segment, in inches per hour. Columns are
+	 * indexed by {@link #IMPERVIOUS}, {@link #OVERLAND}, and {@link #SUBSURFACE}.
+	 * Returns null if the segment number is not in the watershed.
+	 * <p>
+	 * The columns are the values of the runoff time series of the segment. They
+	 * aren't copied and must not be modified.
+	 *
+	 * @param segmentNumber
+	 *            segment number
+	 * @return runoff columns
+	 */
+	double[][] getRunoffColumns(int segmentNumber) {
+		return runoffColumns.get(segmentNumber);
+	}
+
 	/**
 	 * Returns the DSS path associated with a segment number in this input block. If
 	 * the segment number is not in this block, returns null.
@@ -14,9 +14,13 @@ public class WatershedInputBlock {
 	private DateTime startDateTime;
 	private DateTime endDateTime;
 	private int outputLevel;
+	private RoutingOptions routingOptions;
 	private LinkedHashMap<Integer, String> landSegmentPaths;
 	private final static Logger LOGGER = Logger.getLogger("gov.usgs.scalp.WatershedInputBlock");
 
+	// land segment number and DSS path
+	private final static InputFormat SEGMENT_FORMAT = InputFormat.of("I8,A72");
+
 	/**
 	 * Constructor for watershed input block
 	 *
@@ -33,59 +37,92 @@ public class WatershedInputBlock {
 			throw new NullPointerException();
 
 		inputFile.setCurrentLineNo(1);
-		Object[] data;
+		InputFields data;
 		String unexpectedLogLine = "Unexpected line: %s, line number %d";
 		String errorString = "Error parsing WATERSHED input block";
 
 		// WATERSHED
 		InputLine inputLine = inputFile.nextNonEmptyLine();
-		data = inputLine.parse("A9");
-		if (!"WATERSHED".equals((String) data[0])) {
+		data = inputLine.decode("A9");
+		if (!"WATERSHED".equals(data.getString(0))) {
 			LOGGER.log(Level.SEVERE, String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
 			throw new ParseException(errorString, inputLine.getLineNo());
 		}
 
 		// TIME SPAN
 		inputLine = inputFile.nextNonEmptyLine();
-		data = inputLine.parse("A9");
-		if (!"TIME SPAN".equals((String) data[0])) {
+		data = inputLine.decode("A9");
+		if (!"TIME SPAN".equals(data.getString(0))) {
 			LOGGER.log(Level.SEVERE, String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
 			throw new ParseException(errorString, inputLine.getLineNo());
 		}
 
 		// starting date
 		inputLine = inputFile.nextNonEmptyLine();
-		data = inputLine.parse("16X,3I8");
-		int startYear = (int) data[0];
-		int startMonth = (int) data[1];
-		int startDay = (int) data[2];
+		data = inputLine.decode("16X,3I8");
+		int startYear = data.getInt(0);
+		int startMonth = data.getInt(1);
+		int startDay = data.getInt(2);
 		startDateTime = new DateTime(startYear, startMonth, startDay, 1, 0);
 
 		// ending date
 		inputLine = inputFile.nextNonEmptyLine();
-		data = inputLine.parse("16X,3I8");
-		int endYear = (int) data[0];
-		int endMonth = (int) data[1];
-		int endDay = (int) data[2];
+		data = inputLine.decode("16X,3I8");
+		int endYear = data.getInt(0);
+		int endMonth = data.getInt(1);
+		int endDay = data.getInt(2);
 		endDateTime = new DateTime(endYear, endMonth, endDay, 24, 0);
 
 		// output level header
 		inputLine = inputFile.nextNonEmptyLine();
-		data = inputLine.parse("A12");
-		if (!"OUTPUT LEVEL".equals((String) data[0])) {
+		data = inputLine.decode("A12");
+		if (!"OUTPUT LEVEL".equals(data.getString(0))) {
 			LOGGER.log(Level.SEVERE, String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
 			throw new ParseException(errorString, inputLine.getLineNo());
 		}
 
 		// output logging level
 		inputLine = inputFile.nextNonEmptyLine();
-		data = inputLine.parse("11X,I1");
-		outputLevel = (int) data[0];
+		data = inputLine.decode("11X,I1");
+		outputLevel = data.getInt(0);
 
-		// data/land segment header
 		inputLine = inputFile.nextNonEmptyLine();
-		data = inputLine.parse("A9");
-		if (!"DATA".equals((String) data[0])) {
+		data = inputLine.decode("A9");
+
+		// optional routing time step and adaptive routing tolerance
+		if ("TIME STEP".equals(data.getString(0))) {
+
+			inputLine = inputFile.nextNonEmptyLine();
+			data = inputLine.decode("16X,I8");
+			int timeStep = data.getInt(0);
+			int timeStepLineNo = inputLine.getLineNo();
+
+			inputLine = inputFile.nextNonEmptyLine();
+			data = inputLine.decode("A9");
+
+			double tolerance = 0;
+			if ("TOLERANCE".equals(data.getString(0))) {
+				data = inputLine.decode("16X,F8");
+				tolerance = data.getDouble(0);
+
+				inputLine = inputFile.nextNonEmptyLine();
+				data = inputLine.decode("A9");
+			}
+
+			try {
+				if (tolerance == 0)
+					routingOptions = new RoutingOptions(timeStep);
+				else
+					routingOptions = new RoutingOptions(timeStep, tolerance);
+			} catch (IllegalArgumentException e) {
+				LOGGER.log(Level.SEVERE, String.format("Invalid time step, line number %d: %s", timeStepLineNo,
+						e.getMessage()));
+				throw new ParseException(errorString, timeStepLineNo);
+			}
+		}
+
+		// data/land segment header
+		if (!"DATA".equals(data.getString(0))) {
 			LOGGER.log(Level.SEVERE, String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
 			throw new ParseException(errorString, inputLine.getLineNo());
 		}
@@ -95,25 +132,22 @@ public class WatershedInputBlock {
 		String dssPath;
 		landSegmentPaths = new LinkedHashMap<>();
 
-		// TODO: exit parse loop when END is found instead of on a ParseException
-		// while loop exists when inputLine throws a ParseException
-		while (true) {
-			inputLine = inputFile.nextNonEmptyLine();
-			try {
-				data = inputLine.parse("I8,A72");
-				segmentNumber = (int) data[0];
-
-				// check for duplicated segment number
-				if (landSegmentPaths.containsKey(segmentNumber)) {
-					LOGGER.log(Level.SEVERE, String.format("Duplicate land segment number: %2d", segmentNumber));
-					throw new RuntimeException("Duplicate land segment numbers encountered");
-				}
-
-				dssPath = (String) data[1];
-				landSegmentPaths.put(segmentNumber, dssPath);
-			} catch (ParseException e) {
-				break;
+		// land segment lines are read until a line that isn't a land segment
+		inputLine = inputFile.nextNonEmptyLine();
+		while (inputLine.canDecode(SEGMENT_FORMAT)) {
+			data = inputLine.decode(SEGMENT_FORMAT);
+			segmentNumber = data.getInt(0);
+
+			// check for duplicated segment number
+			if (landSegmentPaths.containsKey(segmentNumber)) {
+				LOGGER.log(Level.SEVERE, String.format("Duplicate land segment number: %2d", segmentNumber));
+				throw new RuntimeException("Duplicate land segment numbers encountered");
 			}
+
+			dssPath = data.getString(1);
+			landSegmentPaths.put(segmentNumber, dssPath);
+
+			inputLine = inputFile.nextNonEmptyLine();
 		}
 
 		if (landSegmentPaths.isEmpty()) {
@@ -123,8 +157,8 @@ public class WatershedInputBlock {
 		}
 
 		// end of block statement
-		data = inputLine.parse("A3");
-		if (!"END".equals((String) data[0])) {
+		data = inputLine.decode("A3");
+		if (!"END".equals(data.getString(0))) {
 			LOGGER.log(Level.SEVERE, String.format(unexpectedLogLine, inputLine.getLine(), inputLine.getLineNo()));
 			throw new ParseException(errorString, inputLine.getLineNo());
 		}
@@ -146,6 +180,14 @@ public class WatershedInputBlock {
 				getEndDate().getDayOfMonth()));
 		stringList.add(String.format("%-12s", "OUTPUT LEVEL"));
 		stringList.add(String.format("%11s%1d", "", getOutputLevel()));
+
+		if (routingOptions != null) {
+			stringList.add(String.format("%9s", "TIME STEP"));
+			stringList.add(String.format("%-16s%8d", "MINUTES", routingOptions.getTimeStep()));
+			if (routingOptions.isAdaptive())
+				stringList.add(String.format("%-16s%8.3g", "TOLERANCE", routingOptions.getTolerance()));
+		}
+
 		stringList.add(String.format("%-9s", "DATA"));
 
 		for (int segNo : getSegmentNumbers()) {
@@ -188,6 +230,16 @@ public class WatershedInputBlock {
 		return outputLevel;
 	}
 
+	/**
+	 * Returns the routing options of the simulation, null if the block doesn't
+	 * specify a time step
+	 *
+	 * @return routing options
+	 */
+	public RoutingOptions getRoutingOptions() {
+		return routingOptions;
+	}
+
 	/**
 	 * Returns the segment numbers in the simulation
 	 *
@@ -5,6 +5,9 @@ import java.util.stream.IntStream;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
+import hec.heclib.util.HecTime;
+import hec.io.TimeSeriesContainer;
+
 public class DSSTest {
 
 	/**
@@ -72,4 +75,73 @@ public class DSSTest {
 			fail();
 	}
 
+	@Test
+	public void testSession() {
+		String dssFilePath = Paths.get("src", "test", "resources", "test.dss").toAbsolutePath().toString();
+		String pathname = "/THIS/IS/A/01OCT2020/1HOUR/TEST/";
+
+		long[] times = IntStream.range(0, 24).asLongStream().map(t -> t * 3600000 + 1601946000000L).toArray();
+		double[] values = IntStream.range(0, 24).asDoubleStream().toArray();
+
+		TimeSeries expResult = new TimeSeries(times, values);
+
+		DSS dss = new DSS(dssFilePath);
+		assertFalse(dss.isOpen());
+
+		try (DSS session = dss.open()) {
+			assertSame(dss, session);
+			assertTrue(dss.isOpen());
+			assertTrue(expResult.equals(dss.readTimeSeries(pathname)));
+			assertTrue(expResult.equals(dss.readTimeSeries(pathname)));
+			assertTrue(dss.isOpen());
+		}
+
+		assertFalse(dss.isOpen());
+
+		// closing without a session does nothing
+		dss.close();
+		assertFalse(dss.isOpen());
+	}
+
+	@Test
+	public void testHecMinutesToMillis() {
+
+		DateTime dateTime = new DateTime(2020, 10, 1, 1, 0);
+		HecTime hecTime = dateTime.getHecTime();
+
+		assertEquals(hecTime.getTimeInMillis(), DSS.hecMinutesToMillis(hecTime.value()));
+		assertEquals(dateTime.getTimeInMillis(), DSS.hecMinutesToMillis(hecTime.value()));
+	}
+
+	@Test
+	public void testConvertTSC() {
+
+		HecTime start = new DateTime(2020, 10, 1, 1, 0).getHecTime();
+		int[] hecTimes = IntStream.range(0, 24).map(t -> start.value() + 60 * t).toArray();
+		double[] values = IntStream.range(0, 24).asDoubleStream().toArray();
+
+		TimeSeriesContainer tsc = new TimeSeriesContainer();
+		tsc.times = hecTimes;
+		tsc.values = values;
+		tsc.numberValues = hecTimes.length;
+
+		long[] times = IntStream.range(0, 24).mapToLong(t -> DSS.hecMinutesToMillis(hecTimes[t])).toArray();
+
+		// regular record
+		TimeSeries result = DSS.convertTSC(tsc);
+		assertTrue(result instanceof RegularTimeSeries);
+		assertTrue(new TimeSeries(times, values).equals(result));
+
+		// irregular record
+		hecTimes[5] += 30;
+		times[5] += 30 * 60000;
+		result = DSS.convertTSC(tsc);
+		assertFalse(result instanceof RegularTimeSeries);
+		assertTrue(new TimeSeries(times, values).equals(result));
+
+		// container values aren't shared with the time series
+		values[0] = -1;
+		assertEquals(0, result.getValues()[0], 0);
+	}
+
 }
@@ -5,6 +5,12 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
 
 import org.junit.Test;
 
@@ -52,4 +58,109 @@ public class DateTimeTest {
 		assertNotEquals(obj, t1);
 	}
 
+	@Test
+	public void testHashCode() {
+
+		DateTime t1 = new DateTime(2021, 10, 01, 12, 00);
+		DateTime t2 = new DateTime(t1.getTimeInMillis());
+
+		assertEquals(t1.hashCode(), t2.hashCode());
+		assertEquals(t1.hashCode(), new DateTime(t1).hashCode());
+	}
+
+	@Test
+	public void testCalendarFields() {
+
+		// 2021-10-01 was a Friday
+		DateTime t1 = new DateTime(2021, 10, 01, 13, 30);
+		assertEquals(2021, t1.getYear());
+		assertEquals(10, t1.getMonth());
+		assertEquals(1, t1.getDayOfMonth());
+		assertEquals(13, t1.getHourOfDay());
+		assertEquals(6, t1.getDayOfWeek());
+		assertFalse(t1.isHour());
+		assertEquals(new DateTime(2021, 10, 01, 13, 00), t1.getHour());
+		assertEquals(new DateTime(2021, 10, 01, 14, 00), t1.getNextHour());
+
+		// leap day
+		DateTime t2 = new DateTime(2020, 02, 29, 01, 00);
+		assertEquals(2020, t2.getYear());
+		assertEquals(2, t2.getMonth());
+		assertEquals(29, t2.getDayOfMonth());
+		assertEquals(t2, new DateTime(2020, 02, 28, 01, 00).addHours(24));
+	}
+
+	@Test
+	public void testMidnight() {
+
+		// midnight is hour 24 of the previous day
+		DateTime midnight = new DateTime(2021, 01, 01, 00, 00);
+		assertEquals(midnight, new DateTime(2020, 12, 31, 24, 00));
+		assertEquals(2020, midnight.getYear());
+		assertEquals(12, midnight.getMonth());
+		assertEquals(31, midnight.getDayOfMonth());
+		assertEquals(24, midnight.getHourOfDay());
+		// 2020-12-31 was a Thursday
+		assertEquals(5, midnight.getDayOfWeek());
+		assertTrue(midnight.isHour());
+
+		DateTime oneAm = midnight.addHours(1);
+		assertEquals(2021, oneAm.getYear());
+		assertEquals(1, oneAm.getMonth());
+		assertEquals(1, oneAm.getDayOfMonth());
+		assertEquals(1, oneAm.getHourOfDay());
+		assertEquals(6, oneAm.getDayOfWeek());
+	}
+
+	@Test
+	public void testArithmetic() {
+
+		DateTime t1 = new DateTime(2021, 10, 01, 01, 00);
+		DateTime t2 = new DateTime(2021, 10, 02, 24, 00);
+
+		assertEquals(48, t2.diffHours(t1));
+		assertEquals(t1, t1.addHours(5).subtractHours(5));
+		assertEquals(t1.addHours(1), t1.addMinutes(60));
+		assertEquals(t1.addMinutes(1), t1.addSeconds(90));
+		assertEquals(t1.getTimeInMinutes() * 60000, t1.getTimeInMillis());
+		assertEquals(t1, DateTime.fromTimeInMinutes(t1.getTimeInMinutes()));
+		assertEquals(t1, new DateTime(t1.getHecTime()));
+	}
+
+	@Test
+	public void testInvalidFields() {
+
+		int[][] fields = { { 2021, 2, 29, 1, 0 }, { 2020, 2, 30, 1, 0 }, { 2021, 4, 31, 1, 0 }, { 2021, 2, 31, 1, 0 },
+				{ 1900, 2, 29, 1, 0 }, { 2021, 13, 1, 1, 0 }, { 2021, 1, 0, 1, 0 }, { 2021, 1, 1, 24, 30 },
+				{ 2021, 1, 1, 25, 0 }, { 2021, 1, 1, 1, 60 } };
+
+		for (int[] f : fields) {
+			try {
+				new DateTime(f[0], f[1], f[2], f[3], f[4]);
+				fail();
+			} catch (IllegalArgumentException e) {
+				;
+			}
+		}
+
+		assertEquals(29, new DateTime(2000, 2, 29, 1, 0).getDayOfMonth());
+		assertEquals(30, new DateTime(2021, 4, 30, 24, 0).getDayOfMonth());
+	}
+
+	@Test
+	public void testGregorianFields() {
+
+		// fields agree with the proleptic Gregorian calendar over several centuries
+		GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+		calendar.setGregorianChange(new Date(Long.MIN_VALUE));
+
+		for (long minutes = -200L * 525600; minutes < 200L * 525600; minutes += 1439) {
+			DateTime dateTime = DateTime.fromTimeInMinutes(minutes);
+			calendar.setTimeInMillis(dateTime.getTimeInMillis() - 1);
+			assertEquals(calendar.get(Calendar.YEAR), dateTime.getYear());
+			assertEquals(calendar.get(Calendar.MONTH) + 1, dateTime.getMonth());
+			assertEquals(calendar.get(Calendar.DAY_OF_MONTH), dateTime.getDayOfMonth());
+		}
+	}
+
 }
@@ -0,0 +1,91 @@
+package gov.usgs.scalp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ExactExponentialIntegratorTest {
+
+	private static final double[] K = { 3500, 3600, 3700 };
+
+	// routes a constant inflow through three reservoirs in series and returns the
+	// reservoir outflows at the end of each hour
+	private static double[][] route(Integrator integrator, int timeStep, double[] initialFlows, double inflow,
+			int nHours) {
+
+		SingleLinearReservoir[] reservoirs = new SingleLinearReservoir[3];
+		for (int i = 0; i < 3; i++)
+			reservoirs[i] = new SingleLinearReservoir(K[i], new FlowValue(initialFlows[i]), Double.POSITIVE_INFINITY,
+					Double.POSITIVE_INFINITY, integrator);
+
+		double deltaT = timeStep * 60;
+		int stepsPerHour = 60 / timeStep;
+		double[][] outflows = new double[nHours][3];
+
+		for (int hour = 0; hour < nHours; hour++) {
+			for (int step = 0; step < stepsPerHour; step++) {
+				FlowValue flow = new FlowValue(inflow);
+				for (int i = 0; i < 3; i++) {
+					flow = reservoirs[i].step(flow, deltaT)[0];
+					outflows[hour][i] = flow.getTotal();
+				}
+			}
+		}
+
+		return outflows;
+	}
+
+	@Test
+	public void testLateralReservoir() {
+
+		double[] initialFlows = { 100, 0, 0 };
+		double inflow = 500;
+		int nHours = 12;
+
+		// inflow into the first reservoir is constant, so its outflow is exact at any
+		// time step
+		for (int timeStep : new int[] { 1, 15, 60 }) {
+			double[][] outflows = route(new ExactExponentialIntegrator(), timeStep, initialFlows, inflow, nHours);
+			for (int hour = 0; hour < nHours; hour++) {
+				double[] analytic = AnalyticSolver.compute(K, initialFlows, inflow, (hour + 1) * 3600.0);
+				assertEquals(analytic[0], outflows[hour][0], 1e-9);
+			}
+		}
+	}
+
+	@Test
+	public void testCascade() {
+
+		double[] initialFlows = { 0, 0, 0 };
+		double inflow = 500;
+		int nHours = 12;
+
+		// downstream reservoirs see upstream outflow as constant over each step, so
+		// they are approximate but no less accurate than the Euler method
+		for (int timeStep : new int[] { 15, 60 }) {
+			double[][] exact = route(new ExactExponentialIntegrator(), timeStep, initialFlows, inflow, nHours);
+			double[][] euler = route(new EulerIntegrator(), timeStep, initialFlows, inflow, nHours);
+			for (int hour = 0; hour < nHours; hour++) {
+				double[] analytic = AnalyticSolver.compute(K, initialFlows, inflow, (hour + 1) * 3600.0);
+				for (int i = 1; i < 3; i++) {
+					double exactError = Math.abs(exact[hour][i] - analytic[i]);
+					double eulerError = Math.abs(euler[hour][i] - analytic[i]);
+					assertTrue(exactError <= eulerError);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testPassThrough() {
+
+		SingleLinearReservoirODE ode = new SingleLinearReservoirODE(0);
+		Integrator integrator = new ExactExponentialIntegrator();
+
+		assertEquals(3.0, integrator.integrate(ode, 60, 3.0, 1.0), 0);
+		assertEquals(new FlowValue(1, 2, 3),
+				integrator.integrate(ode, 60, new FlowValue(1, 2, 3), new FlowValue(4, 5, 6)));
+	}
+
+}
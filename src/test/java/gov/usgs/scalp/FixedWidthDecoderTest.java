@@ -0,0 +1,107 @@
+package gov.usgs.scalp;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class FixedWidthDecoderTest {
+
+	private static final String[] INTS = { "0", "1", "-1", "+1", "  42  ", "00000042", "123456789", "-123456789",
+			"2147483647", "-2147483648", "-0", "\t7\t" };
+
+	private static final String[] BAD_INTS = { "", "   ", "-", "+", "1.0", "1 2", "12a", "--1", "2147483648",
+			"9999999999" };
+
+	private static final String[] DOUBLES = { "0", "0.", ".0", "-0.0", "1", "-1", "+1.5", "  3.25  ", "0.1", "0.3",
+			"123.456", "1.E5", "1.5E+01", "1.5e-01", "-2.5E-3", "6.02214076E23", "1E22", "1E-22", "1E23", "1E-400",
+			"1.7976931348623157E308", "4.9E-324", "123456789012345", "1234567890123456", "0.000000000000000000000001",
+			"9007199254740993", "1d", "1.0f", "NaN", "-Infinity", "0x1p3", "000000000000000000001.5",
+			"0.1234567890123456789" };
+
+	private static final String[] BAD_DOUBLES = { "", "  ", ".", "-", "1.0.0", "E5", "1E", "1E+", "1.0 2", "1,0",
+			"1E5.0" };
+
+	/**
+	 * Test of parseInt method, of class FixedWidthDecoder.
+	 */
+	@Test
+	public void testParseInt() {
+
+		for (String s : INTS) {
+
+			String line = "xx" + s + "yy";
+			assertEquals(s, Integer.parseInt(s.trim()), FixedWidthDecoder.parseInt(line, 2, 2 + s.length()));
+		}
+
+		for (String s : BAD_INTS) {
+			try {
+				FixedWidthDecoder.parseInt(s, 0, s.length());
+				fail(s);
+			} catch (NumberFormatException e) {
+				;
+			}
+		}
+	}
+
+	/**
+	 * Test of isInt method, of class FixedWidthDecoder.
+	 */
+	@Test
+	public void testIsInt() {
+
+		for (String s : INTS)
+			assertTrue(s, FixedWidthDecoder.isInt(s, 0, s.length()));
+
+		for (String s : BAD_INTS)
+			assertFalse(s, FixedWidthDecoder.isInt(s, 0, s.length()));
+
+		String[] ints = { "-2147483649", "00000000002147483647", "99999999999999999999", "\u0661\u0662" };
+		for (String s : ints) {
+			boolean expResult;
+			try {
+				Integer.parseInt(s);
+				expResult = true;
+			} catch (NumberFormatException e) {
+				expResult = false;
+			}
+			assertEquals(s, expResult, FixedWidthDecoder.isInt(s, 0, s.length()));
+		}
+	}
+
+	/**
+	 * Test of parseDouble method, of class FixedWidthDecoder.
+	 */
+	@Test
+	public void testParseDouble() {
+
+		for (String s : DOUBLES)
+			assertParseDouble(s);
+
+		for (String s : BAD_DOUBLES) {
+			try {
+				FixedWidthDecoder.parseDouble(s, 0, s.length());
+				fail(s);
+			} catch (NumberFormatException e) {
+				;
+			}
+		}
+
+		Random random = new Random(1);
+		for (int i = 0; i < 100000; i++) {
+			double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(20) - 10);
+			assertParseDouble(String.format("%" + (8 + random.nextInt(8)) + "." + random.nextInt(8) + "f", value));
+			assertParseDouble(String.format("%" + (12 + random.nextInt(8)) + "." + random.nextInt(8) + "E", value));
+			assertParseDouble(Double.toString(value));
+		}
+	}
+
+	// asserts that a field decodes to the same bits as Double.parseDouble
+	private static void assertParseDouble(String s) {
+		String line = "12" + s + "34";
+		double result = FixedWidthDecoder.parseDouble(line, 2, 2 + s.length());
+		assertEquals(s, Double.doubleToRawLongBits(Double.parseDouble(s.trim())), Double.doubleToRawLongBits(result));
+	}
+
+}
@@ -60,4 +60,35 @@ public class FlowTimeSeriesTest {
 		assertEquals(expected, result);
 	}
 
+	@Test
+	public void testConstituents() {
+
+		DateTime dateTime = new DateTime(2021, 10, 1, 1, 0);
+
+		int nHours = 12;
+
+		AvgFlowTimeSeries timeSeries = new AvgFlowTimeSeries();
+
+		for (int i = nHours - 1; i >= 0; i--) {
+			timeSeries.put(dateTime.addHours(i), new FlowValue(i, 2 * i, 3 * i));
+		}
+
+		TimeSeries infiltration = timeSeries.getInfiltration();
+		TimeSeries sanitary = timeSeries.getSanitary();
+		TimeSeries stormWater = timeSeries.getStormWater();
+		TimeSeries total = timeSeries.getTotalFlow();
+
+		assertEquals(nHours, timeSeries.nObs());
+		assertEquals(nHours, total.nObs());
+
+		for (int i = 0; i < nHours; i++) {
+			DateTime t = dateTime.addHours(i);
+			assertEquals(new FlowValue(i, 2 * i, 3 * i), timeSeries.getValue(t));
+			assertEquals(i, infiltration.getValue(t), 0);
+			assertEquals(2 * i, sanitary.getValue(t), 0);
+			assertEquals(3 * i, stormWater.getValue(t), 0);
+			assertEquals(6 * i, total.getValue(t), 0);
+		}
+	}
+
 }
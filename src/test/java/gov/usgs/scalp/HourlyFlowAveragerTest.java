@@ -0,0 +1,57 @@
+package gov.usgs.scalp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class HourlyFlowAveragerTest {
+
+	@Test
+	public void testGetAveraged() {
+
+		// irregular minute times that skip hours and start before the epoch
+		long start = -90 * 60000L;
+		int nTimes = 500;
+		long[] times = new long[nTimes];
+		double[] infiltration = new double[nTimes];
+		double[] sanitary = new double[nTimes];
+		double[] stormWater = new double[nTimes];
+
+		long time = start;
+		for (int i = 0; i < nTimes; i++) {
+			times[i] = time;
+			infiltration[i] = 0.1 * i;
+			sanitary[i] = Math.sin(i);
+			stormWater[i] = i % 37 < 5 ? 25 : 0;
+			time += (i % 50 == 49 ? 185 : 1 + i % 7) * 60000L;
+		}
+
+		InstFlowTimeSeries instTS = new InstFlowTimeSeries(times, infiltration, sanitary, stormWater);
+		AvgFlowTimeSeries expected = instTS.getAveraged();
+
+		HourlyFlowAverager averager = new HourlyFlowAverager(4);
+		for (int i = 0; i < nTimes; i++)
+			averager.add(times[i], infiltration[i], sanitary[i], stormWater[i]);
+		AvgFlowTimeSeries actual = averager.getAveraged();
+
+		assertArrayEquals(expected.timeColumn(), actual.timeColumn());
+		assertArrayEquals(expected.infiltrationColumn(), actual.infiltrationColumn(), 0);
+		assertArrayEquals(expected.sanitaryColumn(), actual.sanitaryColumn(), 0);
+		assertArrayEquals(expected.stormWaterColumn(), actual.stormWaterColumn(), 0);
+
+		try {
+			averager.add(time, 0, 0, 0);
+			fail();
+		} catch (IllegalStateException e) {
+			;
+		}
+	}
+
+	@Test
+	public void testEmpty() {
+		assertEquals(0, new HourlyFlowAverager(0).getAveraged().timeColumn().length);
+	}
+
+}
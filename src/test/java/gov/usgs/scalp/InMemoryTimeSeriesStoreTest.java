@@ -0,0 +1,93 @@
+package gov.usgs.scalp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.text.ParseException;
+
+import org.junit.Test;
+
+public class InMemoryTimeSeriesStoreTest {
+
+	private static TimeSeries hourlyTimeSeries(DateTime start, int nHours, double offset) {
+		long[] times = new long[nHours];
+		double[] values = new double[nHours];
+		for (int i = 0; i < nHours; i++) {
+			times[i] = start.addHours(i).getTimeInMillis();
+			values[i] = offset + i;
+		}
+		return new TimeSeries(times, values);
+	}
+
+	@Test
+	public void testReadWrite() {
+
+		TimeSeriesStore store = new InMemoryTimeSeriesStore("memory");
+		DateTime start = new DateTime(2020, 10, 1, 1, 0);
+		TimeSeries timeSeries = hourlyTimeSeries(start, 48, 0);
+
+		assertEquals("memory", store.getName());
+		assertSame(store, store.open());
+		assertEquals(0, store.writeTimeSeries("/A/B/FLOW//1HOUR/F/", timeSeries));
+
+		assertEquals(timeSeries, store.readTimeSeries("/A/B/FLOW//1HOUR/F/"));
+		assertNull(store.readTimeSeries("/A/B/FLOW//1HOUR/MISSING/"));
+		assertNull(store.readTimeSeries("/A/B/FLOW//1HOUR/MISSING/", start, start.addHours(1)));
+
+		// the window includes its start and end times
+		TimeSeries window = store.readTimeSeries("/A/B/FLOW//1HOUR/F/", start.addHours(10), start.addHours(20));
+		assertEquals(11, window.nObs());
+		assertEquals(start.addHours(10), window.getTime(0));
+		assertArrayEquals(new double[] { 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20 }, window.getValues(), 0);
+
+		assertEquals(0, store.readTimeSeries("/A/B/FLOW//1HOUR/F/", start.addHours(100), start.addHours(120)).nObs());
+
+		store.close();
+	}
+
+	@Test
+	public void testBulkWriteAndCatalog() {
+
+		TimeSeriesStore store = new InMemoryTimeSeriesStore("memory");
+		DateTime start = new DateTime(2020, 10, 1, 1, 0);
+		String[] pathnames = { "/A/B/FLOW//1HOUR/F2/", "/A/B/FLOW//1HOUR/F1/" };
+		TimeSeries[] timeSeries = { hourlyTimeSeries(start, 24, 0), hourlyTimeSeries(start, 24, 100) };
+
+		assertEquals(0, store.writeTimeSeries(pathnames, timeSeries).length);
+		assertArrayEquals(new String[] { "/A/B/FLOW//1HOUR/F1/", "/A/B/FLOW//1HOUR/F2/" }, store.getCatalog());
+		assertEquals(timeSeries[1], store.readTimeSeries(pathnames[1]));
+
+		// records are copied on write
+		timeSeries[0].put(start.addHours(30), 1);
+		assertEquals(24, store.readTimeSeries(pathnames[0]).nObs());
+	}
+
+	@Test
+	public void testWatershed() throws ParseException {
+
+		String[] lines = TestInputs.watershedLines("2016      10      03", 2, 3);
+
+		// runoff records cover more than the time span of the watershed
+		TimeSeriesStore store = new InMemoryTimeSeriesStore("memory");
+		DateTime start = new DateTime(2016, 9, 30, 1, 0);
+		for (String parts : new String[] { "A=BONEYARD B=GAGE 2", "A=BONEYARD B=GAGE 3" }) {
+			InputDSSPathStrings paths = new InputDSSPathStrings(parts);
+			store.writeTimeSeries(paths.getImproPath(), hourlyTimeSeries(start, 120, 0));
+			store.writeTimeSeries(paths.getOlfroPath(), hourlyTimeSeries(start, 120, 1000));
+			store.writeTimeSeries(paths.getSubroPath(), hourlyTimeSeries(start, 120, 2000));
+		}
+
+		Watershed watershed = new Watershed(new WatershedInputBlock(new InputFile(lines)), store, 2);
+		double[][] runoff = watershed.getRunoffColumns(3);
+		DateTime first = new DateTime(2016, 10, 1, 1, 0);
+		double firstHour = first.diffHours(start) - 1;
+
+		assertEquals(firstHour, runoff[Watershed.IMPERVIOUS][0], 0);
+		assertEquals(1000 + firstHour, runoff[Watershed.OVERLAND][0], 0);
+		assertEquals(2000 + firstHour + runoff[Watershed.SUBSURFACE].length - 1,
+				runoff[Watershed.SUBSURFACE][runoff[Watershed.SUBSURFACE].length - 1], 0);
+	}
+
+}
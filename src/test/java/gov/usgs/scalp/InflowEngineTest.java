@@ -0,0 +1,138 @@
+package gov.usgs.scalp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.text.ParseException;
+
+import org.junit.Test;
+
+public class InflowEngineTest {
+
+	private static Watershed watershed() throws ParseException {
+		return TestInputs.watershed("2017      09      30");
+	}
+
+	private static SpecialContributingArea[] scas(Watershed watershed, Sanitary sanitary) throws ParseException {
+		SCAInputBlock[] blocks = {
+				TestInputs.scaBlock(1, "SEG#,AREA=             2   0.021   0.031   0.031",
+						"SEG#,AREA=             3   0.046   0.060   0.060"),
+				TestInputs.scaBlock(2, "SEG#,AREA=             5   0.121   0.008   0.301"),
+				TestInputs.scaBlock(3, "SEG#,AREA=             3   0.011   0.020   0.013",
+						"SEG#,AREA=             5   0.033   0.041   0.052",
+						"SEG#,AREA=             2   0.071   0.090   0.004") };
+		SpecialContributingArea[] scas = new SpecialContributingArea[blocks.length];
+		for (int i = 0; i < blocks.length; i++)
+			scas[i] = new SpecialContributingArea(blocks[i], watershed, sanitary);
+		return scas;
+	}
+
+	// inflow of an SCA summed from land segment time series
+	private static TimeSeries[] summedInflow(SpecialContributingArea sca, Watershed watershed) {
+
+		int[] segmentNumbers = sca.getSegmentNumbers();
+		TimeSeries infiltration = null;
+		TimeSeries stormWater = null;
+
+		for (int j = 0; j < segmentNumbers.length; j++) {
+			LandSegment landSegment = new LandSegment(sca.getSegmentArea(j),
+					watershed.getLandSegment(segmentNumbers[j]));
+			infiltration = j == 0 ? landSegment.infiltration() : infiltration.add(landSegment.infiltration());
+			stormWater = j == 0 ? landSegment.stormWaterFlow() : stormWater.add(landSegment.stormWaterFlow());
+		}
+
+		return new TimeSeries[] { infiltration, stormWater };
+	}
+
+	@Test
+	public void testAssemble() throws ParseException {
+
+		Watershed watershed = watershed();
+		Sanitary sanitary = TestInputs.sanitary();
+		SpecialContributingArea[] scas = scas(watershed, sanitary);
+
+		assertTrue(InflowEngine.canAssemble(scas));
+
+		InflowEngine engine = new InflowEngine(scas, watershed);
+		assertEquals(scas.length, engine.nSCAs());
+
+		for (int nThreads : new int[] { 1, 3 }) {
+
+			double[][][] inflow = engine.assemble(0, scas.length, nThreads);
+
+			for (int i = 0; i < scas.length; i++) {
+
+				// inflow is identical to inflow summed from time series
+				TimeSeries[] expected = summedInflow(scas[i], watershed);
+
+				assertArrayEquals(expected[0].getValues(), inflow[InflowEngine.INFILTRATION][i], 0);
+				assertArrayEquals(expected[1].getValues(), inflow[InflowEngine.STORM_WATER][i], 0);
+				assertArrayEquals(expected[0].getValues(), scas[i].getInflowTimeSeries().infiltrationColumn(), 0);
+			}
+		}
+
+		// a batch of SCAs is assembled as the same SCAs of all SCAs
+		double[][][] all = engine.assemble(0, scas.length, 1);
+		double[][][] batch = engine.assemble(1, 3, 2);
+		assertEquals(2, batch[InflowEngine.INFILTRATION].length);
+		for (int i = 0; i < 2; i++) {
+			assertArrayEquals(all[InflowEngine.INFILTRATION][i + 1], batch[InflowEngine.INFILTRATION][i], 0);
+			assertArrayEquals(all[InflowEngine.STORM_WATER][i + 1], batch[InflowEngine.STORM_WATER][i], 0);
+		}
+
+		try {
+			engine.assemble(2, 4, 1);
+			fail();
+		} catch (IndexOutOfBoundsException e) {
+			;
+		}
+	}
+
+	@Test
+	public void testAssembleTimeBlocks() throws ParseException {
+
+		Watershed watershed = watershed();
+		SpecialContributingArea[] scas = scas(watershed, TestInputs.sanitary());
+
+		// a year of hourly runoff is split into several blocks of time steps
+		assertTrue(scas[0].getRunoffAxis().nObs() > 2 * 2048);
+
+		InflowEngine engine = new InflowEngine(scas, watershed);
+		double[][][] expected = engine.assemble(0, scas.length, 1);
+
+		for (int nThreads : new int[] { 2, 4, 8 }) {
+
+			double[][][] inflow = engine.assemble(0, scas.length, nThreads);
+
+			for (int i = 0; i < scas.length; i++) {
+				assertArrayEquals(expected[InflowEngine.INFILTRATION][i], inflow[InflowEngine.INFILTRATION][i], 0);
+				assertArrayEquals(expected[InflowEngine.STORM_WATER][i], inflow[InflowEngine.STORM_WATER][i], 0);
+			}
+		}
+	}
+
+	@Test
+	public void testAssembledInflow() throws ParseException {
+
+		Watershed watershed = watershed();
+		Sanitary sanitary = TestInputs.sanitary();
+		SpecialContributingArea[] scas = scas(watershed, sanitary);
+
+		double[][][] inflow = new InflowEngine(scas, watershed).assemble(0, scas.length, 2);
+
+		for (int i = 0; i < scas.length; i++) {
+
+			AvgFlowTimeSeries expected = scas[i].getInflowTimeSeries();
+
+			scas[i].setAssembledInflow(inflow[InflowEngine.INFILTRATION][i], inflow[InflowEngine.STORM_WATER][i]);
+
+			assertEquals(expected, scas[i].getInflowTimeSeries());
+
+			// assembled inflow is released once it is used
+			assertEquals(expected, scas[i].getInflowTimeSeries());
+		}
+	}
+
+}
@@ -5,8 +5,15 @@
  */
 package gov.usgs.scalp;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -98,6 +105,38 @@ public class InputFileTest {
 		assertNull(result);
 	}
 
+	/**
+	 * Test of peekNonEmptyLine method, of class InputFile.
+	 */
+	@Test
+	public void testPeekNonEmptyLine() throws IOException {
+		String[] lines = { "+++ This is a comment line.", "This is the first test line.", " ",
+				"This is the second test line." };
+
+		InputFile instance = new InputFile(lines);
+		assertEquals(2, instance.peekNonEmptyLine().getLineNo());
+		assertEquals(2, instance.peekNonEmptyLine().getLineNo());
+		assertEquals(2, instance.nextNonEmptyLine().getLineNo());
+		assertEquals(4, instance.peekNonEmptyLine().getLineNo());
+		assertEquals(4, instance.nextLine().getLineNo());
+		assertNull(instance.peekNonEmptyLine());
+
+		// streamed files look ahead with one line kept
+		Path path = Files.createTempFile("InputFileTest", ".txt");
+		try {
+			Files.write(path, String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+			try (InputFile streamedFile = new InputFile(path.toString(), 1)) {
+				assertEquals(2, streamedFile.peekNonEmptyLine().getLineNo());
+				assertEquals(2, streamedFile.nextNonEmptyLine().getLineNo());
+				assertEquals(4, streamedFile.peekNonEmptyLine().getLineNo());
+				assertEquals(4, streamedFile.nextNonEmptyLine().getLineNo());
+				assertNull(streamedFile.peekNonEmptyLine());
+			}
+		} finally {
+			Files.delete(path);
+		}
+	}
+
 	/**
 	 * Test of setCurrentLineNo method, of class InputFile.
 	 */
@@ -126,4 +165,128 @@ public class InputFileTest {
 		}
 	}
 
+	/**
+	 * Test of reading lines from a file, of class InputFile.
+	 */
+	@Test
+	public void testReadLines() throws IOException, ParseException {
+
+		String[] contents = { "", "\n", "one", "one\n", "one\ntwo", "one\r\ntwo\r\n", "one\rtwo\r", "one\n\n\r\n",
+				"+++ comment\r\n    42    1.5E+01\n" };
+
+		Path path = Files.createTempFile("InputFileTest", ".txt");
+
+		try {
+			for (String content : contents) {
+
+				Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+				List<String> expLines = Files.readAllLines(path);
+				InputLine[] result = new InputFile(path.toString()).getLines();
+
+				assertEquals(expLines.size(), result.length);
+				for (int i = 0; i < result.length; i++) {
+					assertEquals(expLines.get(i), result[i].getLine());
+					assertEquals(i + 1, result[i].getLineNo());
+				}
+			}
+
+			InputFile instance = new InputFile(path.toString());
+			assertTrue(instance.nextLine().isComment());
+			InputFields fields = instance.nextNonEmptyLine().decode("I6,F11");
+			assertEquals(42, fields.getInt(0));
+			assertEquals(15.0, fields.getDouble(1), 0.0);
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	/**
+	 * Test of streaming lines from a file, of class InputFile.
+	 */
+	@Test
+	public void testStreamedFile() throws IOException {
+
+		Path path = Files.createTempFile("InputFileTest", ".txt");
+
+		try {
+			Files.write(path, "first\r\n+++ comment\n\nsecond\rthird".getBytes(StandardCharsets.UTF_8));
+
+			try (InputFile instance = new InputFile(path.toString(), 2)) {
+
+				InputLine inputLine = instance.nextNonEmptyLine();
+				assertEquals("first", inputLine.getLine());
+				assertEquals(1, inputLine.getLineNo());
+
+				instance.setCurrentLineNo(1);
+				assertEquals("first", instance.nextLine().getLine());
+
+				inputLine = instance.nextNonEmptyLine();
+				assertEquals("second", inputLine.getLine());
+				assertEquals(4, inputLine.getLineNo());
+
+				// lines 3 and 4 are kept
+				instance.setCurrentLineNo(3);
+				assertTrue(instance.nextLine().isEmpty());
+				instance.setCurrentLineNo(5);
+
+				try {
+					instance.setCurrentLineNo(2);
+					fail();
+				} catch (IllegalArgumentException e) {
+					;
+				}
+
+				try {
+					instance.setCurrentLineNo(6);
+					fail();
+				} catch (IllegalArgumentException e) {
+					;
+				}
+
+				assertEquals("third", instance.nextLine().getLine());
+				assertNull(instance.nextLine());
+				assertNull(instance.nextNonEmptyLine());
+
+				instance.setCurrentLineNo(5);
+				assertEquals("third", instance.nextLine().getLine());
+
+				// only kept lines are returned, and all lines are read again one at a time
+				assertEquals("second", instance.getLine(3).getLine());
+				try {
+					instance.getLine(2);
+					fail();
+				} catch (IllegalArgumentException e) {
+					;
+				}
+
+				try {
+					instance.getLines();
+					fail();
+				} catch (IllegalStateException e) {
+					;
+				}
+
+				List<String> lines = new ArrayList<>();
+				instance.forEachLine(l -> lines.add(l.getLineNo() + ": " + l.getLine()));
+				assertEquals(Arrays.asList("1: first", "2: +++ comment", "3: ", "4: second", "5: third"), lines);
+			}
+		} finally {
+			Files.delete(path);
+		}
+
+		try {
+			new InputFile(path.toString(), 1);
+			fail();
+		} catch (RuntimeException e) {
+			assertEquals("Unable to open file " + path.toString(), e.getMessage());
+		}
+
+		try {
+			new InputFile(path.toString(), 0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			;
+		}
+	}
+
 }
@@ -4,6 +4,8 @@ import org.junit.Test;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
 import java.text.ParseException;
@@ -113,4 +115,91 @@ public class InputLineTest {
 		}
 
 	}
+
+	@Test
+	public void testDecode() throws ParseException {
+		InputLine segmentLine = new InputLine("SEG#,AREA=             2   0.021   0.031   0.031", 12);
+		InputFields fields = segmentLine.decode("A3,13X,I8,3F8");
+
+		assertEquals(5, fields.size());
+		assertEquals("SEG", fields.getString(0));
+		assertEquals(2, fields.getInt(1));
+		assertEquals(0.021, fields.getDouble(2), 0);
+		assertEquals(0.031, fields.getDouble(4), 0);
+
+		// decoded values are the values parsed as objects
+		assertArrayEquals(segmentLine.parse("A3,13X,I8,3F8"), fields.toArray());
+
+		try {
+			fields.getDouble(1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			;
+		}
+
+		try {
+			fields.getString(2);
+			fail();
+		} catch (IllegalArgumentException e) {
+			;
+		}
+
+		try {
+			new InputLine("SEG#,AREA=             2   0.021", 12).decode("A3,13X,I8,3F8");
+			fail();
+		} catch (ParseException e) {
+			assertEquals("Parse failure", e.getMessage());
+			assertEquals(12, e.getErrorOffset());
+		}
+	}
+
+	@Test
+	public void testInputFormat() {
+		InputFormat format = InputFormat.of("16X,3(5X,A3)");
+
+		// formats are compiled once
+		assertSame(format, InputFormat.of("16X,3(5X,A3)"));
+
+		assertEquals(3, format.nValues());
+		assertEquals('A', format.getValueType(2));
+	}
+
+	@Test
+	public void testMatches() throws ParseException {
+		String[] lines = { "END", "END   ", "ENDING DATE", "EN", "FINISH", "FINISH   ", "FINISH    X", " END" };
+		String[] keywords = { "END", "FINISH" };
+		int[] widths = { 3, 9 };
+
+		// keywords match as decoded A fields
+		for (String line : lines) {
+			InputLine inputLine = new InputLine(line);
+			for (int i = 0; i < keywords.length; i++) {
+				boolean expResult = keywords[i].equals(inputLine.decode("A" + widths[i]).getString(0));
+				assertEquals(line, expResult, inputLine.matches(keywords[i], widths[i]));
+			}
+		}
+	}
+
+	@Test
+	public void testCanDecode() {
+		String[] lines = { "       2 A=BONEYARD B=GAGE 2", "END", "        A=BONEYARD", "       2", "      -2 X",
+				"2147483648 X", "     1.5 X", "       ? X", "  2.5E-1", "  2.5E-1 0.5", "  2.5E-1   NaN",
+				"  2.5E-1 ?" };
+		String[] descriptors = { "I8,A72", "8X,A72", "F8,F8" };
+
+		// lines can be decoded exactly when decode doesn't throw
+		for (String line : lines) {
+			InputLine inputLine = new InputLine(line);
+			for (String descriptor : descriptors) {
+				boolean expResult;
+				try {
+					inputLine.decode(descriptor);
+					expResult = true;
+				} catch (ParseException e) {
+					expResult = false;
+				}
+				assertEquals(line + " " + descriptor, expResult, inputLine.canDecode(InputFormat.of(descriptor)));
+			}
+		}
+	}
 }
@@ -0,0 +1,163 @@
+package gov.usgs.scalp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class InstFlowCursorTest {
+
+	private static AvgFlowTimeSeries avgFlowTimeSeries(long[] times) {
+
+		int nTimes = times.length;
+		double[] infiltration = new double[nTimes];
+		double[] sanitary = new double[nTimes];
+		double[] stormWater = new double[nTimes];
+
+		for (int i = 0; i < nTimes; i++) {
+			infiltration[i] = 0.75 + i;
+			sanitary[i] = 0.1 * (i % 24) / 24;
+			stormWater[i] = i % 24 < 3 ? 25 : 0;
+		}
+
+		return new AvgFlowTimeSeries(times, infiltration, sanitary, stormWater);
+	}
+
+	private static long[] hourlyTimes(int nHours) {
+		long start = new DateTime(2020, 10, 1, 1, 0).getTimeInMillis();
+		long[] times = new long[nHours];
+		for (int i = 0; i < nHours; i++)
+			times[i] = start + i * 3600000L;
+		return times;
+	}
+
+	@Test
+	public void testCursor() {
+
+		// hourly times with a gap of a day
+		long[] times = hourlyTimes(72);
+		for (int i = 48; i < times.length; i++)
+			times[i] += 24 * 3600000L;
+
+		AvgFlowTimeSeries avgTS = avgFlowTimeSeries(times);
+
+		for (int timeStep : new int[] { 1, 7, 15, 60 }) {
+
+			InstFlowTimeSeries instTS = avgTS.getInstantaneous(timeStep);
+			InstFlowCursor cursor = avgTS.getInstantaneousCursor(timeStep);
+
+			assertEquals(instTS.timeColumn().length, cursor.size());
+
+			// the cursor may be traversed again after a reset
+			for (int pass = 0; pass < 2; pass++) {
+
+				int nTimes = cursor.size();
+				long[] cursorTimes = new long[nTimes];
+				double[] infiltration = new double[nTimes];
+				double[] sanitary = new double[nTimes];
+				double[] stormWater = new double[nTimes];
+
+				int i = 0;
+				while (cursor.next()) {
+					cursorTimes[i] = cursor.time();
+					infiltration[i] = cursor.infiltration();
+					sanitary[i] = cursor.sanitary();
+					stormWater[i] = cursor.stormWater();
+					i++;
+				}
+
+				assertEquals(nTimes, i);
+				assertFalse(cursor.next());
+
+				assertArrayEquals(instTS.timeColumn(), cursorTimes);
+				assertArrayEquals(instTS.infiltrationColumn(), infiltration, 0);
+				assertArrayEquals(instTS.sanitaryColumn(), sanitary, 0);
+				assertArrayEquals(instTS.stormWaterColumn(), stormWater, 0);
+
+				cursor.reset();
+			}
+		}
+	}
+
+	@Test
+	public void testRoute() {
+
+		AvgFlowTimeSeries avgTS = avgFlowTimeSeries(hourlyTimes(48));
+		int timeStep = 5;
+		double deltaT = timeStep * 60.0;
+
+		ReservoirInfo[] reservoirInfo = new ReservoirInfo[3];
+		reservoirInfo[0] = new ReservoirInfo(900, 6, 3, 1, false);
+		reservoirInfo[1] = new ReservoirInfo(1800, 10, 5, 1, false);
+		reservoirInfo[2] = new ReservoirInfo(0, 20, 8, 1, true);
+
+		InstFlowTimeSeries instTS = avgTS.getInstantaneous(timeStep);
+		double[][] inflow = new double[3][];
+		inflow[SingleLinearReservoir.INFILTRATION] = instTS.infiltrationColumn();
+		inflow[SingleLinearReservoir.SANITARY] = instTS.sanitaryColumn();
+		inflow[SingleLinearReservoir.STORM_WATER] = instTS.stormWaterColumn();
+
+		int nTimes = instTS.timeColumn().length;
+		double[][] sewer = new double[3][nTimes];
+		double[][] overflow = new double[3][nTimes];
+		new SewerCascade(reservoirInfo).route(inflow, deltaT, sewer, overflow);
+
+		AvgFlowTimeSeries avgSewer = new InstFlowTimeSeries(instTS.timeColumn(), sewer[SingleLinearReservoir.INFILTRATION],
+				sewer[SingleLinearReservoir.SANITARY], sewer[SingleLinearReservoir.STORM_WATER]).getAveraged();
+		AvgFlowTimeSeries avgOverflow = new InstFlowTimeSeries(instTS.timeColumn().clone(),
+				overflow[SingleLinearReservoir.INFILTRATION], overflow[SingleLinearReservoir.SANITARY],
+				overflow[SingleLinearReservoir.STORM_WATER]).getAveraged();
+
+		// routed flow is averaged as it's routed from the cursor
+		HourlyFlowAverager cursorSewer = new HourlyFlowAverager(48);
+		HourlyFlowAverager cursorOverflow = new HourlyFlowAverager(48);
+		new SewerCascade(reservoirInfo).route(avgTS.getInstantaneousCursor(timeStep), deltaT, cursorSewer,
+				cursorOverflow);
+
+		assertFlowEquals(avgSewer, cursorSewer.getAveraged());
+		assertFlowEquals(avgOverflow, cursorOverflow.getAveraged());
+	}
+
+	private static void assertFlowEquals(FlowTimeSeries expected, FlowTimeSeries actual) {
+		assertArrayEquals(expected.timeColumn(), actual.timeColumn());
+		assertArrayEquals(expected.infiltrationColumn(), actual.infiltrationColumn(), 0);
+		assertArrayEquals(expected.sanitaryColumn(), actual.sanitaryColumn(), 0);
+		assertArrayEquals(expected.stormWaterColumn(), actual.stormWaterColumn(), 0);
+	}
+
+	@Test
+	public void testIsHourlySpaced() {
+
+		long[] times = hourlyTimes(10);
+		assertTrue(InstFlowCursor.isHourlySpaced(times));
+
+		times[5] -= 60000;
+		assertFalse(InstFlowCursor.isHourlySpaced(times));
+
+		try {
+			avgFlowTimeSeries(times).getInstantaneousCursor(15);
+			fail();
+		} catch (IllegalStateException e) {
+			;
+		}
+	}
+
+	@Test
+	public void testInvalidTimeStep() {
+
+		AvgFlowTimeSeries avgTS = avgFlowTimeSeries(hourlyTimes(10));
+
+		for (int timeStep : new int[] { 0, 61 }) {
+			try {
+				avgTS.getInstantaneousCursor(timeStep);
+				fail();
+			} catch (IllegalArgumentException e) {
+				;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,185 @@
+package gov.usgs.scalp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleBiFunction;
+
+import org.junit.Test;
+
+public class LandSegmentLoaderTest {
+
+	/**
+	 * DSS file that generates runoff from the path name and the hour of each
+	 * observation. Reads of paths in segments with B part MISSING return null.
+	 * Each read takes a millisecond, and the largest number of concurrent reads
+	 * is counted.
+	 */
+	private static class RunoffDSS extends DSS {
+
+		private final ToDoubleBiFunction<String, Integer> runoff;
+		private final AtomicInteger nReading = new AtomicInteger();
+		private final AtomicInteger maxReading = new AtomicInteger();
+
+		/**
+		 * Constructs a DSS file with runoff computed by a function
+		 *
+		 * @param runoff
+		 *            runoff of a path name at an hour from the start of a read
+		 */
+		RunoffDSS(ToDoubleBiFunction<String, Integer> runoff) {
+			super("runoff.dss");
+			this.runoff = runoff;
+		}
+
+		@Override
+		public DSS open() {
+			return this;
+		}
+
+		@Override
+		public void close() {
+			;
+		}
+
+		@Override
+		public TimeSeries readTimeSeries(String pathname, DateTime startDateTime, DateTime endDateTime) {
+
+			maxReading.accumulateAndGet(nReading.incrementAndGet(), Math::max);
+			try {
+				Thread.sleep(1);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			nReading.decrementAndGet();
+
+			if (pathname.contains("/MISSING"))
+				return null;
+
+			int nTimes = endDateTime.diffHours(startDateTime);
+			long start = startDateTime.getTimeInMillis();
+			long[] times = new long[nTimes];
+			double[] values = new double[nTimes];
+			for (int i = 0; i < nTimes; i++) {
+				times[i] = start + i * 3600000L;
+				values[i] = runoff.applyAsDouble(pathname, i);
+			}
+
+			return new TimeSeries(times, values);
+		}
+
+		/**
+		 * Returns the largest number of reads that were made at the same time
+		 *
+		 * @return largest number of concurrent reads
+		 */
+		int maxConcurrentReads() {
+			return maxReading.get();
+		}
+	}
+
+	// DSS file that returns runoff equal to the path length plus the hour
+	private static RunoffDSS runoffDSS() {
+		return new RunoffDSS((pathname, hour) -> pathname.length() + hour);
+	}
+
+	private static DateTime[] simulationTimes() {
+		DateTime[] times = new DateTime[48];
+		DateTime start = new DateTime(2000, 1, 1, 1, 0);
+		for (int i = 0; i < times.length; i++)
+			times[i] = start.addHours(i);
+		return times;
+	}
+
+	private static String[] dssParts(int nSegments) {
+		String[] parts = new String[nSegments];
+		for (int i = 0; i < nSegments; i++)
+			parts[i] = "A=WATERSHED B=SEGMENT " + i;
+		return parts;
+	}
+
+	private static void assertSegments(String[] dssParts, DateTime[] times, LandSegmentTS[] segments) {
+
+		assertEquals(dssParts.length, segments.length);
+
+		for (int i = 0; i < segments.length; i++) {
+			assertEquals(dssParts[i], segments[i].getPathParts());
+			double[] impro = segments[i].imperviousRunoff().getValues();
+			double[] subro = segments[i].subsurfaceRunoff().getValues();
+			assertEquals(times.length, impro.length);
+			for (int j = 0; j < times.length; j++) {
+				assertEquals(segments[i].getImproPath().length() + j, impro[j], 0);
+				assertEquals(segments[i].getSubroPath().length() + j, subro[j], 0);
+			}
+		}
+	}
+
+	@Test
+	public void testLoad() {
+
+		DSS inputDSS = runoffDSS();
+		String[] dssParts = dssParts(25);
+		DateTime[] times = simulationTimes();
+
+		LandSegmentTS[] segments = new LandSegmentLoader(inputDSS, 1).load(dssParts, times);
+
+		assertSegments(dssParts, times, segments);
+	}
+
+	@Test
+	public void testLoadParallel() {
+
+		RunoffDSS inputDSS = runoffDSS();
+		String[] dssParts = dssParts(25);
+		DateTime[] times = simulationTimes();
+
+		LandSegmentTS[] sequential = new LandSegmentLoader(inputDSS, 1).load(dssParts, times);
+		LandSegmentTS[] parallel = new LandSegmentLoader(inputDSS, 4).load(dssParts, times);
+
+		assertSegments(dssParts, times, parallel);
+
+		for (int i = 0; i < sequential.length; i++)
+			assertArrayEquals(sequential[i].overlandRunoff().getValues(), parallel[i].overlandRunoff().getValues(), 0);
+
+		// workers never read the DSS file at the same time
+		assertEquals(1, inputDSS.maxConcurrentReads());
+	}
+
+	@Test
+	public void testLoadFailures() {
+
+		DSS inputDSS = runoffDSS();
+		String[] dssParts = dssParts(10);
+		dssParts[2] = "A=WATERSHED B=MISSING 2";
+		dssParts[7] = "A=WATERSHED B=MISSING 7";
+
+		for (int nThreads : new int[] { 1, 3 }) {
+			try {
+				new LandSegmentLoader(inputDSS, nThreads).load(dssParts, simulationTimes());
+				fail();
+			} catch (RuntimeException e) {
+				// all failed paths are reported
+				String message = e.getMessage();
+				assertTrue(message.startsWith("Failed to load 6 time series"));
+				assertTrue(message.contains(new InputDSSPathStrings(dssParts[2]).getImproPath()));
+				assertTrue(message.contains(new InputDSSPathStrings(dssParts[7]).getSubroPath()));
+				assertFalse(message.contains(new InputDSSPathStrings(dssParts[0]).getImproPath()));
+			}
+		}
+	}
+
+	@Test
+	public void testInvalidThreads() {
+		try {
+			new LandSegmentLoader(runoffDSS(), 0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			;
+		}
+	}
+
+}
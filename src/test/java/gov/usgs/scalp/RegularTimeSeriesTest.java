@@ -0,0 +1,142 @@
+package gov.usgs.scalp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class RegularTimeSeriesTest {
+
+	@Test
+	public void testGetValue() {
+
+		DateTime startTime = new DateTime(2021, 10, 1, 1, 0);
+		double[] values = { 1, 2, 3, 4 };
+
+		RegularTimeSeries timeSeries = new RegularTimeSeries(startTime, 60, values);
+
+		assertEquals(4, timeSeries.nObs());
+		assertEquals(60, timeSeries.getTimeStep());
+		assertEquals(startTime, timeSeries.getStartTime());
+
+		for (int i = 0; i < values.length; i++) {
+			assertEquals(values[i], timeSeries.getValue(startTime.addHours(i)), 0);
+			assertEquals(startTime.addHours(i), timeSeries.getTime(i));
+		}
+
+		// times off the time step or outside the series return 0
+		assertEquals(0, timeSeries.getValue(startTime.addMinutes(30)), 0);
+		assertEquals(0, timeSeries.getValue(startTime.subtractHours(1)), 0);
+		assertEquals(0, timeSeries.getValue(startTime.addHours(4)), 0);
+	}
+
+	@Test
+	public void testAdd() {
+
+		DateTime startTime = new DateTime(2021, 10, 1, 1, 0);
+
+		RegularTimeSeries timeSeries1 = new RegularTimeSeries(startTime, 60, new double[] { 1, 2, 3 });
+		RegularTimeSeries timeSeries2 = new RegularTimeSeries(startTime, 60, new double[] { 10, 20, 30 });
+		RegularTimeSeries shifted = new RegularTimeSeries(startTime.addHours(1), 60, new double[] { 10, 20, 30 });
+
+		assertTrue(timeSeries1.isAligned(timeSeries2));
+		assertFalse(timeSeries1.isAligned(shifted));
+
+		TimeSeries sum = timeSeries1.add(timeSeries2);
+		assertTrue(sum instanceof RegularTimeSeries);
+		assertEquals(11, sum.getValue(0), 0);
+		assertEquals(22, sum.getValue(1), 0);
+		assertEquals(33, sum.getValue(2), 0);
+
+		try {
+			timeSeries1.add(shifted);
+			fail();
+		} catch (RuntimeException e) {
+			assertEquals("Unequal times in time series addition", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testPut() {
+
+		DateTime startTime = new DateTime(2021, 10, 1, 1, 0);
+		RegularTimeSeries timeSeries = new RegularTimeSeries(startTime, 15, new double[0]);
+
+		for (int i = 0; i < 40; i++)
+			timeSeries.put(startTime.addMinutes(15 * i), i);
+
+		assertEquals(40, timeSeries.nObs());
+		assertEquals(39, timeSeries.getValue(startTime.addMinutes(15 * 39)), 0);
+
+		// times are computed from the start time and time step
+		assertEquals(startTime.addMinutes(15 * 39).getTimeInMillis(), timeSeries.getTimeInMillis(39));
+		assertEquals(startTime.addMinutes(15 * 39).getTimeInMillis(), timeSeries.getTimesInMillis()[39]);
+
+		timeSeries.put(startTime, -1);
+		assertEquals(-1, timeSeries.getValue(0), 0);
+		assertTrue(timeSeries.isRegular());
+
+		// observations off the time step are inserted as in any time series
+		TimeSeries expResult = new TimeSeries(timeSeries.getTimesInMillis(), timeSeries.getValues());
+		RegularTimeSeries aligned = new RegularTimeSeries(startTime, 15, timeSeries.getValues());
+		assertTrue(timeSeries.isAligned(aligned));
+
+		for (DateTime time : new DateTime[] { startTime.addMinutes(5), startTime.subtractHours(1),
+				startTime.addHours(20) }) {
+			timeSeries.put(time, 100);
+			expResult.put(time, 100);
+		}
+
+		assertFalse(timeSeries.isRegular());
+		assertFalse(timeSeries.isAligned(aligned));
+		assertEquals(expResult, timeSeries);
+		assertEquals(100, timeSeries.getValue(startTime.addMinutes(5)), 0);
+		assertEquals(43, timeSeries.nObs());
+		assertEquals(startTime.subtractHours(1), timeSeries.getTime(0));
+
+		// stored times grow with later observations
+		for (int i = 0; i < 20; i++) {
+			timeSeries.put(startTime.addHours(21 + i), i);
+			expResult.put(startTime.addHours(21 + i), i);
+		}
+		assertEquals(expResult, timeSeries);
+
+		try {
+			timeSeries.add(aligned);
+			fail();
+		} catch (RuntimeException e) {
+			assertEquals("Unequal times in time series addition", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testEquals() {
+
+		DateTime startTime = new DateTime(2021, 10, 1, 1, 0);
+		double[] values = { 1, 2, 3 };
+
+		RegularTimeSeries regular = new RegularTimeSeries(startTime, 60, values);
+
+		TimeSeries timeSeries = new TimeSeries();
+		for (int i = 0; i < values.length; i++)
+			timeSeries.put(startTime.addHours(i), values[i]);
+
+		assertTrue(regular.equals(timeSeries));
+		assertTrue(timeSeries.equals(regular));
+		assertEquals(timeSeries.hashCode(), regular.hashCode());
+	}
+
+	@Test
+	public void testFromSortedArrays() {
+
+		long[] regularTimes = { 0, 3600000, 7200000 };
+		long[] irregularTimes = { 0, 3600000, 10800000 };
+		double[] values = { 1, 2, 3 };
+
+		assertTrue(TimeSeries.fromSortedArrays(regularTimes, values) instanceof RegularTimeSeries);
+		assertFalse(TimeSeries.fromSortedArrays(irregularTimes, values) instanceof RegularTimeSeries);
+	}
+
+}
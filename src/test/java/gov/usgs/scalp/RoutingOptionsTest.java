@@ -0,0 +1,58 @@
+package gov.usgs.scalp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RoutingOptionsTest {
+
+	@Test
+	public void testParseArgs() {
+
+		RoutingOptions defaults = new RoutingOptions();
+		assertEquals(SCALP.TIME_STEP, defaults.getTimeStep());
+		assertFalse(defaults.isAdaptive());
+
+		RoutingOptions options = RoutingOptions.parseArgs(new String[] { "TIMESTEP=15" }, defaults);
+		assertEquals(15, options.getTimeStep());
+		assertFalse(options.isAdaptive());
+
+		options = RoutingOptions.parseArgs(new String[] { "tolerance=0.05" }, options);
+		assertEquals(15, options.getTimeStep());
+		assertEquals(0.05, options.getTolerance(), 0);
+		assertTrue(options.isAdaptive());
+
+		assertThrows(IllegalArgumentException.class,
+				() -> RoutingOptions.parseArgs(new String[] { "TIMESTEP=7" }, defaults));
+		assertThrows(IllegalArgumentException.class,
+				() -> RoutingOptions.parseArgs(new String[] { "TIMESTEP=one" }, defaults));
+		assertThrows(IllegalArgumentException.class,
+				() -> RoutingOptions.parseArgs(new String[] { "STEP=1" }, defaults));
+		assertThrows(IllegalArgumentException.class,
+				() -> RoutingOptions.parseArgs(new String[] { "TOLERANCE=-1" }, defaults));
+	}
+
+	@Test
+	public void testCoarseTimeStep() {
+
+		ReservoirInfo[] reservoirInfo = new ReservoirInfo[3];
+		reservoirInfo[0] = new ReservoirInfo(4 * 3600, 10, 5, 0, false);
+		reservoirInfo[1] = new ReservoirInfo(0, 10, 5, 0, false);
+		reservoirInfo[2] = new ReservoirInfo(8 * 3600, 10, 5, 0, false);
+
+		// fixed time step
+		assertEquals(5, new RoutingOptions(5).getCoarseTimeStep(reservoirInfo));
+
+		// 2 * 0.05 * 240 minutes = 24 minutes
+		assertEquals(20, new RoutingOptions(1, 0.05).getCoarseTimeStep(reservoirInfo));
+
+		// coarse time steps are multiples of the fine time step
+		assertEquals(15, new RoutingOptions(15, 0.05).getCoarseTimeStep(reservoirInfo));
+		assertEquals(60, new RoutingOptions(2, 1).getCoarseTimeStep(reservoirInfo));
+		assertEquals(2, new RoutingOptions(2, 0.001).getCoarseTimeStep(reservoirInfo));
+	}
+
+}
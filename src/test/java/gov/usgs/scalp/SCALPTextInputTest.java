@@ -5,9 +5,18 @@
  */
 package gov.usgs.scalp;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -296,4 +305,107 @@ public class SCALPTextInputTest {
 		assertArrayEquals(expResult, result);
 	}
 
+	// returns the lines of an input file with special contributing area blocks
+	private static List<String> inputLines(int[] scaNumbers) {
+
+		List<String> lines = new ArrayList<>(Arrays.asList(TestInputs.watershedLines("2017      09      30", 2)));
+		lines.addAll(Arrays.asList(TestInputs.sanitaryLines()));
+
+		for (int scaNumber : scaNumbers) {
+			lines.add("+++ SCA " + scaNumber);
+			lines.addAll(Arrays.asList(
+					TestInputs.scaLines(scaNumber, "SEG#,AREA=             2   0.021   0.031   0.031")));
+			lines.add("");
+		}
+
+		lines.add("FINISH");
+
+		return lines;
+	}
+
+	/**
+	 * Test of parsing special contributing area blocks in parallel, of class
+	 * SCALPTextInput.
+	 */
+	@Test
+	public void testParallelParsing() throws IOException, ParseException {
+
+		InMemoryTimeSeriesStore store = new InMemoryTimeSeriesStore("test");
+		Path path = Files.createTempFile("SCALPTextInputTest", ".c06");
+
+		try {
+			int[] scaNumbers = { 7, 3, 12, 1, 9, 4, 11 };
+			Files.write(path, inputLines(scaNumbers));
+
+			SCALPTextInput expResult = new SCALPTextInput(path.toString(), store);
+			SCALPTextInput result = new SCALPTextInput(path.toString(), store, 4);
+
+			// blocks are kept in file order
+			assertArrayEquals(scaNumbers, result.getScaNumbers());
+			assertArrayEquals(expResult.scalpLines(), result.scalpLines());
+			assertArrayEquals(expResult.inputFile(), result.inputFile());
+
+			// the first duplicate number is reported
+			Files.write(path, inputLines(new int[] { 7, 3, 7, 3 }));
+			try {
+				new SCALPTextInput(path.toString(), store, 4);
+				fail();
+			} catch (RuntimeException e) {
+				assertEquals("Duplicate special contributing area numbers encountered", e.getMessage());
+			}
+
+			// errors report the line number of the first block that fails
+			List<String> lines = inputLines(scaNumbers);
+			int errorLineNo = lines.indexOf("SCA#,AREA=             9   1.122") + 2;
+			lines.set(errorLineNo - 1, "LAND");
+			lines.set(lines.indexOf("SCA#,AREA=             4   1.122") + 1, "LAND");
+			Files.write(path, lines);
+
+			// only the errors of the first block that fails are logged
+			List<String> messages = new ArrayList<>();
+			Handler handler = new Handler() {
+
+				@Override
+				public synchronized void publish(LogRecord record) {
+					if (record.getLevel() == Level.SEVERE)
+						messages.add(record.getMessage());
+				}
+
+				@Override
+				public void flush() {
+				}
+
+				@Override
+				public void close() {
+				}
+			};
+			Logger logger = Logger.getLogger("gov.usgs.scalp.SCAInputBlock");
+			Level level = logger.getLevel();
+			boolean useParentHandlers = logger.getUseParentHandlers();
+			logger.setLevel(Level.SEVERE);
+			logger.setUseParentHandlers(false);
+			logger.addHandler(handler);
+
+			try {
+				for (int nThreads : new int[] { 1, 4 }) {
+					messages.clear();
+					try {
+						new SCALPTextInput(path.toString(), store, nThreads);
+						fail();
+					} catch (ParseException e) {
+						assertEquals("Error parsing SCA input block", e.getMessage());
+						assertEquals(errorLineNo, e.getErrorOffset());
+					}
+					assertEquals(Arrays.asList("Unexpected line: LAND, line number " + errorLineNo), messages);
+				}
+			} finally {
+				logger.removeHandler(handler);
+				logger.setUseParentHandlers(useParentHandlers);
+				logger.setLevel(level);
+			}
+		} finally {
+			Files.delete(path);
+		}
+	}
+
 }
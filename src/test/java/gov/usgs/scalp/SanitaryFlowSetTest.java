@@ -0,0 +1,64 @@
+package gov.usgs.scalp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class SanitaryFlowSetTest {
+
+	private static SNAInfo snaInfo() {
+		double[] monthly = IntStream.range(0, 12).mapToDouble(i -> 0.8 + 0.03 * i).toArray();
+		double[] weekday = IntStream.range(0, 7).mapToDouble(i -> 0.9 + 0.05 * i).toArray();
+		double[] hourly = IntStream.range(0, 24).mapToDouble(i -> 0.5 + 0.04 * i).toArray();
+		return new SNAInfo(0.0035, monthly, weekday, hourly);
+	}
+
+	@Test
+	public void testSanitaryFlowPerPerson() {
+
+		SNAInfo snaInfo = snaInfo();
+		SanitaryFlowSet flowSet = new SanitaryFlowSet(snaInfo);
+
+		DateTime dateTime = new DateTime(2001, 1, 1, 1, 0);
+
+		for (int i = 0; i < 24 * 400; i++) {
+
+			double expected = snaInfo.getHourlyFlowFactors()[dateTime.getHourOfDay() - 1]
+					* snaInfo.getWeekdayFlowFactors()[dateTime.getDayOfWeek() - 1]
+					* snaInfo.getMonthlyFlowFactors()[dateTime.getMonth() - 1] * snaInfo.getPopulationFactor();
+
+			assertEquals(expected, flowSet.sanitaryFlowPerPerson(dateTime), 0);
+
+			dateTime = dateTime.addHours(1);
+		}
+	}
+
+	@Test
+	public void testSanitaryFlowPerPersonRange() {
+
+		SanitaryFlowSet flowSet = new SanitaryFlowSet(snaInfo());
+
+		for (int timeStep : new int[] { 60, 180, 1440 }) {
+
+			DateTime startTime = new DateTime(2000, 2, 27, 5, 0);
+			double[] flow = new double[500];
+			flowSet.sanitaryFlowPerPerson(startTime, timeStep, flow);
+
+			for (int i = 0; i < flow.length; i++) {
+				DateTime dateTime = DateTime.fromTimeInMinutes(startTime.getTimeInMinutes() + i * timeStep);
+				assertEquals(flowSet.sanitaryFlowPerPerson(dateTime), flow[i], 0);
+			}
+		}
+
+		try {
+			flowSet.sanitaryFlowPerPerson(new DateTime(2000, 1, 1, 0, 30), 60, new double[1]);
+			fail();
+		} catch (IllegalArgumentException e) {
+			;
+		}
+	}
+
+}
@@ -0,0 +1,150 @@
+package gov.usgs.scalp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SewerCascadeTest {
+
+	private static ReservoirInfo[] reservoirInfo() {
+		ReservoirInfo[] reservoirInfo = new ReservoirInfo[3];
+		reservoirInfo[0] = new ReservoirInfo(900, 6, 3, 1, false);
+		reservoirInfo[1] = new ReservoirInfo(1800, 10, 5, 1, false);
+		reservoirInfo[2] = new ReservoirInfo(0, 20, 8, 1, true);
+		return reservoirInfo;
+	}
+
+	@Test
+	public void testRoute() {
+
+		int nTimes = 600;
+		double deltaT = 60;
+
+		double[][] inflow = new double[3][nTimes];
+		for (int i = 0; i < nTimes; i++) {
+			inflow[SingleLinearReservoir.INFILTRATION][i] = 0.75;
+			inflow[SingleLinearReservoir.SANITARY][i] = 0.1 * (i % 60) / 60;
+			inflow[SingleLinearReservoir.STORM_WATER][i] = i % 200 < 40 ? 25 : 0;
+		}
+
+		double[][] sewer = new double[3][nTimes];
+		double[][] overflow = new double[3][nTimes];
+		new SewerCascade(reservoirInfo()).route(inflow, deltaT, sewer, overflow);
+
+		// route the same flow reservoir by reservoir
+		ReservoirInfo[] reservoirInfo = reservoirInfo();
+		SingleLinearReservoir lateral = new SingleLinearReservoir(reservoirInfo[0]);
+		SingleLinearReservoir subMain = new SingleLinearReservoir(reservoirInfo[1]);
+		SingleLinearReservoir main = new SingleLinearReservoir(reservoirInfo[2]);
+
+		for (int i = 0; i < nTimes; i++) {
+
+			FlowValue in = new FlowValue(inflow[SingleLinearReservoir.INFILTRATION][i],
+					inflow[SingleLinearReservoir.SANITARY][i], inflow[SingleLinearReservoir.STORM_WATER][i]);
+
+			FlowValue[] lateralOut = lateral.step(in, deltaT);
+			FlowValue[] subMainOut = subMain.step(lateralOut[0], deltaT);
+			FlowValue[] mainOut = main.step(subMainOut[0], deltaT);
+			FlowValue overflowValue = new FlowValue(0, 0, 0)
+					.add(lateralOut[1].add(subMainOut[1].add(mainOut[1])));
+
+			assertEquals(mainOut[0], new FlowValue(sewer[SingleLinearReservoir.INFILTRATION][i],
+					sewer[SingleLinearReservoir.SANITARY][i], sewer[SingleLinearReservoir.STORM_WATER][i]));
+			assertEquals(overflowValue, new FlowValue(overflow[SingleLinearReservoir.INFILTRATION][i],
+					overflow[SingleLinearReservoir.SANITARY][i], overflow[SingleLinearReservoir.STORM_WATER][i]));
+		}
+	}
+
+	@Test
+	public void testRouteHourly() {
+
+		int nHours = 48;
+
+		double[][] inflow = new double[3][nHours];
+		for (int i = 0; i < nHours; i++) {
+			inflow[SingleLinearReservoir.INFILTRATION][i] = 0.75;
+			inflow[SingleLinearReservoir.SANITARY][i] = 0.1 * (i % 24) / 24;
+			inflow[SingleLinearReservoir.STORM_WATER][i] = i % 24 < 3 ? 25 : 0;
+		}
+
+		// thresholds are never reached, so all hours are routed at 15 minutes
+		ReservoirInfo[] reservoirInfo = new ReservoirInfo[3];
+		reservoirInfo[0] = new ReservoirInfo(2 * 3600, 100, 100, 1, false);
+		reservoirInfo[1] = new ReservoirInfo(4 * 3600, 100, 100, 1, false);
+		reservoirInfo[2] = new ReservoirInfo(6 * 3600, 100, 100, 1, false);
+
+		double[][] fineSewer = new double[3][nHours];
+		double[][] fineOverflow = new double[3][nHours];
+		SewerCascade cascade = new SewerCascade(reservoirInfo, new ExactExponentialIntegrator());
+		assertEquals(0, cascade.routeHourly(inflow, 1, 1, fineSewer, fineOverflow));
+
+		double[][] sewer = new double[3][nHours];
+		double[][] overflow = new double[3][nHours];
+		cascade = new SewerCascade(reservoirInfo, new ExactExponentialIntegrator());
+		assertEquals(0, cascade.routeHourly(inflow, 15, 1, sewer, overflow));
+
+		for (int c = 0; c < 3; c++) {
+			for (int i = 0; i < nHours; i++) {
+				assertEquals(fineSewer[c][i], sewer[c][i], 0.05 * 25);
+				assertEquals(0, overflow[c][i], 0);
+			}
+		}
+
+		// split flow is crossed as storm water rises and falls, so only the hours
+		// around the crossings are routed at the fine time step
+		reservoirInfo[0] = new ReservoirInfo(2 * 3600, 100, 5, 1, false);
+		cascade = new SewerCascade(reservoirInfo, new ExactExponentialIntegrator());
+		int nFineHours = cascade.routeHourly(inflow, 15, 1, sewer, overflow);
+		assertTrue(nFineHours > 0);
+		assertTrue(nFineHours < nHours / 4);
+
+		cascade = new SewerCascade(reservoirInfo, new ExactExponentialIntegrator());
+		cascade.routeHourly(inflow, 1, 1, fineSewer, fineOverflow);
+
+		for (int c = 0; c < 3; c++) {
+			for (int i = 0; i < nHours; i++) {
+				assertEquals(fineSewer[c][i], sewer[c][i], 0.05 * 25);
+				assertEquals(fineOverflow[c][i], overflow[c][i], 0.05 * 25);
+			}
+		}
+	}
+
+	@Test
+	public void testRouteHourlySteadyLimits() {
+
+		int nHours = 24 * 30;
+
+		double[][] inflow = new double[3][nHours];
+		for (int i = 0; i < nHours; i++) {
+			inflow[SingleLinearReservoir.INFILTRATION][i] = 0.75;
+			inflow[SingleLinearReservoir.SANITARY][i] = 0.25;
+			inflow[SingleLinearReservoir.STORM_WATER][i] = 2;
+		}
+
+		// outflow stays above split flow for the whole period, so every hour is
+		// routed at the coarse time step
+		ReservoirInfo[] reservoirInfo = new ReservoirInfo[3];
+		reservoirInfo[0] = new ReservoirInfo(2 * 3600, 100, 0.5, 3, false);
+		reservoirInfo[1] = new ReservoirInfo(4 * 3600, 100, 100, 0.5, false);
+		reservoirInfo[2] = new ReservoirInfo(6 * 3600, 100, 100, 0.5, false);
+
+		double[][] sewer = new double[3][nHours];
+		double[][] overflow = new double[3][nHours];
+		SewerCascade cascade = new SewerCascade(reservoirInfo, new ExactExponentialIntegrator());
+		assertEquals(0, cascade.routeHourly(inflow, 15, 1, sewer, overflow));
+
+		double[][] fineSewer = new double[3][nHours];
+		double[][] fineOverflow = new double[3][nHours];
+		cascade = new SewerCascade(reservoirInfo, new ExactExponentialIntegrator());
+		cascade.routeHourly(inflow, 1, 1, fineSewer, fineOverflow);
+
+		for (int c = 0; c < 3; c++) {
+			for (int i = 0; i < nHours; i++) {
+				assertEquals(fineSewer[c][i], sewer[c][i], 0.01);
+				assertEquals(fineOverflow[c][i], overflow[c][i], 0.05 * 3);
+			}
+		}
+	}
+
+}
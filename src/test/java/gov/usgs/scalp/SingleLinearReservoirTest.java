@@ -0,0 +1,37 @@
+package gov.usgs.scalp;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class SingleLinearReservoirTest {
+
+	@Test
+	public void testPrimitiveStep() {
+
+		ReservoirInfo reservoirInfo = new ReservoirInfo(600, 5, 2, 1.5, false);
+
+		SingleLinearReservoir slr1 = new SingleLinearReservoir(reservoirInfo);
+		SingleLinearReservoir slr2 = new SingleLinearReservoir(reservoirInfo);
+
+		double[] interceptorFlow = new double[3];
+		double[] overflow = new double[3];
+
+		for (int i = 0; i < 500; i++) {
+
+			double stormWater = i % 100 < 20 ? 10 : 0;
+			FlowValue inflow = new FlowValue(0.5, 0.25 * (i % 24) / 24, stormWater);
+
+			FlowValue[] out = slr1.step(inflow, 60);
+			slr2.step(inflow.getInfiltration(), inflow.getSanitary(), inflow.getStormWater(), 60, interceptorFlow,
+					overflow);
+
+			// results are identical, not approximately equal
+			assertEquals(out[0], new FlowValue(interceptorFlow[SingleLinearReservoir.INFILTRATION],
+					interceptorFlow[SingleLinearReservoir.SANITARY], interceptorFlow[SingleLinearReservoir.STORM_WATER]));
+			assertEquals(out[1], new FlowValue(overflow[SingleLinearReservoir.INFILTRATION],
+					overflow[SingleLinearReservoir.SANITARY], overflow[SingleLinearReservoir.STORM_WATER]));
+		}
+	}
+
+}
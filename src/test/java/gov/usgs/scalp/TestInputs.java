@@ -0,0 +1,178 @@
+package gov.usgs.scalp;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToDoubleBiFunction;
+
+/**
+ * Inputs shared by tests and benchmarks
+ * <p>
+ * Input blocks are built from literal input file lines, and land segment runoff
+ * is generated into an {@link InMemoryTimeSeriesStore} in place of reading it
+ * from a DSS file, so inputs are available without the HEC-DSS native library.
+ */
+final class TestInputs {
+
+	/**
+	 * Runoff that varies smoothly by path name and hour
+	 */
+	static final ToDoubleBiFunction<String, Integer> RUNOFF = (pathname,
+			hour) -> (pathname.hashCode() % 7 + 7) * 0.01 + Math.sin(hour / 10.0) * 0.1;
+
+	private TestInputs() {
+	}
+
+	/**
+	 * Returns the lines of a watershed block starting on October 1, 2016
+	 *
+	 * @param endDate
+	 *            ending date, as year, month, and day fields of the block
+	 * @param segmentNumbers
+	 *            land segment numbers, each on gage B part GAGE and the number
+	 * @return watershed block lines
+	 */
+	static String[] watershedLines(String endDate, int... segmentNumbers) {
+
+		List<String> lines = new ArrayList<>(Arrays.asList("WATERSHED", "TIME SPAN",
+				"STARTING DATE       2016      10      01", "ENDING   DATE       " + endDate, "OUTPUT LEVEL",
+				"           0", "DATA"));
+
+		for (int segmentNumber : segmentNumbers)
+			lines.add(String.format("%8d A=BONEYARD B=GAGE %d", segmentNumber, segmentNumber));
+
+		lines.add("END");
+
+		return lines.toArray(new String[0]);
+	}
+
+	/**
+	 * Returns the lines of a sanitary block with one info set
+	 *
+	 * @return sanitary block lines
+	 */
+	static String[] sanitaryLines() {
+		return new String[] { "SANITARY", "SNA#                   1", "SANCOMP=            2.468E-4",
+				"JAN-JUNE=           0.92    0.94    1.03    1.04    1.04    1.08",
+				"JULY-DEC=           1.10    1.09    1.01    0.93    0.92    0.90",
+				"WEEKLY=             0.93    1.00    1.03    1.05    1.03    1.00    0.96",
+				"01-06 AM            0.72    0.71    0.70    0.70    0.71    0.88",
+				"07-12 AM            1.04    1.12    1.14    1.14    1.15    1.17",
+				"01-06 PM            1.16    1.16    1.16    1.14    1.14    1.12",
+				"07-12 PM            1.10    1.07    1.03    0.98    0.90    0.86", "END" };
+	}
+
+	/**
+	 * Returns the lines of a special contributing area block with output to B part
+	 * N and the SCA number
+	 *
+	 * @param scaNumber
+	 *            SCA number
+	 * @param segmentLines
+	 *            SEG# lines of the LANDS section
+	 * @return SCA block lines
+	 */
+	static String[] scaLines(int scaNumber, String... segmentLines) {
+
+		List<String> lines = new ArrayList<>(
+				Arrays.asList("SCA", "ANALYSIS", String.format("SCA#,AREA=%14d   1.122", scaNumber), "LANDS"));
+
+		lines.addAll(Arrays.asList(segmentLines));
+
+		lines.addAll(Arrays.asList("END", "SANITARY", "SNA#,PE#               1   19531", "END", "INITIAL FLOWS",
+				"OUT1(*)=            14.4    14.4    14.4", "ROUTING", "STOPSTORE=            NO      NO      NO",
+				"RK(*)=              2580    2580    2580", "QMAX(*)             1436    1436      49",
+				"SPLIT(*)           27.75   27.75   27.75", "OUTPUT", "        A=NORTH B=N" + scaNumber + " F=",
+				"        A=NORTH B=N" + scaNumber + " F=", "EXECUTE"));
+
+		return lines.toArray(new String[0]);
+	}
+
+	/**
+	 * Returns a store of generated runoff for the land segments of a watershed
+	 * block, with an observation at each hour of the time span of the block
+	 *
+	 * @param watershedBlock
+	 *            watershed block
+	 * @param runoff
+	 *            runoff of a path name at an hour from the start of the time span
+	 * @return runoff store
+	 */
+	static TimeSeriesStore runoffStore(WatershedInputBlock watershedBlock, ToDoubleBiFunction<String, Integer> runoff) {
+
+		TimeSeriesStore store = new InMemoryTimeSeriesStore("runoff");
+
+		DateTime start = watershedBlock.getStartDate();
+		int nTimes = watershedBlock.getEndDate().diffHours(start);
+
+		for (int segmentNumber : watershedBlock.getSegmentNumbers()) {
+			InputDSSPathStrings paths = new InputDSSPathStrings(watershedBlock.getDssPath(segmentNumber));
+			for (String pathname : new String[] { paths.getImproPath(), paths.getOlfroPath(), paths.getSubroPath() }) {
+				double[] values = new double[nTimes];
+				for (int i = 0; i < nTimes; i++)
+					values[i] = runoff.applyAsDouble(pathname, i);
+				store.writeTimeSeries(pathname, new RegularTimeSeries(start, 60, values));
+			}
+		}
+
+		return store;
+	}
+
+	/**
+	 * Returns a watershed of land segments 2, 3, and 5 on generated runoff that
+	 * varies smoothly by path name and hour
+	 *
+	 * @param endDate
+	 *            ending date, as year, month, and day fields of the block
+	 * @return watershed
+	 * @throws ParseException
+	 *             if the watershed input is invalid
+	 */
+	static Watershed watershed(String endDate) throws ParseException {
+		return watershed(endDate, RUNOFF);
+	}
+
+	/**
+	 * Returns a watershed of land segments 2, 3, and 5 on generated runoff
+	 *
+	 * @param endDate
+	 *            ending date, as year, month, and day fields of the block
+	 * @param runoff
+	 *            runoff of a path name at an hour from the start of the time span
+	 * @return watershed
+	 * @throws ParseException
+	 *             if the watershed input is invalid
+	 */
+	static Watershed watershed(String endDate, ToDoubleBiFunction<String, Integer> runoff) throws ParseException {
+		WatershedInputBlock watershedBlock = new WatershedInputBlock(new InputFile(watershedLines(endDate, 2, 3, 5)));
+		return new Watershed(watershedBlock, runoffStore(watershedBlock, runoff));
+	}
+
+	/**
+	 * Returns sanitary flow information with one info set
+	 *
+	 * @return sanitary flow information
+	 * @throws ParseException
+	 *             if the sanitary input is invalid
+	 */
+	static Sanitary sanitary() throws ParseException {
+		return new Sanitary(new SanitaryInputBlock(new InputFile(sanitaryLines())));
+	}
+
+	/**
+	 * Returns a special contributing area block
+	 *
+	 * @param scaNumber
+	 *            SCA number
+	 * @param segmentLines
+	 *            SEG# lines of the LANDS section
+	 * @return SCA block
+	 * @throws ParseException
+	 *             if the SCA input is invalid
+	 */
+	static SCAInputBlock scaBlock(int scaNumber, String... segmentLines) throws ParseException {
+		return new SCAInputBlock(new InputFile(scaLines(scaNumber, segmentLines)));
+	}
+
+}
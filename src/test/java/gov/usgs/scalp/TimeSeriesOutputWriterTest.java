@@ -0,0 +1,169 @@
+package gov.usgs.scalp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class TimeSeriesOutputWriterTest {
+
+	// DSS file that records writes, failing paths that contain FAIL
+	private static class RecordingDSS extends DSS {
+
+		final List<String> pathnames = Collections.synchronizedList(new ArrayList<>());
+		final List<int[]> hecTimes = Collections.synchronizedList(new ArrayList<>());
+		final List<double[]> values = Collections.synchronizedList(new ArrayList<>());
+		final List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+
+		RecordingDSS() {
+			super("output.dss");
+		}
+
+		@Override
+		int writeTimeSeries(String pathname, int[] times, double[] vals) {
+
+			threads.add(Thread.currentThread());
+
+			if (pathname.contains("FAIL"))
+				return -1;
+
+			pathnames.add(pathname);
+			hecTimes.add(times);
+			values.add(vals);
+
+			return 0;
+		}
+	}
+
+	private static TimeSeries timeSeries(long start, int nObs, double offset) {
+		long[] times = IntStream.range(0, nObs).mapToLong(t -> start + t * 3600000L).toArray();
+		double[] values = IntStream.range(0, nObs).mapToDouble(t -> t + offset).toArray();
+		return new TimeSeries(times, values);
+	}
+
+	@Test
+	public void testWrite() {
+
+		RecordingDSS dss = new RecordingDSS();
+		long start = new DateTime(2020, 10, 1, 1, 0).getTimeInMillis();
+		TimeSeries[] batch = { timeSeries(start, 24, 0), timeSeries(start, 24, 100) };
+
+		try (TimeSeriesOutputWriter writer = new TimeSeriesOutputWriter(dss, 1)) {
+			writer.write(new String[] { "/A/B/C//1HOUR/F1/", "/A/B/C//1HOUR/F2/" }, batch);
+			writer.write(new String[] { "/A/B/C//1HOUR/F3/" }, new TimeSeries[] { timeSeries(start, 48, 200) });
+		}
+
+		assertEquals(3, dss.pathnames.size());
+		assertEquals("/A/B/C//1HOUR/F1/", dss.pathnames.get(0));
+		assertEquals("/A/B/C//1HOUR/F3/", dss.pathnames.get(2));
+
+		// records are written on the I/O thread
+		for (Thread thread : dss.threads)
+			assertNotSame(Thread.currentThread(), thread);
+
+		// times are converted once per time axis
+		assertSame(dss.hecTimes.get(0), dss.hecTimes.get(1));
+		assertNotSame(dss.hecTimes.get(1), dss.hecTimes.get(2));
+		assertArrayEquals(DSS.toHecTimes(batch[0].getTimesInMillis()), dss.hecTimes.get(0));
+		assertEquals(new DateTime(2020, 10, 1, 1, 0).getHecTime().value(), dss.hecTimes.get(0)[0]);
+
+		assertArrayEquals(batch[1].getValues(), dss.values.get(1), 0);
+	}
+
+	@Test
+	public void testWriteFailures() {
+
+		RecordingDSS dss = new RecordingDSS();
+		TimeSeries timeSeries = timeSeries(0, 12, 0);
+		TimeSeriesOutputWriter writer = new TimeSeriesOutputWriter(dss);
+
+		writer.write(new String[] { "/A/B/C//1HOUR/FAIL1/", "/A/B/C//1HOUR/OK/" },
+				new TimeSeries[] { timeSeries, timeSeries });
+		writer.write(new String[] { "/A/B/C//1HOUR/FAIL2/" }, new TimeSeries[] { timeSeries });
+
+		try {
+			writer.flush();
+			fail();
+		} catch (RuntimeException e) {
+			// all failed paths are reported, and writing continues past failures
+			assertTrue(e.getMessage().startsWith("Failed to write 2 records"));
+			assertTrue(e.getMessage().contains("/A/B/C//1HOUR/FAIL1/"));
+			assertTrue(e.getMessage().contains("/A/B/C//1HOUR/FAIL2/"));
+			assertFalse(e.getMessage().contains("/OK/"));
+		}
+
+		assertEquals(1, dss.pathnames.size());
+
+		// failures are reported once
+		writer.close();
+		writer.close();
+
+		try {
+			writer.write(new String[] { "/A/B/C//1HOUR/OK/" }, new TimeSeries[] { timeSeries });
+			fail();
+		} catch (IllegalStateException e) {
+			;
+		}
+	}
+
+	@Test
+	public void testCallbacks() {
+
+		RecordingDSS dss = new RecordingDSS();
+		TimeSeries timeSeries = timeSeries(0, 12, 0);
+		List<String> written = new ArrayList<>();
+		List<String> failed = new ArrayList<>();
+		Thread caller = Thread.currentThread();
+		TimeSeriesOutputWriter writer = new TimeSeriesOutputWriter(dss, 1);
+
+		for (String path : new String[] { "/A/B/C//1HOUR/F1/", "/A/B/C//1HOUR/FAIL/", "/A/B/C//1HOUR/F2/" }) {
+			writer.write(new String[] { path }, new TimeSeries[] { timeSeries }, failedPaths -> {
+				// callbacks run after the records are written, on the caller thread
+				assertTrue(dss.pathnames.contains(path) || failedPaths.contains(path));
+				assertSame(caller, Thread.currentThread());
+				written.add(path);
+				failed.addAll(failedPaths);
+			});
+		}
+
+		try {
+			writer.close();
+			fail();
+		} catch (RuntimeException e) {
+			;
+		}
+
+		// callbacks run in queue order, with the paths that failed to write
+		assertEquals(Arrays.asList("/A/B/C//1HOUR/F1/", "/A/B/C//1HOUR/FAIL/", "/A/B/C//1HOUR/F2/"), written);
+		assertEquals(Arrays.asList("/A/B/C//1HOUR/FAIL/"), failed);
+
+		// an exception thrown by a callback is thrown to the caller of the writer,
+		// by the write that completes the batch or by flush
+		TimeSeriesOutputWriter failingWriter = new TimeSeriesOutputWriter(new RecordingDSS(), 1);
+
+		try {
+			failingWriter.write(new String[] { "/A/B/C//1HOUR/F1/" }, new TimeSeries[] { timeSeries },
+					failedPaths -> {
+						throw new IllegalStateException("callback");
+					});
+			failingWriter.flush();
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals("callback", e.getMessage());
+		}
+
+		failingWriter.close();
+	}
+
+}
@@ -5,7 +5,9 @@ import static org.junit.Assert.assertEquals;
 
 import java.util.Arrays;
 import java.util.Random;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -113,4 +115,95 @@ public class TimeSeriesTest {
 		assertFalse(timeSeries1.equals(timeSeries3));
 	}
 
+	@Test
+	public void testPutOutOfOrder() {
+
+		DateTime dateTime = new DateTime(2021, 12, 3, 3, 0);
+
+		TimeSeries timeSeries = new TimeSeries();
+		timeSeries.put(dateTime.addHours(2), 2);
+		timeSeries.put(dateTime, 0);
+		timeSeries.put(dateTime.addHours(1), 1);
+		timeSeries.put(dateTime.addHours(2), 3); // replaces existing value
+
+		assertEquals(3, timeSeries.nObs());
+
+		double[] expected = { 0, 1, 3 };
+		double[] values = timeSeries.getValues();
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], values[i], 0);
+			assertEquals(dateTime.addHours(i), timeSeries.getTime(i));
+		}
+
+		// missing observation times return 0
+		assertEquals(0, timeSeries.getValue(dateTime.addHours(5)), 0);
+	}
+
+	@Test
+	public void testAdd() {
+
+		DateTime dateTime = new DateTime(2021, 12, 3, 3, 0);
+		int nObs = 24;
+
+		TimeSeries timeSeries1 = new TimeSeries();
+		TimeSeries timeSeries2 = new TimeSeries();
+		TimeSeries shorter = new TimeSeries();
+
+		for (int i = 0; i < nObs; i++) {
+			timeSeries1.put(dateTime.addHours(i), i);
+			timeSeries2.put(dateTime.addHours(i), 2 * i);
+			if (i > 0)
+				shorter.put(dateTime.addHours(i), i);
+		}
+
+		TimeSeries sum = timeSeries1.add(timeSeries2);
+
+		assertEquals(nObs, sum.nObs());
+		for (int i = 0; i < nObs; i++) {
+			assertEquals(3 * i, sum.getValue(i), 0);
+			assertEquals(dateTime.addHours(i).getTimeInMillis(), sum.getTimeInMillis(i));
+		}
+
+		try {
+			timeSeries1.add(shorter);
+			fail();
+		} catch (RuntimeException e) {
+			assertEquals("Unequal times in time series addition", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testSharedValues() {
+
+		TimeSeries timeSeries = new TimeSeries();
+		for (int i = 0; i < 20; i++)
+			timeSeries.put(new DateTime(2020, 1, 1, 1, 0).addHours(i), i);
+
+		// storage is trimmed to the observations and shared
+		double[] values = timeSeries.sharedValues();
+		assertArrayEquals(timeSeries.getValues(), values, 0);
+		assertSame(values, timeSeries.sharedValues());
+
+		// shared values can't be modified through the time series
+		for (DateTime time : new DateTime[] { new DateTime(2020, 1, 1, 1, 0), new DateTime(2021, 1, 1, 1, 0) }) {
+			try {
+				timeSeries.put(time, -1);
+				fail();
+			} catch (IllegalStateException e) {
+				;
+			}
+		}
+		assertEquals(0, values[0], 0);
+		assertEquals(20, timeSeries.nObs());
+
+		RegularTimeSeries regular = new RegularTimeSeries(new DateTime(2020, 1, 1, 1, 0), 60, new double[] { 1, 2 });
+		regular.sharedValues();
+		try {
+			regular.put(new DateTime(2020, 1, 1, 3, 0), 3);
+			fail();
+		} catch (IllegalStateException e) {
+			;
+		}
+	}
+
 }
@@ -143,6 +143,65 @@ public class WatershedInputBlockTest {
 		assertArrayEquals(expResult, result);
 	}
 
+	/**
+	 * Test of getRoutingOptions method, of class WatershedInputBlock.
+	 */
+	@Test
+	public void testGetRoutingOptions() throws ParseException {
+		String[] lines = { "WATERSHED", "+++ This is a test file", "", "TIME SPAN",
+				"STARTING DATE       2016      10      01", "ENDING   DATE       2017      09      30", "",
+				"OUTPUT LEVEL", "           0", "", "DATA", "       2 A=BONEYARD B=GAGE 2", "END" };
+		assertNull(new WatershedInputBlock(new InputFile(lines)).getRoutingOptions());
+
+		lines = new String[] { "WATERSHED", "TIME SPAN", "STARTING DATE       2016      10      01",
+				"ENDING   DATE       2017      09      30", "OUTPUT LEVEL", "           0", "TIME STEP",
+				"MINUTES               15", "DATA", "       2 A=BONEYARD B=GAGE 2", "END" };
+		WatershedInputBlock instance = new WatershedInputBlock(new InputFile(lines));
+		assertEquals(15, instance.getRoutingOptions().getTimeStep());
+		assertFalse(instance.getRoutingOptions().isAdaptive());
+
+		lines = new String[] { "WATERSHED", "TIME SPAN", "STARTING DATE       2016      10      01",
+				"ENDING   DATE       2017      09      30", "OUTPUT LEVEL", "           0", "TIME STEP",
+				"MINUTES                1", "TOLERANCE           0.05", "DATA", "       2 A=BONEYARD B=GAGE 2",
+				"END" };
+		instance = new WatershedInputBlock(new InputFile(lines));
+		assertEquals(1, instance.getRoutingOptions().getTimeStep());
+		assertEquals(0.05, instance.getRoutingOptions().getTolerance(), 0);
+
+		String[] expResult = { "WATERSHED", "TIME SPAN", "STARTING DATE       2016      10       1",
+				"ENDING DATE         2017       9      30", "OUTPUT LEVEL", "           0", "TIME STEP",
+				"MINUTES                1", "TOLERANCE         0.0500", "DATA     ",
+				"       2 A=BONEYARD B=GAGE 2                                                    ", "END" };
+		assertArrayEquals(expResult, instance.asString());
+
+		// tolerances round trip through the F8 field
+		for (String tolerance : new String[] { "0.001235", "0.000012", "1.5E-7", "12345678" }) {
+			lines = new String[] { "WATERSHED", "TIME SPAN", "STARTING DATE       2016      10      01",
+					"ENDING   DATE       2017      09      30", "OUTPUT LEVEL", "           0", "TIME STEP",
+					"MINUTES                1", String.format("%-16s%8s", "TOLERANCE", tolerance), "DATA",
+					"       2 A=BONEYARD B=GAGE 2", "END" };
+			double expTolerance = new WatershedInputBlock(new InputFile(lines)).getRoutingOptions().getTolerance();
+			assertEquals(Double.parseDouble(tolerance), expTolerance, 0);
+
+			lines[8] = new WatershedInputBlock(new InputFile(lines)).asString()[8];
+			assertEquals(24, lines[8].length());
+			double resultTolerance = new WatershedInputBlock(new InputFile(lines)).getRoutingOptions()
+					.getTolerance();
+			assertEquals(expTolerance, resultTolerance, expTolerance * 0.005);
+		}
+
+		lines = new String[] { "WATERSHED", "TIME SPAN", "STARTING DATE       2016      10      01",
+				"ENDING   DATE       2017      09      30", "OUTPUT LEVEL", "           0", "TIME STEP",
+				"MINUTES                7", "DATA", "       2 A=BONEYARD B=GAGE 2", "END" };
+		try {
+			new WatershedInputBlock(new InputFile(lines));
+			fail();
+		} catch (ParseException e) {
+			assertEquals("Error parsing WATERSHED input block", e.getMessage());
+			assertEquals(8, e.getErrorOffset());
+		}
+	}
+
 	/**
 	 * Test of getDssPath method, of class WatershedInputBlock.
 	 */
@@ -0,0 +1,49 @@
+package gov.usgs.scalp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.text.ParseException;
+
+import org.junit.Test;
+
+public class WatershedTest {
+
+	private static Watershed watershed() throws ParseException {
+		return TestInputs.watershed("2016      12      31");
+	}
+
+	@Test
+	public void testGetRunoffColumns() throws ParseException {
+
+		Watershed watershed = watershed();
+
+		LandSegmentTS segment = watershed.getLandSegment(3);
+		double[][] columns = watershed.getRunoffColumns(3);
+
+		assertArrayEquals(segment.imperviousRunoff().getValues(), columns[Watershed.IMPERVIOUS], 0);
+		assertArrayEquals(segment.overlandRunoff().getValues(), columns[Watershed.OVERLAND], 0);
+		assertArrayEquals(segment.subsurfaceRunoff().getValues(), columns[Watershed.SUBSURFACE], 0);
+
+		// columns share the storage of the runoff time series
+		assertSame(columns, watershed.getRunoffColumns(3));
+		assertSame(segment.imperviousRunoff().sharedValues(), columns[Watershed.IMPERVIOUS]);
+		assertSame(segment.subsurfaceRunoff().sharedValues(), columns[Watershed.SUBSURFACE]);
+		assertNotSame(columns[Watershed.OVERLAND], watershed.getRunoffColumns(5)[Watershed.OVERLAND]);
+
+		assertNull(watershed.getRunoffColumns(4));
+
+		// runoff can't be changed once it is shared by the columns
+		try {
+			segment.overlandRunoff().put(segment.overlandRunoff().getTime(0), -1);
+			fail();
+		} catch (IllegalStateException e) {
+			;
+		}
+		assertArrayEquals(segment.overlandRunoff().getValues(), columns[Watershed.OVERLAND], 0);
+	}
+
+}